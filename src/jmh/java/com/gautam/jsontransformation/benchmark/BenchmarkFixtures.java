@@ -0,0 +1,73 @@
+package com.gautam.jsontransformation.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.gautam.jsontransformation.transformer.DefaultTransformerPlugin;
+import com.gautam.jsontransformation.transformer.DummyJsonSchemaValidator;
+import com.gautam.jsontransformation.transformer.JsonTransformerHandler;
+import com.gautam.jsontransformation.transformer.mapping.MappingRegistry;
+import com.gautam.jsontransformation.transformer.mapping.MappingTemplateEngine;
+import com.gautam.jsontransformation.transformer.template.FreemarkerTemplateEngine;
+import com.gautam.jsontransformation.transformer.template.JsonNodeObjectWrapper;
+import com.gautam.jsontransformation.transformer.template.TemplateRegistry;
+import freemarker.template.Configuration;
+import freemarker.template.TemplateExceptionHandler;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Wires the transformation components the same way the Spring configuration does, without
+ * starting an application context. The template directory defaults to the application's
+ * templates and can be changed with {@code -Dbenchmark.template.dir=...}.
+ */
+final class BenchmarkFixtures {
+    static final String TEMPLATE = "output_template.ftl";
+    static final String MAPPING = "order.mapping.json";
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Keeps the handler's per-call info logging out of the measurements.
+     */
+    static void quietLogging() {
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+    }
+
+    static FreemarkerTemplateEngine templateEngine() throws IOException {
+        return new FreemarkerTemplateEngine(templateRegistry());
+    }
+
+    static MappingTemplateEngine mappingEngine() throws IOException {
+        MappingRegistry registry = new MappingRegistry(templateRegistry(), templateDir());
+        registry.preload();
+        return new MappingTemplateEngine(registry);
+    }
+
+    private static String templateDir() {
+        return System.getProperty("benchmark.template.dir", "src/main/resources/templates");
+    }
+
+    private static TemplateRegistry templateRegistry() throws IOException {
+        String templateDir = templateDir();
+        Configuration configuration = new Configuration(Configuration.VERSION_2_3_31);
+        configuration.setDirectoryForTemplateLoading(new File(templateDir));
+        configuration.setDefaultEncoding("UTF-8");
+        configuration.setTemplateUpdateDelayMilliseconds(Long.MAX_VALUE);
+        configuration.setTemplateExceptionHandler(TemplateExceptionHandler.RETHROW_HANDLER);
+        configuration.setLogTemplateExceptions(false);
+        configuration.setWrapUncheckedExceptions(true);
+        configuration.setObjectWrapper(new JsonNodeObjectWrapper(Configuration.VERSION_2_3_31));
+
+        TemplateRegistry registry = new TemplateRegistry(configuration, templateDir, false, false, 0);
+        registry.preload();
+        return registry;
+    }
+
+    static JsonTransformerHandler handler() throws IOException {
+        return new JsonTransformerHandler(templateEngine(), new DefaultTransformerPlugin(),
+                new DummyJsonSchemaValidator(), new DummyJsonSchemaValidator());
+    }
+}
@@ -0,0 +1,52 @@
+package com.gautam.jsontransformation.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Raw Jackson parse cost of an order document: the tree model the handler uses against the
+ * Map materialization it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JacksonParseBenchmark {
+
+    @Param({"small", "medium", "large"})
+    public String size;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private String inputJson;
+
+    @Setup
+    public void setUp() {
+        inputJson = OrderPayloads.order(OrderPayloads.linesFor(size));
+    }
+
+    @Benchmark
+    public JsonNode readTree() throws Exception {
+        return objectMapper.readTree(inputJson);
+    }
+
+    @Benchmark
+    public Map<?, ?> readValueAsMap() throws Exception {
+        return objectMapper.readValue(inputJson, Map.class);
+    }
+}
@@ -0,0 +1,52 @@
+package com.gautam.jsontransformation.benchmark;
+
+import java.util.Random;
+
+/**
+ * Generates order documents shaped like the input {@code output_template.ftl} expects.
+ */
+public final class OrderPayloads {
+
+    private OrderPayloads() {
+    }
+
+    /**
+     * @param size {@code small}, {@code medium} or {@code large}.
+     * @return the number of order lines used for that size.
+     */
+    public static int linesFor(String size) {
+        switch (size) {
+            case "small":
+                return 10;
+            case "medium":
+                return 1_000;
+            case "large":
+                return 100_000;
+            default:
+                throw new IllegalArgumentException("Unknown payload size: " + size);
+        }
+    }
+
+    /**
+     * Builds one order document with the given number of lines. The content is deterministic.
+     */
+    public static String order(int lines) {
+        Random random = new Random(lines);
+        StringBuilder json = new StringBuilder(lines * 64 + 128);
+        json.append("{\"order\": {")
+                .append("\"orderNumber\": \"ORD-").append(100000 + random.nextInt(900000)).append("\",")
+                .append("\"processed\": \"2025-06-07T21:47:00\",")
+                .append("\"release\": ").append(random.nextBoolean()).append(',')
+                .append("\"lines\": [");
+        for (int i = 0; i < lines; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"unit\": \"").append(i % 3 == 0 ? "kg" : "pcs")
+                    .append("\", \"quantity\": ").append(1 + random.nextInt(500))
+                    .append(", \"itemNumber\": \"A").append(String.format("%06d", i)).append("\"}");
+        }
+        json.append("]}}");
+        return json.toString();
+    }
+}
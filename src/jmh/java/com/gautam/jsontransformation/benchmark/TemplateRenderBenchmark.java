@@ -0,0 +1,77 @@
+package com.gautam.jsontransformation.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gautam.jsontransformation.transformer.mapping.MappingTemplateEngine;
+import com.gautam.jsontransformation.transformer.template.FreemarkerTemplateEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Render cost of {@code output_template.ftl} alone, with the input already parsed, against the
+ * equivalent mapping spec {@code order.mapping.json}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TemplateRenderBenchmark {
+
+    @Param({"small", "medium", "large"})
+    public String size;
+
+    private FreemarkerTemplateEngine engine;
+    private MappingTemplateEngine mappingEngine;
+    private Map<String, Object> dataModel;
+
+    @Setup
+    public void setUp() throws Exception {
+        engine = BenchmarkFixtures.templateEngine();
+        mappingEngine = BenchmarkFixtures.mappingEngine();
+        JsonNode input = new ObjectMapper().readTree(OrderPayloads.order(OrderPayloads.linesFor(size)));
+        dataModel = new HashMap<>();
+        dataModel.put("order", input.get("order"));
+        dataModel.put("extraInfo", "Value from benchmark");
+        dataModel.put("pluginAdded", "This field was added in beforeProcessing");
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String renderSingleThread() throws Exception {
+        return engine.process(BenchmarkFixtures.TEMPLATE, dataModel);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String renderAllCores() throws Exception {
+        return engine.process(BenchmarkFixtures.TEMPLATE, dataModel);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String renderMappingSingleThread() throws Exception {
+        return mappingEngine.process(BenchmarkFixtures.MAPPING, dataModel);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String renderMappingAllCores() throws Exception {
+        return mappingEngine.process(BenchmarkFixtures.MAPPING, dataModel);
+    }
+}
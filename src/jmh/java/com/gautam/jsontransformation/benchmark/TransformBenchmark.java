@@ -0,0 +1,59 @@
+package com.gautam.jsontransformation.benchmark;
+
+import com.gautam.jsontransformation.transformer.JsonTransformerHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end {@link JsonTransformerHandler#transform} with the default plugin and validators:
+ * parse, validation, hooks and render.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransformBenchmark {
+
+    @Param({"small", "medium", "large"})
+    public String size;
+
+    private JsonTransformerHandler handler;
+    private String inputJson;
+    private final Map<String, Object> extraParams =
+            Collections.singletonMap("extraInfo", "Value from benchmark");
+
+    @Setup
+    public void setUp() throws Exception {
+        BenchmarkFixtures.quietLogging();
+        handler = BenchmarkFixtures.handler();
+        inputJson = OrderPayloads.order(OrderPayloads.linesFor(size));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String transformSingleThread() throws Exception {
+        return handler.transform(BenchmarkFixtures.TEMPLATE, inputJson, extraParams);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String transformAllCores() throws Exception {
+        return handler.transform(BenchmarkFixtures.TEMPLATE, inputJson, extraParams);
+    }
+}
@@ -0,0 +1,132 @@
+package com.gautam.jsontransformation.benchmark;
+
+import com.gautam.jsontransformation.config.VirtualThreads;
+import com.gautam.jsontransformation.transformer.DefaultTransformerPlugin;
+import com.gautam.jsontransformation.transformer.DummyJsonSchemaValidator;
+import com.gautam.jsontransformation.transformer.JsonTransformerHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Platform-thread pool versus virtual threads for transformations whose plugin blocks, e.g. on an
+ * enrichment call. {@code concurrentRequests} runs many {@code /transform}-style calls at once;
+ * {@code batch} runs one NDJSON batch with parallel records. The {@code virtual} mode needs Java 21;
+ * on older JDKs run with {@code -p mode=platform}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VirtualThreadBenchmark {
+
+    @Param({"platform", "virtual"})
+    public String mode;
+
+    /** Milliseconds each record blocks in the plugin. */
+    @Param({"5"})
+    public long blockMillis;
+
+    /** Concurrent requests, and records per batch. */
+    @Param({"2000"})
+    public int tasks;
+
+    private ExecutorService executor;
+    private JsonTransformerHandler handler;
+    private String inputJson;
+    private byte[] batchInput;
+    private final Map<String, Object> extraParams =
+            Collections.singletonMap("extraInfo", "Value from benchmark");
+
+    @Setup
+    public void setUp() throws Exception {
+        BenchmarkFixtures.quietLogging();
+        int maxInFlight;
+        if ("virtual".equals(mode)) {
+            executor = VirtualThreads.newVirtualThreadPerTaskExecutor();
+            maxInFlight = 1024;
+        } else {
+            // Sized like Tomcat's default worker pool.
+            executor = Executors.newFixedThreadPool(200);
+            maxInFlight = 200 * 4;
+        }
+        handler = new JsonTransformerHandler(BenchmarkFixtures.templateEngine(), new BlockingPlugin(blockMillis),
+                new DummyJsonSchemaValidator(), new DummyJsonSchemaValidator());
+        handler.setBatchExecution(executor, maxInFlight, true);
+
+        inputJson = OrderPayloads.order(OrderPayloads.linesFor("small"));
+        StringBuilder batch = new StringBuilder();
+        for (int i = 0; i < tasks; i++) {
+            batch.append(inputJson).append('\n');
+        }
+        batchInput = batch.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public int concurrentRequests() throws Exception {
+        List<Future<String>> results = new ArrayList<>(tasks);
+        for (int i = 0; i < tasks; i++) {
+            results.add(executor.submit(() -> handler.transform(BenchmarkFixtures.TEMPLATE, inputJson, extraParams)));
+        }
+        int length = 0;
+        for (Future<String> result : results) {
+            length += result.get().length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    public long batch() throws Exception {
+        StringWriter out = new StringWriter();
+        return handler.transformBatch(BenchmarkFixtures.TEMPLATE, new ByteArrayInputStream(batchInput), extraParams, out);
+    }
+
+    /**
+     * The default plugin plus a blocking call per record.
+     */
+    private static final class BlockingPlugin extends DefaultTransformerPlugin {
+        private final long blockMillis;
+
+        BlockingPlugin(long blockMillis) {
+            this.blockMillis = blockMillis;
+        }
+
+        @Override
+        public Map<String, Object> beforeProcessing(Map<String, Object> dataModel) {
+            try {
+                Thread.sleep(blockMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.beforeProcessing(dataModel);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.gautam.jsontransformation.config;
+
+import com.gautam.jsontransformation.controller.AdmissionInterceptor;
+import com.gautam.jsontransformation.transformer.AdmissionControl;
+import com.gautam.jsontransformation.transformer.AimdLimiter;
+import com.gautam.jsontransformation.transformer.TemplateRouter;
+import com.gautam.jsontransformation.transformer.mapping.MappingRegistry;
+import com.gautam.jsontransformation.transformer.template.TemplateRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Sheds load on the servlet transformation endpoints instead of queueing it: per-template bulkheads,
+ * a budget of payload bytes in flight and an adaptive concurrency limit, see {@link AdmissionControl}.
+ * Batch requests take their template's bulkhead and their payload bytes but stay out of the adaptive
+ * limit, since their duration depends on the upload. Only the templates and mappings loaded by the
+ * registries get a bulkhead. The reactive endpoints are not admitted. Disabled with
+ * {@code transform.admission.enabled=false}.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "transform.admission.enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(AdmissionProperties.class)
+public class AdmissionConfiguration implements WebMvcConfigurer {
+    private final AdmissionProperties properties;
+    private final TemplateRoutingProperties routing;
+    private final TemplateRouter router;
+    private final MeterRegistry meterRegistry;
+    private final TemplateRegistry templateRegistry;
+    private final MappingRegistry mappingRegistry;
+
+    public AdmissionConfiguration(AdmissionProperties properties, TemplateRoutingProperties routing,
+                                  TemplateRouter router, MeterRegistry meterRegistry,
+                                  TemplateRegistry templateRegistry, MappingRegistry mappingRegistry) {
+        this.properties = properties;
+        this.routing = routing;
+        this.router = router;
+        this.meterRegistry = meterRegistry;
+        this.templateRegistry = templateRegistry;
+        this.mappingRegistry = mappingRegistry;
+    }
+
+    @Bean
+    public AdmissionControl admissionControl() {
+        AdmissionProperties.Limit limit = properties.getLimit();
+        AimdLimiter limiter = limit.isEnabled()
+                ? new AimdLimiter(limit.getInitial(), limit.getMin(), limit.getMax(),
+                limit.getLatencyTarget().toNanos(), limit.getBackoffRatio())
+                : null;
+        AdmissionControl admission = new AdmissionControl(properties.getTemplateConcurrency(),
+                properties.getTemplateLimits(), properties.getMaxInFlightBytes().toBytes(), limiter);
+        admission.setUnknownLengthBytes(properties.getUnknownLengthBytes().toBytes());
+        admission.setKnownTemplates(name -> templateRegistry.getRegistered(name) != null
+                || mappingRegistry.getMappingNames().contains(name));
+        admission.bindTo(meterRegistry);
+        return admission;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new AdmissionInterceptor(admissionControl(), router, routing.getHeader()))
+                .addPathPatterns("/transform", "/transform/**")
+                .excludePathPatterns("/transform/batch", "/transform/batch/**");
+        // Batches stream for as long as the upload lasts, so they are kept out of the latency-driven limit.
+        registry.addInterceptor(new AdmissionInterceptor(admissionControl(), router, routing.getHeader(), true))
+                .addPathPatterns("/transform/batch", "/transform/batch/**");
+    }
+}
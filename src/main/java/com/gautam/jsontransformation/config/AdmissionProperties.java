@@ -0,0 +1,138 @@
+package com.gautam.jsontransformation.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Admission control of the transformation endpoints, bound from {@code transform.admission.*}.
+ */
+@ConfigurationProperties(prefix = "transform.admission")
+public class AdmissionProperties {
+
+    /** Whether requests are admitted through the limits below at all. */
+    private boolean enabled = true;
+    /** Concurrent transformations per template (0 for no per-template limit). */
+    private int templateConcurrency = 64;
+    /** Concurrent transformations of individual templates, overriding the default. */
+    private Map<String, Integer> templateLimits = new HashMap<>();
+    /** Declared payload bytes of all admitted requests together (0 for no budget). */
+    private DataSize maxInFlightBytes = DataSize.ofMegabytes(256);
+    /** Bytes charged to the budget for a request without a Content-Length, e.g. a chunked upload. */
+    private DataSize unknownLengthBytes = DataSize.ofMegabytes(1);
+    /** Adaptive concurrency limit over all templates. */
+    private final Limit limit = new Limit();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getTemplateConcurrency() {
+        return templateConcurrency;
+    }
+
+    public void setTemplateConcurrency(int templateConcurrency) {
+        this.templateConcurrency = templateConcurrency;
+    }
+
+    public Map<String, Integer> getTemplateLimits() {
+        return templateLimits;
+    }
+
+    public void setTemplateLimits(Map<String, Integer> templateLimits) {
+        this.templateLimits = templateLimits;
+    }
+
+    public DataSize getMaxInFlightBytes() {
+        return maxInFlightBytes;
+    }
+
+    public void setMaxInFlightBytes(DataSize maxInFlightBytes) {
+        this.maxInFlightBytes = maxInFlightBytes;
+    }
+
+    public DataSize getUnknownLengthBytes() {
+        return unknownLengthBytes;
+    }
+
+    public void setUnknownLengthBytes(DataSize unknownLengthBytes) {
+        this.unknownLengthBytes = unknownLengthBytes;
+    }
+
+    public Limit getLimit() {
+        return limit;
+    }
+
+    /**
+     * Settings of the AIMD limit.
+     */
+    public static class Limit {
+        /** Whether the adaptive limit is applied. */
+        private boolean enabled = true;
+        /** Limit to start with. */
+        private int initial = 32;
+        /** Lowest the limit can drop to. */
+        private int min = 4;
+        /** Highest the limit can grow to. */
+        private int max = 512;
+        /** Transformation latency above which the limit is decreased; uploads and response writes do not count. */
+        private Duration latencyTarget = Duration.ofSeconds(1);
+        /** Factor the limit is multiplied with on a decrease. */
+        private double backoffRatio = 0.9;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getInitial() {
+            return initial;
+        }
+
+        public void setInitial(int initial) {
+            this.initial = initial;
+        }
+
+        public int getMin() {
+            return min;
+        }
+
+        public void setMin(int min) {
+            this.min = min;
+        }
+
+        public int getMax() {
+            return max;
+        }
+
+        public void setMax(int max) {
+            this.max = max;
+        }
+
+        public Duration getLatencyTarget() {
+            return latencyTarget;
+        }
+
+        public void setLatencyTarget(Duration latencyTarget) {
+            this.latencyTarget = latencyTarget;
+        }
+
+        public double getBackoffRatio() {
+            return backoffRatio;
+        }
+
+        public void setBackoffRatio(double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+        }
+    }
+}
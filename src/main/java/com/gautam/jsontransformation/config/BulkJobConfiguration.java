@@ -0,0 +1,52 @@
+package com.gautam.jsontransformation.config;
+
+import com.gautam.jsontransformation.job.BulkTransformJob;
+import com.gautam.jsontransformation.transformer.JsonTransformerHandler;
+import com.gautam.jsontransformation.transformer.MappedFileDataLoader;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Runs a {@link BulkTransformJob} at startup when {@code transform.job.input} is set, e.g.
+ * {@code java -jar app.jar --spring.main.web-application-type=none --transform.job.input=in --transform.job.output=out}.
+ * Failed files make the run fail, so schedulers see a non-zero exit code.
+ */
+@Configuration
+@ConditionalOnProperty(name = "transform.job.input")
+@EnableConfigurationProperties(BulkJobProperties.class)
+public class BulkJobConfiguration {
+
+    @Bean
+    public ApplicationRunner bulkTransformJobRunner(JsonTransformerHandler transformer, BulkJobProperties job,
+                                                    TemplateRoutingProperties routing) {
+        return args -> {
+            if (job.getOutput() == null || job.getOutput().isEmpty()) {
+                throw new IllegalStateException("transform.job.output must be set for a bulk job");
+            }
+            Path output = Paths.get(job.getOutput());
+            Path checkpoint = job.getCheckpoint().isEmpty()
+                    ? output.resolve(".transform-checkpoint") : Paths.get(job.getCheckpoint());
+            String template = job.getTemplate().isEmpty() ? routing.getDefaultTemplate() : job.getTemplate();
+
+            BulkTransformJob bulkJob = new BulkTransformJob(transformer, template, Paths.get(job.getInput()),
+                    job.getGlob(), output, checkpoint);
+            int parallelism = job.getParallelism() > 0 ? job.getParallelism() : Runtime.getRuntime().availableProcessors();
+            bulkJob.setConcurrency(parallelism, job.getReadAhead() > 0 ? job.getReadAhead() : parallelism);
+            if (job.isMemoryMapped()) {
+                bulkJob.setDataLoaders(file -> new MappedFileDataLoader(file.toString()));
+            }
+
+            BulkTransformJob.Summary summary = bulkJob.run();
+            if (summary.getFailed() > 0) {
+                throw new IllegalStateException("Bulk job failed for " + summary.getFailed()
+                        + " files; rerun to retry them");
+            }
+        };
+    }
+}
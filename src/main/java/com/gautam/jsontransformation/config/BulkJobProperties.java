@@ -0,0 +1,92 @@
+package com.gautam.jsontransformation.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Offline bulk transformation job, bound from {@code transform.job.*}. The job runs at startup
+ * when an input directory is set.
+ */
+@ConfigurationProperties(prefix = "transform.job")
+public class BulkJobProperties {
+
+    /** Directory walked for input files. */
+    private String input;
+    /** Glob matched against paths relative to the input directory. */
+    private String glob = "**.json";
+    /** Directory receiving the outputs, at the same relative paths as their inputs. */
+    private String output;
+    /** Template applied to every file (empty for the routing default template). */
+    private String template = "";
+    /** File recording finished inputs (empty for {@code .transform-checkpoint} in the output directory). */
+    private String checkpoint = "";
+    /** Files transformed at the same time (0 = one per core). */
+    private int parallelism;
+    /** Files prefetched into the page cache ahead of the workers (0 = as many as there are workers). */
+    private int readAhead;
+    /** Read inputs through memory mapping instead of buffered reads. */
+    private boolean memoryMapped;
+
+    public String getInput() {
+        return input;
+    }
+
+    public void setInput(String input) {
+        this.input = input;
+    }
+
+    public String getGlob() {
+        return glob;
+    }
+
+    public void setGlob(String glob) {
+        this.glob = glob;
+    }
+
+    public String getOutput() {
+        return output;
+    }
+
+    public void setOutput(String output) {
+        this.output = output;
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    public void setTemplate(String template) {
+        this.template = template;
+    }
+
+    public String getCheckpoint() {
+        return checkpoint;
+    }
+
+    public void setCheckpoint(String checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public int getReadAhead() {
+        return readAhead;
+    }
+
+    public void setReadAhead(int readAhead) {
+        this.readAhead = readAhead;
+    }
+
+    public boolean isMemoryMapped() {
+        return memoryMapped;
+    }
+
+    public void setMemoryMapped(boolean memoryMapped) {
+        this.memoryMapped = memoryMapped;
+    }
+}
@@ -0,0 +1,24 @@
+package com.gautam.jsontransformation.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Values shared by every transformation, bound from {@code transform.data-model.*}.
+ */
+@ConfigurationProperties(prefix = "transform.data-model")
+public class DataModelProperties {
+
+    /** Names visible to every template, below the request parameters and above the input fields. */
+    private Map<String, String> globals = new LinkedHashMap<>();
+
+    public Map<String, String> getGlobals() {
+        return globals;
+    }
+
+    public void setGlobals(Map<String, String> globals) {
+        this.globals = globals;
+    }
+}
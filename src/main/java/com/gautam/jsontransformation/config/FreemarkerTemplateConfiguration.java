@@ -1,5 +1,7 @@
 package com.gautam.jsontransformation.config;
 
+import com.gautam.jsontransformation.transformer.template.JsonDirectives;
+import com.gautam.jsontransformation.transformer.template.JsonNodeObjectWrapper;
 import freemarker.template.TemplateExceptionHandler;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -15,6 +17,8 @@ public class FreemarkerTemplateConfiguration {
     private String templateDir;
     @Value("${template.mode.dev:false}")
     private boolean devMode;
+    @Value("${template.watch.enabled:true}")
+    private boolean watchEnabled;
 
     /**
      * Initializes a Freemarker configuration with the specified template directory and mode.
@@ -27,7 +31,10 @@ public class FreemarkerTemplateConfiguration {
                 new freemarker.template.Configuration(freemarker.template.Configuration.VERSION_2_3_31);
         configuration.setDirectoryForTemplateLoading(new File(templateDir));
         configuration.setDefaultEncoding("UTF-8");
-        if (devMode) {
+        if (watchEnabled) {
+            // The template registry's watcher evicts changed files, so Freemarker never has to check them.
+            configuration.setTemplateUpdateDelayMilliseconds(Long.MAX_VALUE);
+        } else if (devMode) {
             configuration.setTemplateUpdateDelayMilliseconds(0);
         } else {
             configuration.setTemplateUpdateDelayMilliseconds(60000);
@@ -35,6 +42,11 @@ public class FreemarkerTemplateConfiguration {
         configuration.setTemplateExceptionHandler(TemplateExceptionHandler.RETHROW_HANDLER);
         configuration.setLogTemplateExceptions(false);
         configuration.setWrapUncheckedExceptions(true);
+        // Let templates walk the parsed Jackson tree without converting it to Maps first.
+        configuration.setObjectWrapper(
+                new JsonNodeObjectWrapper(freemarker.template.Configuration.VERSION_2_3_31));
+        // <@json.object>, <@json.field> etc. emit JSON through a Jackson generator.
+        configuration.setSharedVariable(JsonDirectives.VARIABLE_NAME, new JsonDirectives());
 
         return configuration;
     }
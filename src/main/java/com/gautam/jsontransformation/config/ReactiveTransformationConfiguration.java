@@ -0,0 +1,60 @@
+package com.gautam.jsontransformation.config;
+
+import com.gautam.jsontransformation.controller.ReactiveTransformationHandler;
+import com.gautam.jsontransformation.transformer.JsonTransformerHandler;
+import com.gautam.jsontransformation.transformer.TemplateRouter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Serves the transformation endpoints with WebFlux when the application runs as a reactive web
+ * application ({@code spring.main.web-application-type=reactive}); otherwise the MVC controller does.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveTransformationConfiguration {
+
+    @Value("${transform.routing.header:X-Template}")
+    private String routingHeader;
+    @Value("${transform.reactive.concurrency:0}")
+    private int concurrency;
+    @Value("${transform.virtual-threads.enabled:false}")
+    private boolean virtualThreads;
+
+    /**
+     * Builds the reactive endpoint handler. Rendering is CPU-bound, so records run on the parallel
+     * scheduler, or on virtual threads from the batch executor if those are enabled.
+     */
+    @Bean
+    public ReactiveTransformationHandler reactiveTransformationHandler(JsonTransformerHandler transformer,
+                                                                       TemplateRouter router,
+                                                                       ExecutorService transformBatchExecutor) {
+        int recordConcurrency = concurrency > 0 ? concurrency : Runtime.getRuntime().availableProcessors();
+        Scheduler scheduler = virtualThreads
+                ? Schedulers.fromExecutorService(transformBatchExecutor, "transform-virtual")
+                : Schedulers.parallel();
+        return new ReactiveTransformationHandler(transformer, router, routingHeader, scheduler, recordConcurrency);
+    }
+
+    /**
+     * Routes the same paths as the MVC controller; batch paths come first so they are not taken for template names.
+     */
+    @Bean
+    public RouterFunction<ServerResponse> transformationRoutes(ReactiveTransformationHandler handler) {
+        return RouterFunctions.route()
+                .POST("/transform/batch", handler::transformBatch)
+                .POST("/transform/batch/{templateName}", handler::transformBatch)
+                .POST("/transform", handler::transform)
+                .POST("/transform/{templateName}", handler::transform)
+                .build();
+    }
+}
@@ -0,0 +1,54 @@
+package com.gautam.jsontransformation.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Template routing rules, bound from {@code transform.routing.*}.
+ */
+@ConfigurationProperties(prefix = "transform.routing")
+public class TemplateRoutingProperties {
+
+    /** Template used when no other rule selects one. */
+    private String defaultTemplate = "output_template.ftl";
+    /** Request header that names the template directly. */
+    private String header = "X-Template";
+    /** Dotted path of a payload field whose value selects the template (empty to disable). */
+    private String field = "";
+    /** Template for each value of the routing field. */
+    private Map<String, String> fieldTemplates = new HashMap<>();
+
+    public String getDefaultTemplate() {
+        return defaultTemplate;
+    }
+
+    public void setDefaultTemplate(String defaultTemplate) {
+        this.defaultTemplate = defaultTemplate;
+    }
+
+    public String getHeader() {
+        return header;
+    }
+
+    public void setHeader(String header) {
+        this.header = header;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public void setField(String field) {
+        this.field = field;
+    }
+
+    public Map<String, String> getFieldTemplates() {
+        return fieldTemplates;
+    }
+
+    public void setFieldTemplates(Map<String, String> fieldTemplates) {
+        this.fieldTemplates = fieldTemplates;
+    }
+}
@@ -0,0 +1,181 @@
+package com.gautam.jsontransformation.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.gautam.jsontransformation.transformer.AsyncTransformerPlugin;
+import com.gautam.jsontransformation.transformer.DefaultTransformerPlugin;
+import com.gautam.jsontransformation.transformer.JsonFieldProbe;
+import com.gautam.jsontransformation.transformer.JsonSchemaValidator;
+import com.gautam.jsontransformation.transformer.JsonTransformerHandler;
+import com.gautam.jsontransformation.transformer.OutputBufferPool;
+import com.gautam.jsontransformation.transformer.PluginChain;
+import com.gautam.jsontransformation.transformer.TemplateRouter;
+import com.gautam.jsontransformation.transformer.TransformCoalescer;
+import com.gautam.jsontransformation.transformer.TransformMetrics;
+import com.gautam.jsontransformation.transformer.TransformResultCache;
+import com.gautam.jsontransformation.transformer.mapping.MappingRegistry;
+import com.gautam.jsontransformation.transformer.mapping.MappingTemplateEngine;
+import com.gautam.jsontransformation.transformer.schema.JsonSchemaRegistry;
+import com.gautam.jsontransformation.transformer.schema.TemplateSchemaValidator;
+import com.gautam.jsontransformation.transformer.template.FreemarkerTemplateEngine;
+import com.gautam.jsontransformation.transformer.template.RoutingTemplateEngine;
+import com.gautam.jsontransformation.transformer.template.TemplateEngine;
+import com.gautam.jsontransformation.transformer.template.TemplateRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@EnableConfigurationProperties({TemplateRoutingProperties.class, DataModelProperties.class})
+public class TransformerConfiguration {
+    private static final int VIRTUAL_THREAD_MAX_IN_FLIGHT = 1024;
+
+    @Value("${transform.batch.parallelism:0}")
+    private int parallelism;
+    @Value("${transform.batch.queue-capacity:0}")
+    private int queueCapacity;
+    @Value("${transform.batch.max-in-flight:0}")
+    private int maxInFlight;
+    @Value("${transform.batch.preserve-order:true}")
+    private boolean preserveOrder;
+    @Value("${transform.virtual-threads.enabled:false}")
+    private boolean virtualThreads;
+    @Value("${transform.plugins.batch-size:0}")
+    private int pluginBatchSize;
+    @Value("${transform.input.projection.enabled:true}")
+    private boolean inputProjection;
+    @Value("${transform.coalescing.enabled:true}")
+    private boolean coalescing;
+    @Value("${transform.coalescing.timeout:30s}")
+    private Duration coalescingTimeout;
+    @Value("${transform.output.pool.max-buffers:64}")
+    private int outputPoolMaxBuffers;
+    @Value("${transform.output.pool.max-buffer-size:1048576}")
+    private int outputPoolMaxBufferSize;
+
+    /**
+     * Worker pool for batch records. Both the pool and its queue are bounded; when they are full the
+     * submitting request thread runs the record itself, which slows down its parsing instead of
+     * queueing unbounded work. With virtual threads every record gets its own virtual thread and
+     * only the per-request in-flight window limits concurrency.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService transformBatchExecutor() {
+        if (virtualThreads) {
+            return VirtualThreads.newVirtualThreadPerTaskExecutor();
+        }
+        int threads = batchThreads();
+        int capacity = queueCapacity > 0 ? queueCapacity : threads * 4;
+        return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(capacity),
+                new CustomizableThreadFactory("transform-batch-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * The engine every template is rendered with: mapping specs ({@code *.mapping.json}) go to the
+     * mapping engine, everything else to Freemarker.
+     */
+    @Bean
+    @Primary
+    public TemplateEngine templateEngine(FreemarkerTemplateEngine freemarker, MappingTemplateEngine mappings) {
+        return new RoutingTemplateEngine(freemarker).route(MappingRegistry.MAPPING_SUFFIX, mappings);
+    }
+
+    /**
+     * Builds the transformation handler used by the REST endpoints. Documents are validated against
+     * the input and output schemas of their template, if it has any. {@link AsyncTransformerPlugin}
+     * beans run after the default plugin, all at once and merged in their {@code @Order}.
+     */
+    @Bean
+    public JsonTransformerHandler jsonTransformerHandler(TemplateEngine engine, ExecutorService transformBatchExecutor,
+                                                         JsonSchemaRegistry schemaRegistry,
+                                                         ObjectProvider<TransformResultCache> resultCache,
+                                                         ObjectProvider<AsyncTransformerPlugin> asyncPlugins,
+                                                         DataModelProperties dataModel,
+                                                         TemplateRoutingProperties routing,
+                                                         MeterRegistry meterRegistry,
+                                                         TemplateRegistry templateRegistry,
+                                                         MappingRegistry mappingRegistry) {
+        PluginChain plugin = new PluginChain().then(new DefaultTransformerPlugin());
+        AsyncTransformerPlugin[] enrichers = asyncPlugins.orderedStream().toArray(AsyncTransformerPlugin[]::new);
+        if (enrichers.length > 0) {
+            plugin.then(enrichers);
+        }
+        String defaultTemplate = routing.getDefaultTemplate();
+        JsonSchemaValidator inputValidator =
+                new TemplateSchemaValidator(schemaRegistry, JsonSchemaRegistry.Kind.INPUT, defaultTemplate);
+        JsonSchemaValidator outputValidator =
+                new TemplateSchemaValidator(schemaRegistry, JsonSchemaRegistry.Kind.OUTPUT, defaultTemplate);
+
+        JsonTransformerHandler handler = new JsonTransformerHandler(engine, plugin, inputValidator, outputValidator);
+        handler.setResultCache(resultCache.getIfAvailable());
+        TransformMetrics metrics = new TransformMetrics(meterRegistry);
+        metrics.setKnownTemplates(name -> templateRegistry.getRegistered(name) != null
+                || mappingRegistry.getMappingNames().contains(name));
+        handler.setMetrics(metrics);
+        handler.setPluginBatchSize(pluginBatchSize);
+        handler.setInputProjection(inputProjection);
+        if (coalescing) {
+            TransformCoalescer coalescer = new TransformCoalescer(coalescingTimeout);
+            coalescer.bindTo(meterRegistry);
+            handler.setCoalescer(coalescer);
+        }
+        if (outputPoolMaxBuffers > 0) {
+            handler.setOutputBufferPool(new OutputBufferPool(outputPoolMaxBuffers, outputPoolMaxBufferSize));
+        }
+        handler.setGlobals(new LinkedHashMap<>(dataModel.getGlobals()));
+        int threads = batchThreads();
+        if (virtualThreads) {
+            // Records that block in a plugin only park their virtual thread, so many more can be in flight.
+            handler.setBatchExecution(transformBatchExecutor,
+                    maxInFlight > 0 ? maxInFlight : VIRTUAL_THREAD_MAX_IN_FLIGHT, preserveOrder);
+        } else if (threads > 1) {
+            handler.setBatchExecution(transformBatchExecutor,
+                    maxInFlight > 0 ? maxInFlight : threads * 4, preserveOrder);
+        }
+        return handler;
+    }
+
+    /**
+     * Optional cache of transformation results; entries of a template are dropped when it is reloaded.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "transform.cache.enabled", havingValue = "true")
+    public TransformResultCache transformResultCache(TemplateRegistry templateRegistry, MappingRegistry mappingRegistry,
+                                                     MeterRegistry meterRegistry,
+                                                     @Value("${transform.cache.maximum-size:1000}") long maximumSize,
+                                                     @Value("${transform.cache.ttl:10m}") Duration ttl) {
+        TransformResultCache cache = new TransformResultCache(maximumSize, ttl);
+        templateRegistry.addReloadListener(cache::invalidateTemplate);
+        mappingRegistry.addReloadListener(cache::invalidateTemplate);
+        cache.bindTo(meterRegistry, "transformResults");
+        return cache;
+    }
+
+    /**
+     * Builds the router that picks a template per request.
+     */
+    @Bean
+    public TemplateRouter templateRouter(TemplateRoutingProperties routing) {
+        JsonFieldProbe fieldProbe = routing.getField() == null || routing.getField().isEmpty()
+                ? null : new JsonFieldProbe(new JsonFactory(), routing.getField());
+        return new TemplateRouter(routing.getDefaultTemplate(), fieldProbe, routing.getFieldTemplates());
+    }
+
+    private int batchThreads() {
+        return parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+}
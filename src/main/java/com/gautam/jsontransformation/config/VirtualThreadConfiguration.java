@@ -0,0 +1,37 @@
+package com.gautam.jsontransformation.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Opt-in virtual-thread mode ({@code transform.virtual-threads.enabled=true}, Java 21+): Tomcat runs
+ * every request on its own virtual thread instead of a sized worker pool, so requests that block in
+ * plugin calls do not tie up platform threads. Batch records use virtual threads as well, see
+ * {@link TransformerConfiguration#transformBatchExecutor()}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "transform.virtual-threads.enabled", havingValue = "true")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnClass(name = "org.apache.catalina.startup.Tomcat")
+public class VirtualThreadConfiguration {
+
+    /**
+     * Executor for Tomcat's request processing.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService tomcatVirtualThreadExecutor() {
+        return VirtualThreads.newVirtualThreadPerTaskExecutor();
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(
+            ExecutorService tomcatVirtualThreadExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(tomcatVirtualThreadExecutor);
+    }
+}
@@ -0,0 +1,54 @@
+package com.gautam.jsontransformation.config;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Access to virtual threads (Java 21+) from code compiled for Java 11. The factory method is looked
+ * up once; on older runtimes {@link #isSupported()} is false.
+ */
+public final class VirtualThreads {
+    private static final MethodHandle NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = lookup();
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return true if the running JVM supports virtual threads.
+     */
+    public static boolean isSupported() {
+        return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * Creates an executor that starts a new virtual thread for every task.
+     *
+     * @return the executor; shut it down when it is no longer used.
+     * @throws IllegalStateException if the running JVM does not support virtual threads.
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        if (!isSupported()) {
+            throw new IllegalStateException("Virtual threads need Java 21 or later; running on Java "
+                    + System.getProperty("java.version"));
+        }
+        try {
+            return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invokeExact();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Could not create a virtual thread executor", e);
+        }
+    }
+
+    private static MethodHandle lookup() {
+        try {
+            return MethodHandles.publicLookup().findStatic(Executors.class, "newVirtualThreadPerTaskExecutor",
+                    MethodType.methodType(ExecutorService.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+}
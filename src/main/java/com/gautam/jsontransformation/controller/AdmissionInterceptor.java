@@ -0,0 +1,140 @@
+package com.gautam.jsontransformation.controller;
+
+import com.gautam.jsontransformation.transformer.AdmissionControl;
+import com.gautam.jsontransformation.transformer.AdmissionRejectedException;
+import com.gautam.jsontransformation.transformer.TemplateRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Runs {@link AdmissionControl} on the transformation endpoints before the request body is read, and
+ * answers rejected requests right away with 429 (template saturated) or 503 (service saturated) and a
+ * {@code Retry-After} header. The template is resolved from the path and the routing header; a request
+ * routed by a payload field is admitted without a template, and the controller charges it to the
+ * template's bulkhead through {@link #enter} once the payload has been read and routed. Batch
+ * requests are never routed by payload and are admitted through {@link AdmissionControl#admitBatch}.
+ */
+public class AdmissionInterceptor implements HandlerInterceptor {
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionInterceptor.class);
+
+    private static final String PERMIT_ATTRIBUTE = AdmissionInterceptor.class.getName() + ".permit";
+    private static final byte[] REJECTED_JSON = "{\"error\": \"Too many transformations in progress, retry later.\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final AdmissionControl admission;
+    private final TemplateRouter router;
+    private final String routingHeader;
+    private final boolean batch;
+
+    /**
+     * @param admission     the limits to enforce.
+     * @param router        resolves the template a request is charged to.
+     * @param routingHeader the request header naming the template.
+     */
+    public AdmissionInterceptor(AdmissionControl admission, TemplateRouter router, String routingHeader) {
+        this(admission, router, routingHeader, false);
+    }
+
+    /**
+     * @param admission     the limits to enforce.
+     * @param router        resolves the template a request is charged to.
+     * @param routingHeader the request header naming the template.
+     * @param batch         whether the intercepted endpoints are batch endpoints.
+     */
+    public AdmissionInterceptor(AdmissionControl admission, TemplateRouter router, String routingHeader,
+                                boolean batch) {
+        this.admission = admission;
+        this.router = router;
+        this.routingHeader = routingHeader;
+        this.batch = batch;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws Exception {
+        String path = pathTemplate(request);
+        String header = request.getHeader(routingHeader);
+        long contentLength = request.getContentLengthLong();
+        try {
+            AdmissionControl.Permit permit;
+            if (batch) {
+                // The whole batch uses the template of its path or header, as the controller routes it.
+                permit = admission.admitBatch(router.route(path, header, null), contentLength);
+            } else {
+                String template = router.needsPayload(path, header) ? null : router.route(path, header, null);
+                permit = admission.admit(template, contentLength);
+            }
+            request.setAttribute(PERMIT_ATTRIBUTE, permit);
+            return true;
+        } catch (AdmissionRejectedException e) {
+            reject(response, e);
+            return false;
+        }
+    }
+
+    /**
+     * Starts the transformation of an admitted request, see {@link AdmissionControl.Permit#enter}.
+     *
+     * @param request      the request being handled.
+     * @param templateName the template the request was routed to.
+     * @return the request's permit, to {@link #exit} when the transformation is done; null if the
+     * request was not admitted through this interceptor.
+     * @throws AdmissionRejectedException if the template's bulkhead is full.
+     */
+    public static AdmissionControl.Permit enter(HttpServletRequest request, String templateName)
+            throws AdmissionRejectedException {
+        Object permit = request.getAttribute(PERMIT_ATTRIBUTE);
+        if (!(permit instanceof AdmissionControl.Permit)) {
+            return null;
+        }
+        ((AdmissionControl.Permit) permit).enter(templateName);
+        return (AdmissionControl.Permit) permit;
+    }
+
+    /**
+     * Ends the transformation started by {@link #enter}.
+     *
+     * @param permit the permit returned by {@link #enter} (can be null).
+     */
+    public static void exit(AdmissionControl.Permit permit) {
+        if (permit != null) {
+            permit.exit();
+        }
+    }
+
+    /**
+     * Answers a rejected request with its status and a {@code Retry-After} header.
+     */
+    public static void reject(HttpServletResponse response, AdmissionRejectedException e) throws IOException {
+        logger.debug(e.getMessage());
+        response.setStatus(e.getReason().getStatus());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getOutputStream().write(REJECTED_JSON);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Object permit = request.getAttribute(PERMIT_ATTRIBUTE);
+        if (permit instanceof AdmissionControl.Permit) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            ((AdmissionControl.Permit) permit).close();
+        }
+    }
+
+    private static String pathTemplate(HttpServletRequest request) {
+        Object variables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        return variables instanceof Map ? (String) ((Map<?, ?>) variables).get("templateName") : null;
+    }
+}
@@ -0,0 +1,133 @@
+package com.gautam.jsontransformation.controller;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a request body arriving as {@link DataBuffer}s into JSON records with Jackson's non-blocking
+ * parser. Tokens are copied into a {@link TokenBuffer} until a record is complete, so no thread waits
+ * for the rest of the upload and only the record being read is buffered. Body chunks are requested
+ * one at a time as records are consumed, which propagates backpressure to the client.
+ * <p>
+ * With {@code splitArray} set, the elements of a top-level array are separate records; root-level
+ * values (NDJSON) always are.
+ */
+final class JsonRecordTokenizer {
+    private final ObjectMapper objectMapper;
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private final boolean splitArray;
+    private TokenBuffer record;
+    private int depth;
+    private boolean started;
+    private boolean inRootArray;
+
+    private JsonRecordTokenizer(ObjectMapper objectMapper, boolean splitArray) throws IOException {
+        this.objectMapper = objectMapper;
+        this.parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+        this.splitArray = splitArray;
+    }
+
+    /**
+     * @param body       the request body.
+     * @param splitArray whether the elements of a top-level array are emitted as separate records.
+     * @return the parsed records, in order.
+     */
+    static Flux<JsonNode> tokenize(Flux<DataBuffer> body, ObjectMapper objectMapper, boolean splitArray) {
+        return Flux.defer(() -> {
+            JsonRecordTokenizer tokenizer;
+            try {
+                tokenizer = new JsonRecordTokenizer(objectMapper, splitArray);
+            } catch (IOException e) {
+                return Flux.error(e);
+            }
+            // One body chunk is requested at a time, so unread records hold back the upload.
+            return body.concatMapIterable(tokenizer::feed, 1)
+                    .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                    .concatWith(Flux.defer(() -> Flux.fromIterable(tokenizer.endOfInput())))
+                    .onErrorMap(UncheckedIOException.class, UncheckedIOException::getCause)
+                    .doFinally(signal -> tokenizer.close());
+        });
+    }
+
+    private List<JsonNode> feed(DataBuffer buffer) {
+        try {
+            byte[] bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            feeder.feedInput(bytes, 0, bytes.length);
+            return parseAvailable();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    private List<JsonNode> endOfInput() {
+        try {
+            feeder.endOfInput();
+            List<JsonNode> records = parseAvailable();
+            if (record != null || inRootArray) {
+                throw new IOException("Unexpected end of JSON input");
+            }
+            return records;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<JsonNode> parseAvailable() throws IOException {
+        List<JsonNode> records = new ArrayList<>();
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            if (!started) {
+                started = true;
+                if (splitArray && token == JsonToken.START_ARRAY) {
+                    inRootArray = true;
+                    continue;
+                }
+            }
+            if (inRootArray && record == null && token == JsonToken.END_ARRAY) {
+                inRootArray = false;
+                continue;
+            }
+            if (record == null) {
+                record = new TokenBuffer(parser);
+            }
+            record.copyCurrentEvent(parser);
+            if (token.isStructStart()) {
+                depth++;
+            } else if (token.isStructEnd()) {
+                depth--;
+            }
+            if (depth == 0) {
+                try (JsonParser recordParser = record.asParser(objectMapper)) {
+                    records.add(objectMapper.readTree(recordParser));
+                }
+                record = null;
+            }
+        }
+        return records;
+    }
+
+    private void close() {
+        try {
+            parser.close();
+        } catch (IOException e) {
+            // Nothing is left to release.
+        }
+    }
+}
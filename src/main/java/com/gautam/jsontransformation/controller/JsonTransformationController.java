@@ -1,56 +1,180 @@
 package com.gautam.jsontransformation.controller;
 
-import com.gautam.jsontransformation.transformer.*;
-import com.gautam.jsontransformation.transformer.template.TemplateEngine;
+import com.gautam.jsontransformation.transformer.AdmissionControl;
+import com.gautam.jsontransformation.transformer.AdmissionRejectedException;
+import com.gautam.jsontransformation.transformer.JsonTransformerHandler;
+import com.gautam.jsontransformation.transformer.TemplateRouter;
 import freemarker.template.TemplateException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.HashMap;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.Map;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Tag(name = "JSON Transformation API", description = "API for transforming JSON using Freemarker templates")
 public class JsonTransformationController {
+    private static final Logger logger = LoggerFactory.getLogger(JsonTransformationController.class);
 
-    private final JsonTransformerHandler transformer;
+    private static final String ROUTING_HEADER = "${transform.routing.header:X-Template}";
+    private static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+    private static final String ERROR_JSON = "{\"error\": \"Transformation failed due to an internal error.\"}";
+    private static final byte[] ERROR_BYTES = ERROR_JSON.getBytes(StandardCharsets.UTF_8);
+    private static final Map<String, Object> REST_PARAMS =
+            Collections.singletonMap("extraInfo", "Value from REST endpoint");
 
-    public JsonTransformationController(TemplateEngine engine) {
-        TransformerPlugin plugin = new DefaultTransformerPlugin();
-        JsonSchemaValidator inputValidator = new DummyJsonSchemaValidator();
-        JsonSchemaValidator outputValidator = new DummyJsonSchemaValidator();
+    private final JsonTransformerHandler transformer;
+    private final TemplateRouter router;
 
-        transformer = new JsonTransformerHandler(engine, plugin, inputValidator, outputValidator);
+    public JsonTransformationController(JsonTransformerHandler transformer, TemplateRouter router) {
+        this.transformer = transformer;
+        this.router = router;
     }
 
     @Operation(
             summary = "Transforms input JSON",
-            description = "Transforms input JSON data into a new JSON format based on a Freemarker template."
+            description = "Transforms input JSON data into a new JSON format based on a Freemarker template. "
+                    + "The template is taken from the path, the routing header or the payload routing field, "
+                    + "falling back to the default template."
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Transformation successful"),
             @ApiResponse(responseCode = "500", description = "Internal error during transformation")
     })
-    @PostMapping("/transform")
-    public String transformJson(@RequestBody String inputJson) {
-        // Extra parameters can be injected (e.g., based on user session or specific API calls).
-        Map<String, Object> extraParams = new HashMap<>();
-        extraParams.put("extraInfo", "Value from REST endpoint");
-
+    @PostMapping({"/transform", "/transform/{templateName}"})
+    public void transformJson(@PathVariable(required = false) String templateName,
+                              @RequestHeader(name = ROUTING_HEADER, required = false) String headerTemplate,
+                              @RequestBody String inputJson,
+                              HttpServletRequest request,
+                              HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        // The selected template should exist in the configured template directory.
+        String template = router.route(templateName, headerTemplate, inputJson);
+        AdmissionControl.Permit permit;
         try {
-            // "output_template.ftl" should exist in the configured template directory.
-            return transformer.transform("output_template.ftl", inputJson, extraParams);
+            permit = AdmissionInterceptor.enter(request, template);
+        } catch (AdmissionRejectedException e) {
+            AdmissionInterceptor.reject(response, e);
+            return;
+        }
+        OutputStream out = response.getOutputStream();
+        try {
+            // The document is rendered into a pooled UTF-8 buffer and only written once complete.
+            transformer.transform(template, inputJson, requestParams(), out);
         } catch (IOException | TemplateException e) {
             e.printStackTrace();
-            return "{\"error\": \"Transformation failed due to an internal error.\"}";
+            out.write(ERROR_BYTES);
+        } catch (Exception e) {
+            out.write(ERROR_BYTES);
+        } finally {
+            AdmissionInterceptor.exit(permit);
+        }
+    }
+
+    @Operation(
+            summary = "Transforms input JSON, streaming the result",
+            description = "Renders the Freemarker template straight into the response stream instead of building "
+                    + "the output in memory. The post-processing hook and output schema validation are skipped."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Transformation successful"),
+            @ApiResponse(responseCode = "500", description = "Internal error during transformation")
+    })
+    @PostMapping(value = {"/transform", "/transform/{templateName}"}, params = "stream=true")
+    public void transformJsonStreaming(@PathVariable(required = false) String templateName,
+                                       @RequestHeader(name = ROUTING_HEADER, required = false) String headerTemplate,
+                                       @RequestBody String inputJson,
+                                       HttpServletRequest request,
+                                       HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        String template = router.route(templateName, headerTemplate, inputJson);
+        AdmissionControl.Permit permit;
+        try {
+            permit = AdmissionInterceptor.enter(request, template);
+        } catch (AdmissionRejectedException e) {
+            AdmissionInterceptor.reject(response, e);
+            return;
+        }
+        Writer out = response.getWriter();
+        try {
+            transformer.transformTo(template, inputJson, requestParams(), out);
+        } catch (Exception e) {
+            logger.error("Streaming transformation failed.", e);
+            if (response.isCommitted()) {
+                // Part of the document already went out; the client has to detect the truncated body.
+                throw new IOException("Streaming transformation failed after the response was committed", e);
+            }
+            response.resetBuffer();
+            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            out.write(ERROR_JSON);
+        } finally {
+            AdmissionInterceptor.exit(permit);
+        }
+    }
+
+    @Operation(
+            summary = "Transforms a batch of JSON records",
+            description = "Accepts either one top-level JSON array or newline-delimited JSON (NDJSON) and applies the "
+                    + "Freemarker template to each record in turn, streaming the results back as they are produced. "
+                    + "Arrays are answered with an array, NDJSON with one rendered record per line. "
+                    + "The template is taken from the path or the routing header."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch transformation successful"),
+            @ApiResponse(responseCode = "500", description = "Internal error during transformation")
+    })
+    @PostMapping({"/transform/batch", "/transform/batch/{templateName}"})
+    public void transformBatch(@PathVariable(required = false) String templateName,
+                               @RequestHeader(name = ROUTING_HEADER, required = false) String headerTemplate,
+                               InputStream input,
+                               HttpServletRequest request,
+                               HttpServletResponse response) throws IOException {
+        boolean ndjson = request.getContentType() != null
+                && request.getContentType().startsWith(NDJSON_MEDIA_TYPE);
+        response.setContentType(ndjson ? NDJSON_MEDIA_TYPE : MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        Writer out = response.getWriter();
+        try {
+            // Records are not probed individually; the whole batch uses one template.
+            String template = router.route(templateName, headerTemplate, null);
+            long records = transformer.transformBatch(template, input, requestParams(), out);
+            logger.info("Batch request transformed {} records.", records);
         } catch (Exception e) {
-            return "{\"error\": \"Transformation failed due to an internal error.\"}";
+            logger.error("Batch transformation failed.", e);
+            if (response.isCommitted()) {
+                throw new IOException("Batch transformation failed after the response was committed", e);
+            }
+            response.resetBuffer();
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            out.write(ERROR_JSON);
         }
     }
+
+    private Map<String, Object> requestParams() {
+        // Extra parameters can be injected (e.g., based on user session or specific API calls).
+        // Constant ones are built once; the handler layers them over the input without copying.
+        return REST_PARAMS;
+    }
 }
@@ -0,0 +1,130 @@
+package com.gautam.jsontransformation.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gautam.jsontransformation.transformer.JsonTransformerHandler;
+import com.gautam.jsontransformation.transformer.TemplateRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Reactive counterpart of {@link JsonTransformationController} for WebFlux. Request bodies are read
+ * with a non-blocking parser and responses are written as the client consumes them, so slow uploads
+ * and downloads occupy no thread. Rendering itself is CPU work and runs on the given scheduler.
+ */
+public class ReactiveTransformationHandler {
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveTransformationHandler.class);
+
+    static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final String ERROR_JSON = "{\"error\": \"Transformation failed due to an internal error.\"}";
+    private static final Map<String, Object> REST_PARAMS =
+            Collections.singletonMap("extraInfo", "Value from REST endpoint");
+
+    private final JsonTransformerHandler transformer;
+    private final TemplateRouter router;
+    private final String routingHeader;
+    private final Scheduler scheduler;
+    private final int concurrency;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * @param transformer   the transformation handler.
+     * @param router        picks the template per request.
+     * @param routingHeader name of the header that selects a template.
+     * @param scheduler     scheduler that renders the records.
+     * @param concurrency   maximum number of batch records rendered at the same time per request.
+     */
+    public ReactiveTransformationHandler(JsonTransformerHandler transformer, TemplateRouter router,
+                                         String routingHeader, Scheduler scheduler, int concurrency) {
+        this.transformer = transformer;
+        this.router = router;
+        this.routingHeader = routingHeader;
+        this.scheduler = scheduler;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Transforms a single JSON document; a body with more than one JSON value is rejected. Errors are
+     * answered with the error JSON, as by the MVC endpoint.
+     */
+    public Mono<ServerResponse> transform(ServerRequest request) {
+        Mono<String> output = JsonRecordTokenizer.tokenize(request.bodyToFlux(DataBuffer.class), objectMapper, false)
+                // Trailing values are an error rather than silently dropped, as the MVC endpoint's parser does.
+                .singleOrEmpty()
+                .onErrorMap(IndexOutOfBoundsException.class,
+                        e -> new IllegalArgumentException("Request body holds more than one JSON value"))
+                .switchIfEmpty(Mono.error(() -> new IllegalArgumentException("Empty request body")))
+                .publishOn(scheduler)
+                .map(input -> {
+                    String template = router.routeParsed(templateName(request), header(request), input);
+                    return transformRecord(template, input);
+                })
+                .onErrorResume(e -> {
+                    logger.error("Reactive transformation failed.", e);
+                    return Mono.just(ERROR_JSON);
+                });
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).body(output, String.class);
+    }
+
+    /**
+     * Transforms a batch given as one top-level JSON array or as NDJSON. Records are rendered with
+     * bounded concurrency and written in input order; an array is answered with an array, NDJSON
+     * with one rendered record per line. As with the streaming MVC endpoint, a record that fails
+     * after the response has started aborts it and the client sees a truncated body.
+     */
+    public Mono<ServerResponse> transformBatch(ServerRequest request) {
+        boolean ndjson = request.headers().contentType().map(NDJSON::isCompatibleWith).orElse(false);
+        // Records are not probed individually; the whole batch uses one template.
+        String template = router.routeParsed(templateName(request), header(request), null);
+
+        Flux<String> records = JsonRecordTokenizer.tokenize(request.bodyToFlux(DataBuffer.class), objectMapper, true)
+                .flatMapSequential(input -> Mono.fromCallable(() -> transformRecord(template, input))
+                        .subscribeOn(scheduler), concurrency, 1)
+                .doOnError(e -> logger.error("Reactive batch transformation failed.", e));
+
+        Flux<String> body;
+        if (ndjson) {
+            body = records.map(record -> record + "\n");
+        } else {
+            body = Flux.concat(Mono.just("["),
+                    records.index().map(record -> record.getT1() == 0 ? record.getT2() : "," + record.getT2()),
+                    Mono.just("]"));
+        }
+        return ServerResponse.ok().contentType(ndjson ? NDJSON : MediaType.APPLICATION_JSON).body(body, String.class);
+    }
+
+    private String transformRecord(String template, JsonNode input) {
+        try {
+            return transformer.transform(template, input, requestParams());
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String templateName(ServerRequest request) {
+        return request.pathVariables().get("templateName");
+    }
+
+    private String header(ServerRequest request) {
+        return request.headers().firstHeader(routingHeader);
+    }
+
+    private Map<String, Object> requestParams() {
+        // Extra parameters can be injected (e.g., based on user session or specific API calls).
+        // Constant ones are built once; the handler layers them over the input without copying.
+        return REST_PARAMS;
+    }
+}
@@ -0,0 +1,262 @@
+package com.gautam.jsontransformation.job;
+
+import com.gautam.jsontransformation.transformer.DataLoader;
+import com.gautam.jsontransformation.transformer.FileDataLoader;
+import com.gautam.jsontransformation.transformer.JsonTransformerHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Offline transformation of every file below a directory that matches a glob, e.g. for nightly
+ * jobs over tens of thousands of documents. Each file is transformed on its own and written to the
+ * same relative path below the output directory.
+ * <p>
+ * A small I/O pool pulls files into the OS page cache ahead of the transformation workers, so disk
+ * reads overlap with rendering. Workers then stream each file from its {@link DataLoader} into the
+ * parser; no input is copied onto the heap as a whole, so memory-mapped loaders keep their benefit
+ * and files of any size can be transformed. At most {@code parallelism + readAhead} files are in
+ * flight at a time.
+ * Outputs are written to a temporary file and moved into place, so a crash never leaves a partial
+ * output behind, and finished files are recorded in a {@link TransformCheckpoint}: a restarted job
+ * skips them. A file that fails is logged and retried by the next run.
+ */
+public class BulkTransformJob {
+    private static final Logger logger = LoggerFactory.getLogger(BulkTransformJob.class);
+    private static final long PREFETCH_WINDOW = 64L * 1024 * 1024;
+
+    private final JsonTransformerHandler transformer;
+    private final String templateName;
+    private final Path inputDir;
+    private final PathMatcher matcher;
+    private final Path outputDir;
+    private final Path checkpointFile;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private int readAhead = parallelism;
+    private Function<Path, DataLoader> dataLoaders = file -> new FileDataLoader(file.toString());
+
+    /**
+     * @param transformer    the transformation handler.
+     * @param templateName   the template applied to every file.
+     * @param inputDir       the directory to walk.
+     * @param glob           glob matched against paths relative to the input directory, e.g. {@code **.json}.
+     * @param outputDir      the directory receiving the outputs.
+     * @param checkpointFile the file recording finished inputs.
+     */
+    public BulkTransformJob(JsonTransformerHandler transformer, String templateName, Path inputDir, String glob,
+                            Path outputDir, Path checkpointFile) {
+        this.transformer = transformer;
+        this.templateName = templateName;
+        this.inputDir = inputDir.toAbsolutePath().normalize();
+        this.matcher = inputDir.getFileSystem().getPathMatcher("glob:" + glob);
+        this.outputDir = outputDir.toAbsolutePath().normalize();
+        this.checkpointFile = checkpointFile.toAbsolutePath().normalize();
+    }
+
+    /**
+     * @param parallelism files transformed at the same time.
+     * @param readAhead   files read ahead of the transformation workers.
+     */
+    public void setConcurrency(int parallelism, int readAhead) {
+        this.parallelism = Math.max(1, parallelism);
+        this.readAhead = Math.max(1, readAhead);
+    }
+
+    /**
+     * @param dataLoaders creates the loader for an input file, e.g. a memory-mapped one for huge files.
+     */
+    public void setDataLoaders(Function<Path, DataLoader> dataLoaders) {
+        this.dataLoaders = dataLoaders;
+    }
+
+    /**
+     * Transforms every matching file that is not recorded in the checkpoint yet.
+     *
+     * @return the counts of transformed, skipped and failed files.
+     * @throws IOException          if walking the input or opening the checkpoint fails.
+     * @throws InterruptedException if the job is interrupted while waiting for files in flight.
+     */
+    public Summary run() throws IOException, InterruptedException {
+        long startTime = System.nanoTime();
+        Files.createDirectories(outputDir);
+        int maxInFlight = parallelism + readAhead;
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        AtomicLong transformed = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        long skipped = 0;
+
+        ExecutorService readers = Executors.newFixedThreadPool(readAhead, new CustomizableThreadFactory("job-read-"));
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism, new CustomizableThreadFactory("job-transform-"));
+        try (TransformCheckpoint checkpoint = new TransformCheckpoint(checkpointFile);
+             Stream<Path> files = Files.walk(inputDir)) {
+            logger.info("Bulk job starting with {} files already done.", checkpoint.size());
+            Iterator<Path> it = files.filter(this::isInput).iterator();
+            while (it.hasNext()) {
+                Path file = it.next();
+                String name = relativeName(file);
+                if (checkpoint.isDone(name)) {
+                    skipped++;
+                    continue;
+                }
+                // Stop walking while enough files are already read or being transformed.
+                inFlight.acquire();
+                CompletableFuture.runAsync(() -> prefetch(file), readers)
+                        .thenRunAsync(() -> transformAndWrite(file, name, checkpoint), workers)
+                        .whenComplete((result, error) -> {
+                            if (error == null) {
+                                transformed.incrementAndGet();
+                            } else {
+                                failed.incrementAndGet();
+                                logger.error("Bulk job failed to transform {}.", name, error);
+                            }
+                            inFlight.release();
+                        });
+            }
+            // Wait for the files still in flight.
+            inFlight.acquire(maxInFlight);
+        } finally {
+            readers.shutdownNow();
+            workers.shutdownNow();
+        }
+
+        Summary summary = new Summary(transformed.get(), skipped, failed.get());
+        logger.info("Bulk job finished in {} ms: {}", (System.nanoTime() - startTime) / 1_000_000, summary);
+        return summary;
+    }
+
+    private boolean isInput(Path file) {
+        return Files.isRegularFile(file) && !file.startsWith(outputDir) && !file.equals(checkpointFile)
+                && matcher.matches(inputDir.relativize(file));
+    }
+
+    private String relativeName(Path file) {
+        // Forward slashes keep checkpoints portable between platforms.
+        return inputDir.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+    }
+
+    /**
+     * Faults the file's pages into the page cache through a read-only mapping, window by window, so
+     * the worker reads it from memory without the bytes ever being copied onto the heap.
+     */
+    private static void prefetch(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += PREFETCH_WINDOW) {
+                long length = Math.min(PREFETCH_WINDOW, size - position);
+                channel.map(FileChannel.MapMode.READ_ONLY, position, length).load();
+            }
+        } catch (IOException e) {
+            // Only an optimisation; the worker reports the file if it really cannot be read.
+            logger.debug("Could not prefetch {}.", file, e);
+        }
+    }
+
+    private void transformAndWrite(Path file, String name, TransformCheckpoint checkpoint) {
+        try {
+            String output;
+            try (InputStream in = dataLoaders.apply(file).openStream()) {
+                output = transformer.transform(templateName, in, null);
+            }
+            Path target = outputDir.resolve(name);
+            writeAtomically(target, output);
+            checkpoint.markDone(name);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Transformation of " + name + " failed", e);
+        }
+    }
+
+    /**
+     * Writes to a temporary file in the target directory and renames it over the target, so readers
+     * only ever see a missing or a complete output. The content is forced to disk before the rename
+     * and the rename before returning, so a checkpoint entry written afterwards survives a crash only
+     * together with the output.
+     */
+    private static void writeAtomically(Path target, String content) throws IOException {
+        Path dir = target.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path temp = Files.createTempFile(dir, target.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8);
+                writer.write(content);
+                writer.flush();
+                channel.force(true);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            TransformCheckpoint.forceDirectory(dir);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Outcome of a job run.
+     */
+    public static final class Summary {
+        private final long transformed;
+        private final long skipped;
+        private final long failed;
+
+        Summary(long transformed, long skipped, long failed) {
+            this.transformed = transformed;
+            this.skipped = skipped;
+            this.failed = failed;
+        }
+
+        /**
+         * @return files transformed by this run.
+         */
+        public long getTransformed() {
+            return transformed;
+        }
+
+        /**
+         * @return files skipped because the checkpoint recorded them as done.
+         */
+        public long getSkipped() {
+            return skipped;
+        }
+
+        /**
+         * @return files that failed and will be retried by the next run.
+         */
+        public long getFailed() {
+            return failed;
+        }
+
+        @Override
+        public String toString() {
+            return transformed + " transformed, " + skipped + " skipped, " + failed + " failed";
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.gautam.jsontransformation.job;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only record of the files a bulk job has finished, one relative path per line. A file is
+ * only recorded after its output has been forced to disk and moved into place, and every entry is
+ * forced to disk before the next file is recorded, so after a crash the job redoes at most the files
+ * that were in flight. A torn last line, without its newline, is dropped when the checkpoint is opened.
+ */
+public class TransformCheckpoint implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(TransformCheckpoint.class);
+
+    private final Set<String> done = ConcurrentHashMap.newKeySet();
+    private final FileChannel channel;
+
+    /**
+     * Opens the checkpoint file, reading the entries of earlier runs if it exists.
+     *
+     * @param file the checkpoint file; created if missing.
+     * @throws IOException if the file cannot be read or opened for appending.
+     */
+    public TransformCheckpoint(Path file) throws IOException {
+        int complete = 0;
+        boolean created = !Files.exists(file);
+        if (!created) {
+            byte[] bytes = Files.readAllBytes(file);
+            // Only lines that got their newline were written completely.
+            while (complete < bytes.length && bytes[bytes.length - 1 - complete] != '\n') {
+                complete++;
+            }
+            complete = bytes.length - complete;
+            try (BufferedReader reader = new BufferedReader(
+                    new StringReader(new String(bytes, 0, complete, StandardCharsets.UTF_8)))) {
+                reader.lines().forEach(done::add);
+            }
+        } else if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (channel.size() > complete) {
+            logger.warn("Dropping the torn last entry of checkpoint {}", file);
+            channel.truncate(complete);
+            channel.force(true);
+        }
+        channel.position(complete);
+        if (created) {
+            forceDirectory(file.toAbsolutePath().getParent());
+        }
+    }
+
+    /**
+     * @param file the relative path of an input file.
+     * @return whether an earlier run or this one already finished the file.
+     */
+    public boolean isDone(String file) {
+        return done.contains(file);
+    }
+
+    /**
+     * Records a finished file and forces the entry to disk.
+     *
+     * @param file the relative path of the input file.
+     * @throws IOException if the entry cannot be written.
+     */
+    public synchronized void markDone(String file) throws IOException {
+        if (done.add(file)) {
+            ByteBuffer entry = StandardCharsets.UTF_8.encode(file + "\n");
+            while (entry.hasRemaining()) {
+                channel.write(entry);
+            }
+            channel.force(true);
+        }
+    }
+
+    /**
+     * @return the number of finished files.
+     */
+    public int size() {
+        return done.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Forces a directory's entries to disk, so a file created or renamed in it survives a crash.
+     * Platforms that cannot open a directory, such as Windows, are skipped.
+     *
+     * @param dir the directory.
+     */
+    static void forceDirectory(Path dir) {
+        try (FileChannel directory = FileChannel.open(dir, StandardOpenOption.READ)) {
+            directory.force(true);
+        } catch (IOException e) {
+            logger.debug("Cannot force directory {} to disk", dir, e);
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.gautam.jsontransformation.transformer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Decides whether a transformation request may run, before any of it is read. Three limits apply, in
+ * this order:
+ * <ol>
+ *     <li>a bulkhead per template, so one expensive template cannot take every worker,</li>
+ *     <li>a global budget of request payload bytes in flight, based on the declared content length,</li>
+ *     <li>an {@link AimdLimiter} on the total number of transformations, adapting to their latency.</li>
+ * </ol>
+ * A request over any limit is rejected immediately rather than queued, so waiting time cannot pile up
+ * under overload. A payload larger than the whole byte budget is only admitted while no other payload
+ * is in flight, and a payload of unknown length is charged a fixed size.
+ * <p>
+ * A request whose template is only known once its payload was read is admitted without a bulkhead;
+ * it takes one when it {@link Permit#enter enters} the transformation. Bulkheads are only created
+ * for the templates known to {@link #setKnownTemplates}, so arbitrary names cannot push real
+ * templates into the shared bulkhead that templates beyond {@link #MAX_TEMPLATES} use. Batches are
+ * {@link #admitBatch admitted} against the bulkheads and the byte budget only.
+ */
+public class AdmissionControl {
+    static final int MAX_TEMPLATES = 500;
+    private static final String OTHER_TEMPLATE = "other";
+
+    private final int templateConcurrency;
+    private final Map<String, Integer> templateLimits;
+    private final long maxInFlightBytes;
+    private final AimdLimiter limiter;
+    private long unknownLengthBytes;
+    private Predicate<String> knownTemplates;
+    private final ConcurrentMap<String, Semaphore> bulkheads = new ConcurrentHashMap<>();
+    private final AtomicLong inFlightBytes = new AtomicLong();
+    private final Map<AdmissionRejectedException.Reason, Counter> rejections =
+            new EnumMap<>(AdmissionRejectedException.Reason.class);
+
+    /**
+     * @param templateConcurrency concurrent transformations per template (0 for no bulkheads).
+     * @param templateLimits      concurrent transformations of individual templates, overriding the default.
+     * @param maxInFlightBytes    total declared payload bytes of the admitted requests (0 for no budget).
+     * @param limiter             the adaptive global limit (null for none).
+     */
+    public AdmissionControl(int templateConcurrency, Map<String, Integer> templateLimits, long maxInFlightBytes,
+                            AimdLimiter limiter) {
+        this.templateConcurrency = templateConcurrency;
+        this.templateLimits = templateLimits == null ? Collections.emptyMap() : templateLimits;
+        this.maxInFlightBytes = maxInFlightBytes;
+        this.limiter = limiter;
+    }
+
+    /**
+     * @param unknownLengthBytes bytes charged for a payload without a declared length, e.g. a chunked upload.
+     */
+    public void setUnknownLengthBytes(long unknownLengthBytes) {
+        this.unknownLengthBytes = unknownLengthBytes;
+    }
+
+    /**
+     * @param knownTemplates tells the templates that get a bulkhead (null for every name).
+     */
+    public void setKnownTemplates(Predicate<String> knownTemplates) {
+        this.knownTemplates = knownTemplates;
+    }
+
+    /**
+     * Admits one request or rejects it.
+     *
+     * @param templateName  the template the request is routed to, or null if the payload decides it.
+     * @param contentLength the declared payload size in bytes, or -1 if unknown.
+     * @return the permit of the admitted request; close it when the request completes.
+     * @throws AdmissionRejectedException if a limit is reached.
+     */
+    public Permit admit(String templateName, long contentLength) throws AdmissionRejectedException {
+        return admit(templateName, contentLength, limiter != null);
+    }
+
+    /**
+     * Admits one batch request or rejects it. A batch holds its template's bulkhead and its payload
+     * bytes until it completes, but stays out of the adaptive limit: its duration follows the upload
+     * and the number of records, not the latency of a transformation.
+     *
+     * @param templateName  the template the whole batch is routed to.
+     * @param contentLength the declared payload size in bytes, or -1 if unknown.
+     * @return the permit of the admitted batch; close it when the request completes.
+     * @throws AdmissionRejectedException if the bulkhead or the byte budget is full.
+     */
+    public Permit admitBatch(String templateName, long contentLength) throws AdmissionRejectedException {
+        return admit(templateName, contentLength, false);
+    }
+
+    private Permit admit(String templateName, long contentLength, boolean limited)
+            throws AdmissionRejectedException {
+        Semaphore bulkhead = acquireBulkhead(templateName);
+        long bytes = contentLength >= 0 ? contentLength : unknownLengthBytes;
+        if (!reserveBytes(bytes)) {
+            release(bulkhead);
+            throw reject(AdmissionRejectedException.Reason.IN_FLIGHT_BYTES, templateName);
+        }
+        if (limited && !limiter.tryAcquire()) {
+            releaseBytes(bytes);
+            release(bulkhead);
+            throw reject(AdmissionRejectedException.Reason.CONCURRENCY_LIMIT, templateName);
+        }
+        return new Permit(bulkhead, templateName != null, bytes, limited);
+    }
+
+    /**
+     * Publishes the adaptive limit, the requests and bytes in flight and rejections by reason.
+     */
+    public void bindTo(MeterRegistry registry) {
+        for (AdmissionRejectedException.Reason reason : AdmissionRejectedException.Reason.values()) {
+            rejections.put(reason, Counter.builder("transform.admission.rejected")
+                    .description("Requests shed by admission control")
+                    .tag("reason", reason.name().toLowerCase(Locale.ROOT))
+                    .register(registry));
+        }
+        Gauge.builder("transform.admission.in.flight.bytes", inFlightBytes, AtomicLong::get)
+                .description("Declared payload bytes of the admitted requests")
+                .baseUnit("bytes")
+                .register(registry);
+        if (limiter != null) {
+            Gauge.builder("transform.admission.limit", limiter, AimdLimiter::getLimit)
+                    .description("Current adaptive concurrency limit")
+                    .register(registry);
+            Gauge.builder("transform.admission.in.flight", limiter, AimdLimiter::getInFlight)
+                    .description("Admitted requests in progress")
+                    .register(registry);
+        }
+    }
+
+    /**
+     * @return the payload bytes of the admitted requests in flight.
+     */
+    public long getInFlightBytes() {
+        return inFlightBytes.get();
+    }
+
+    /**
+     * @return the template's bulkhead with one slot taken, or null if the template has none.
+     */
+    private Semaphore acquireBulkhead(String templateName) throws AdmissionRejectedException {
+        Semaphore bulkhead = templateName == null ? null : bulkhead(templateName);
+        if (bulkhead != null && !bulkhead.tryAcquire()) {
+            throw reject(AdmissionRejectedException.Reason.TEMPLATE_CONCURRENCY, templateName);
+        }
+        return bulkhead;
+    }
+
+    private Semaphore bulkhead(String templateName) {
+        Semaphore bulkhead = bulkheads.get(templateName);
+        if (bulkhead != null) {
+            return bulkhead;
+        }
+        Integer limit = templateLimits.get(templateName);
+        int permits = limit != null ? limit : templateConcurrency;
+        // Unknown templates fail right away and are not worth a bulkhead.
+        if (permits <= 0 || limit == null && knownTemplates != null && !knownTemplates.test(templateName)) {
+            return null;
+        }
+        String key = bulkheads.size() < MAX_TEMPLATES || limit != null ? templateName : OTHER_TEMPLATE;
+        return bulkheads.computeIfAbsent(key, name -> new Semaphore(permits));
+    }
+
+    private boolean reserveBytes(long bytes) {
+        if (maxInFlightBytes <= 0) {
+            return true;
+        }
+        while (true) {
+            long current = inFlightBytes.get();
+            if (current > 0 && current + bytes > maxInFlightBytes) {
+                return false;
+            }
+            if (inFlightBytes.compareAndSet(current, current + bytes)) {
+                return true;
+            }
+        }
+    }
+
+    private void releaseBytes(long bytes) {
+        if (maxInFlightBytes > 0) {
+            inFlightBytes.addAndGet(-bytes);
+        }
+    }
+
+    private AdmissionRejectedException reject(AdmissionRejectedException.Reason reason, String templateName) {
+        Counter counter = rejections.get(reason);
+        if (counter != null) {
+            counter.increment();
+        }
+        return new AdmissionRejectedException(reason, templateName);
+    }
+
+    private static void release(Semaphore bulkhead) {
+        if (bulkhead != null) {
+            bulkhead.release();
+        }
+    }
+
+    /**
+     * The limits one admitted request holds. Only the time between {@link #enter} and {@link #exit}
+     * is fed to the adaptive limit, so slow uploads and slow readers of the response do not shrink it.
+     */
+    public final class Permit implements AutoCloseable {
+        private Semaphore bulkhead;
+        private boolean routed;
+        private final long bytes;
+        private final boolean limited;
+        private long enteredNanos;
+        private long transformNanos = -1;
+        private boolean closed;
+
+        private Permit(Semaphore bulkhead, boolean routed, long bytes, boolean limited) {
+            this.bulkhead = bulkhead;
+            this.routed = routed;
+            this.bytes = bytes;
+            this.limited = limited;
+        }
+
+        /**
+         * Starts the transformation of the request. A request admitted before its template was known
+         * takes a slot in the template's bulkhead now.
+         *
+         * @param templateName the template the request was routed to.
+         * @throws AdmissionRejectedException if the template's bulkhead is full.
+         */
+        public void enter(String templateName) throws AdmissionRejectedException {
+            if (!routed) {
+                bulkhead = acquireBulkhead(templateName);
+                routed = true;
+            }
+            enteredNanos = System.nanoTime();
+        }
+
+        /**
+         * Ends the transformation started by {@link #enter}.
+         */
+        public void exit() {
+            if (enteredNanos != 0) {
+                transformNanos = Math.max(transformNanos, 0) + System.nanoTime() - enteredNanos;
+                enteredNanos = 0;
+            }
+        }
+
+        /**
+         * Releases the limits and feeds the transformation's latency to the adaptive limit; a request
+         * that never got to transform is not a sample. Idempotent.
+         */
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            exit();
+            if (limited) {
+                if (transformNanos >= 0) {
+                    limiter.release(transformNanos);
+                } else {
+                    limiter.cancel();
+                }
+            }
+            releaseBytes(bytes);
+            release(bulkhead);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.gautam.jsontransformation.transformer;
+
+/**
+ * Thrown by {@link AdmissionControl} when a request is shed. It carries no stack trace, since it is
+ * expected in bulk exactly when the service is overloaded.
+ */
+public class AdmissionRejectedException extends Exception {
+
+    /**
+     * Why a request was shed.
+     */
+    public enum Reason {
+        /** The template already runs as many transformations as its bulkhead allows. */
+        TEMPLATE_CONCURRENCY(429),
+        /** The payloads in flight would exceed the global byte budget. */
+        IN_FLIGHT_BYTES(503),
+        /** The adaptive concurrency limit is reached. */
+        CONCURRENCY_LIMIT(503);
+
+        private final int status;
+
+        Reason(int status) {
+            this.status = status;
+        }
+
+        /**
+         * @return the HTTP status to answer with: 429 when the caller's template is saturated, 503
+         * when the whole service is.
+         */
+        public int getStatus() {
+            return status;
+        }
+    }
+
+    private final Reason reason;
+
+    public AdmissionRejectedException(Reason reason, String templateName) {
+        super("Transformation with template " + templateName + " rejected: " + reason, null, false, false);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,102 @@
+package com.gautam.jsontransformation.transformer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit that adapts to latency with additive increase / multiplicative decrease, as TCP
+ * congestion control does. While transformations finish within the latency target and the limit is
+ * actually used, it grows by about one per limit's worth of completions; when one takes longer, the
+ * limit is cut by the backoff ratio, at most once per target interval, so a burst of slow completions
+ * from the same overload counts once.
+ * <p>
+ * Requests beyond the limit are not queued: {@link #tryAcquire()} fails and the caller sheds them.
+ */
+public class AimdLimiter {
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyTargetNanos;
+    private final double backoffRatio;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // Written under the lock, read without it by tryAcquire.
+    private volatile double limit;
+    private long lastDecrease;
+
+    /**
+     * @param initialLimit  the limit to start with.
+     * @param minLimit      the limit never drops below this.
+     * @param maxLimit      the limit never grows above this.
+     * @param latencyTarget completion time, in nanoseconds, above which the limit is decreased.
+     * @param backoffRatio  factor the limit is multiplied with on a decrease, between 0 and 1.
+     */
+    public AimdLimiter(int initialLimit, int minLimit, int maxLimit, long latencyTarget, double backoffRatio) {
+        if (minLimit < 1 || maxLimit < minLimit || backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Invalid limiter settings: limits " + minLimit + ".." + maxLimit
+                    + ", backoff ratio " + backoffRatio);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTargetNanos = latencyTarget;
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.lastDecrease = System.nanoTime() - latencyTarget;
+    }
+
+    /**
+     * @return true if the request may run; it must then call {@link #release(long)} or {@link #cancel()}
+     * when done.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Ends an admitted request and adjusts the limit to how long it took.
+     *
+     * @param latencyNanos how long the request took.
+     */
+    public void release(long latencyNanos) {
+        int running = inFlight.getAndDecrement();
+        synchronized (this) {
+            if (latencyNanos > latencyTargetNanos) {
+                long now = System.nanoTime();
+                if (now - lastDecrease >= latencyTargetNanos) {
+                    lastDecrease = now;
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                }
+            } else if (running * 2 >= limit) {
+                // Only grow while at least half of the limit is in use; an idle limit proves nothing.
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+        }
+    }
+
+    /**
+     * Ends an admitted request that did not get to run, e.g. because another limit rejected it, without
+     * adjusting the limit.
+     */
+    public void cancel() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * @return the current concurrency limit.
+     */
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * @return the number of admitted requests that have not been released.
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
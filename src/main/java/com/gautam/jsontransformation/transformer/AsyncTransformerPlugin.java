@@ -0,0 +1,48 @@
+package com.gautam.jsontransformation.transformer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Enrichment plugin that contributes fields to the data model asynchronously, e.g. from a remote
+ * lookup. Plugins in the same stage of a {@link PluginChain} run concurrently and only see the data
+ * model as it was before the stage, so they must not depend on each other's fields.
+ */
+public interface AsyncTransformerPlugin {
+    /**
+     * Computes the fields this plugin adds to one record.
+     *
+     * @param dataModel the record's data model; read-only.
+     * @return the fields to add to the data model.
+     */
+    CompletableFuture<Map<String, Object>> enrich(Map<String, Object> dataModel);
+
+    /**
+     * @return true if the plugin reads fields of the input document; see {@link TransformerPlugin#readsInput()}.
+     */
+    default boolean readsInput() {
+        return true;
+    }
+
+    /**
+     * Computes the fields this plugin adds to several records at once. Plugins backed by a remote
+     * service should override this to look up all records in one call; the default enriches each
+     * record separately.
+     *
+     * @param dataModels the records' data models; read-only.
+     * @return the fields to add, one map per record and in the same order.
+     */
+    default CompletableFuture<List<Map<String, Object>>> enrichBatch(List<Map<String, Object>> dataModels) {
+        List<CompletableFuture<Map<String, Object>>> futures = new ArrayList<>(dataModels.size());
+        for (Map<String, Object> dataModel : dataModels) {
+            futures.add(enrich(dataModel));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).thenApply(done -> {
+            List<Map<String, Object>> contributions = new ArrayList<>(futures.size());
+            futures.forEach(future -> contributions.add(future.join()));
+            return contributions;
+        });
+    }
+}
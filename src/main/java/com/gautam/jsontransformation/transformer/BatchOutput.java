@@ -0,0 +1,46 @@
+package com.gautam.jsontransformation.transformer;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Frames rendered batch records on the way out: a JSON array when the input was an array,
+ * one record per line when it was NDJSON.
+ */
+class BatchOutput {
+    private final Writer out;
+    private final boolean array;
+    private long records;
+
+    BatchOutput(Writer out, boolean array) {
+        this.out = out;
+        this.array = array;
+    }
+
+    void start() throws IOException {
+        if (array) {
+            out.write('[');
+        }
+    }
+
+    void write(String record) throws IOException {
+        if (records > 0) {
+            out.write(array ? "," : "\n");
+        }
+        out.write(record);
+        records++;
+    }
+
+    void finish() throws IOException {
+        if (array) {
+            out.write(']');
+        } else if (records > 0) {
+            out.write('\n');
+        }
+        out.flush();
+    }
+
+    long records() {
+        return records;
+    }
+}
@@ -1,6 +1,9 @@
 package com.gautam.jsontransformation.transformer;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 
 public interface DataLoader {
     /**
@@ -10,4 +13,16 @@ public interface DataLoader {
      * @throws IOException if data retrieval fails.
      */
     String loadData() throws IOException;
+
+    /**
+     * Opens the JSON data as UTF-8 bytes, for parsers that read bytes directly. Loaders of large
+     * sources should override this to stream from the source instead of building the whole string;
+     * the default encodes the result of {@link #loadData()}.
+     *
+     * @return A stream of the JSON bytes; the caller must close it.
+     * @throws IOException if data retrieval fails.
+     */
+    default InputStream openStream() throws IOException {
+        return new ByteArrayInputStream(loadData().getBytes(StandardCharsets.UTF_8));
+    }
 }
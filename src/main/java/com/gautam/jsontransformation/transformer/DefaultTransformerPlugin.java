@@ -11,9 +11,21 @@ public class DefaultTransformerPlugin implements TransformerPlugin {
         return dataModel;
     }
 
+    @Override
+    public boolean readsInput() {
+        // Only adds a field.
+        return false;
+    }
+
     @Override
     public String afterProcessing(String outputJson) {
         // Example: Further modify output JSON if needed.
         return outputJson;
     }
+
+    @Override
+    public OutputAccess outputAccess() {
+        // The output is passed through unchanged, so the hook can be skipped.
+        return OutputAccess.NONE;
+    }
 }
@@ -1,5 +1,7 @@
 package com.gautam.jsontransformation.transformer;
 
+import com.fasterxml.jackson.databind.JsonNode;
+
 public class DummyJsonSchemaValidator implements JsonSchemaValidator {
     @Override
     public void validate(String jsonString) throws Exception {
@@ -8,4 +10,11 @@ public class DummyJsonSchemaValidator implements JsonSchemaValidator {
             throw new Exception("Invalid JSON: empty content");
         }
     }
+
+    @Override
+    public void validate(String templateName, JsonNode json) throws Exception {
+        if (json == null || json.isMissingNode()) {
+            throw new Exception("Invalid JSON: empty content");
+        }
+    }
 }
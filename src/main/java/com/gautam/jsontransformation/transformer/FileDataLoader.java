@@ -1,6 +1,7 @@
 package com.gautam.jsontransformation.transformer;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 
@@ -15,4 +16,9 @@ public class FileDataLoader implements DataLoader {
     public String loadData() throws IOException {
         return new String(Files.readAllBytes(Paths.get(filePath)), "UTF-8");
     }
+
+    @Override
+    public InputStream openStream() throws IOException {
+        return Files.newInputStream(Paths.get(filePath));
+    }
 }
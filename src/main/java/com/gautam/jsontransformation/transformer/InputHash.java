@@ -0,0 +1,34 @@
+package com.gautam.jsontransformation.transformer;
+
+/**
+ * Fast, non-cryptographic 64-bit hash of a document's text, used to recognise repeated inputs.
+ * FNV-1a over the UTF-16 code units followed by a final avalanche step. It is not collision
+ * resistant against crafted inputs, so it must only pick candidates; equality of the documents has
+ * to be decided on the text itself.
+ */
+public final class InputHash {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private InputHash() {
+    }
+
+    /**
+     * @param text the text to hash.
+     * @return the 64-bit hash.
+     */
+    public static long of(CharSequence text) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            hash ^= text.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        // murmur3 fmix64, so that small input differences spread over all bits.
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
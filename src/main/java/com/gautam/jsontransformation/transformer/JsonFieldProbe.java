@@ -0,0 +1,75 @@
+package com.gautam.jsontransformation.transformer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+
+/**
+ * Reads a single scalar value from a JSON document by dotted path (e.g. {@code order.type}) using the
+ * streaming parser. Sibling subtrees are skipped without being materialized and parsing stops as soon
+ * as the value is found, so the cost depends on how early the field appears, not on document size.
+ */
+public class JsonFieldProbe {
+    private final JsonFactory jsonFactory;
+    private final String[] path;
+
+    /**
+     * @param jsonFactory the factory used to create parsers.
+     * @param path        dotted path of the field to read.
+     */
+    public JsonFieldProbe(JsonFactory jsonFactory, String path) {
+        if (path == null || path.isEmpty()) {
+            throw new IllegalArgumentException("Probe path must not be empty");
+        }
+        this.jsonFactory = jsonFactory;
+        this.path = path.split("\\.");
+    }
+
+    /**
+     * @param json the JSON document.
+     * @return the field's value as text, or null if it is absent, not a scalar or the input is not an object.
+     * @throws IOException if the JSON is malformed before the field is reached.
+     */
+    public String probe(String json) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            int depth = 0;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (!path[depth].equals(name)) {
+                    parser.skipChildren();
+                    continue;
+                }
+                if (depth == path.length - 1) {
+                    return value.isScalarValue() && value != JsonToken.VALUE_NULL ? parser.getText() : null;
+                }
+                if (value != JsonToken.START_OBJECT) {
+                    return null;
+                }
+                depth++;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * @param json an already parsed JSON document.
+     * @return the field's value as text, or null if it is absent, not a scalar or the input is not an object.
+     */
+    public String probe(JsonNode json) {
+        JsonNode node = json;
+        for (String name : path) {
+            if (node == null || !node.isObject()) {
+                return null;
+            }
+            node = node.get(name);
+        }
+        return node != null && node.isValueNode() && !node.isNull() ? node.asText() : null;
+    }
+}
@@ -1,5 +1,7 @@
 package com.gautam.jsontransformation.transformer;
 
+import com.fasterxml.jackson.databind.JsonNode;
+
 public interface JsonSchemaValidator {
     /**
      * Validates a JSON string against a schema.
@@ -8,5 +10,39 @@ public interface JsonSchemaValidator {
      * @throws Exception if validation fails.
      */
     void validate(String jsonString) throws Exception;
-}
 
+    /**
+     * Validates an already parsed JSON document for the given template. Implementations should
+     * override this to validate the tree directly; the default serializes it and calls {@link #validate(String)}.
+     *
+     * @param templateName the template the document belongs to.
+     * @param json         the parsed JSON to validate.
+     * @throws Exception if validation fails.
+     */
+    default void validate(String templateName, JsonNode json) throws Exception {
+        validate(json.toString());
+    }
+
+    /**
+     * Tells whether documents of the given template are validated at all; inputs of templates that
+     * are not validated may be pruned to the fields the template reads.
+     *
+     * @param templateName the template the documents belong to.
+     * @return true if the documents are checked against a schema.
+     * @throws Exception if the schema cannot be loaded.
+     */
+    default boolean validates(String templateName) throws Exception {
+        return true;
+    }
+
+    /**
+     * Validates a JSON string for the given template.
+     *
+     * @param templateName the template the document belongs to.
+     * @param jsonString   the JSON to validate.
+     * @throws Exception if validation fails.
+     */
+    default void validate(String templateName, String jsonString) throws Exception {
+        validate(jsonString);
+    }
+}
@@ -1,11 +1,34 @@
 package com.gautam.jsontransformation.transformer;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.gautam.jsontransformation.transformer.TransformMetrics.Stage;
+import com.gautam.jsontransformation.transformer.TransformerPlugin.OutputAccess;
+import com.gautam.jsontransformation.transformer.template.InputProjection;
 import com.gautam.jsontransformation.transformer.template.TemplateEngine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
 
 public class JsonTransformerHandler {
     private static final Logger logger = LoggerFactory.getLogger(JsonTransformerHandler.class);
@@ -15,6 +38,16 @@ public class JsonTransformerHandler {
     private final TransformerPlugin plugin;
     private final JsonSchemaValidator inputSchemaValidator;
     private final JsonSchemaValidator outputSchemaValidator;
+    private TransformMetrics metrics = TransformMetrics.noop();
+    private TransformResultCache resultCache;
+    private Executor batchExecutor;
+    private int batchMaxInFlight;
+    private boolean batchPreserveOrder = true;
+    private int pluginBatchSize;
+    private Map<String, Object> globals = Collections.emptyMap();
+    private boolean inputProjection;
+    private OutputBufferPool outputBuffers;
+    private TransformCoalescer coalescer;
 
     /**
      * Constructs the transformer using a generic template engine.
@@ -35,6 +68,36 @@ public class JsonTransformerHandler {
         this.objectMapper = new ObjectMapper();
     }
 
+    /**
+     * Records per-template, per-stage timings, document sizes and errors.
+     *
+     * @param metrics the metrics to record into.
+     */
+    public void setMetrics(TransformMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Puts a result cache in front of {@link #transform}. A hit skips parsing, validation, the plugin
+     * hooks and rendering; results are only cached for templates whose version the engine can track.
+     *
+     * @param resultCache the cache (null to disable).
+     */
+    public void setResultCache(TransformResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+
+    /**
+     * Lets concurrent identical requests to {@link #transform} share one transformation: same
+     * template and template version, same input text and same parameters. Only the first request
+     * parses and renders; the others wait for its result, or its failure.
+     *
+     * @param coalescer the in-flight transformations (null to transform every request on its own).
+     */
+    public void setCoalescer(TransformCoalescer coalescer) {
+        this.coalescer = coalescer;
+    }
+
     /**
      * Transforms input JSON based on the specified template.
      *
@@ -49,53 +112,675 @@ public class JsonTransformerHandler {
         long startTime = System.nanoTime();
         logger.info("Starting JSON transformation.");
 
-        // Parse the input JSON into a data model (using a simple Map)
-        Map<String, Object> dataModel = objectMapper.readValue(inputJson, Map.class);
+        TransformResultCache.Key key = transformKey(templateName, inputJson, extraParams);
+        if (key != null && resultCache != null) {
+            String cached = resultCache.get(key);
+            if (cached != null) {
+                metrics.recordTransform(templateName, "cache_hit", startTime);
+                logger.info("Transformation served from cache in {} ms", (System.nanoTime() - startTime) / 1_000_000);
+                return cached;
+            }
+        }
+        TransformCoalescer.Flight flight = key != null && coalescer != null ? coalescer.join(key) : null;
+        if (flight != null && !flight.isLeader()) {
+            return awaitLeader(templateName, flight, startTime);
+        }
 
-        // Validate input JSON, if a validator is provided.
-        if (inputSchemaValidator != null) {
+        String outputJson;
+        try {
+            metrics.recordInputSize(templateName, Utf8OutputBuffer.encodedLength(inputJson));
+            // Parse the input JSON into a tree; the template engine reads the nodes lazily.
+            JsonNode input = stage(templateName, Stage.PARSE, () -> parseInput(templateName, inputJson));
+            outputJson = transformRecord(templateName, input, extraParams);
+        } catch (Exception | Error e) {
+            metrics.recordTransform(templateName, "error", startTime);
+            if (flight != null) {
+                flight.leave();
+                flight.fail(e);
+            }
+            throw e;
+        }
+        if (key != null && resultCache != null) {
+            resultCache.put(key, outputJson);
+        }
+        if (flight != null) {
+            flight.leave();
+            flight.complete(outputJson);
+        }
+
+        metrics.recordTransform(templateName, "success", startTime);
+        long duration = System.nanoTime() - startTime;
+        logger.info("Transformation completed in {} ms", duration / 1_000_000);
+
+        return outputJson;
+    }
+
+    /**
+     * Transforms input JSON like {@link #transform(String, String, Map)}, but writes the result to a
+     * byte stream as UTF-8. The template renders into a pooled {@link Utf8OutputBuffer} that encodes
+     * as it goes, and the bytes are copied to the stream once the whole pipeline succeeded, so a
+     * failure never leaves partial output and the result never exists as a {@code String} (unless a
+     * plugin or the result cache needs it).
+     *
+     * @param templateName the template file to use.
+     * @param inputJson    the input JSON string.
+     * @param extraParams  additional parameters to inject into the data model.
+     * @param out          the stream receiving the transformed JSON; neither flushed nor closed.
+     * @throws Exception if transformation fails; nothing has been written then.
+     */
+    public void transform(String templateName, String inputJson, Map<String, Object> extraParams, OutputStream out)
+            throws Exception {
+        long startTime = System.nanoTime();
+        logger.info("Starting JSON transformation.");
+
+        TransformResultCache.Key key = transformKey(templateName, inputJson, extraParams);
+        if (key != null && resultCache != null) {
+            String cached = resultCache.get(key);
+            if (cached != null) {
+                out.write(cached.getBytes(StandardCharsets.UTF_8));
+                metrics.recordTransform(templateName, "cache_hit", startTime);
+                logger.info("Transformation served from cache in {} ms", (System.nanoTime() - startTime) / 1_000_000);
+                return;
+            }
+        }
+        TransformCoalescer.Flight flight = key != null && coalescer != null ? coalescer.join(key) : null;
+        if (flight != null && !flight.isLeader()) {
+            out.write(awaitLeader(templateName, flight, startTime).getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+
+        Utf8OutputBuffer buffer = outputBuffers != null
+                ? outputBuffers.acquire(templateName) : new Utf8OutputBuffer(1024);
+        try {
+            metrics.recordInputSize(templateName, Utf8OutputBuffer.encodedLength(inputJson));
+            JsonNode input = stage(templateName, Stage.PARSE, () -> parseInput(templateName, inputJson));
+            renderTo(templateName, prepareDataModel(templateName, input, extraParams), buffer);
+            if (key != null && resultCache != null) {
+                resultCache.put(key, buffer.toString());
+            }
+            // The output is only decoded into a String if identical requests are waiting for it.
+            if (flight != null && flight.leave() > 0) {
+                flight.complete(buffer.toString());
+            }
+            buffer.writeTo(out);
+        } catch (Exception | Error e) {
+            metrics.recordTransform(templateName, "error", startTime);
+            if (flight != null) {
+                flight.leave();
+                flight.fail(e);
+            }
+            throw e;
+        } finally {
+            if (outputBuffers != null) {
+                outputBuffers.release(templateName, buffer);
+            }
+        }
+
+        metrics.recordTransform(templateName, "success", startTime);
+        logger.info("Transformation completed in {} ms", (System.nanoTime() - startTime) / 1_000_000);
+    }
+
+    /**
+     * Transforms an already parsed input document, e.g. one read by a non-blocking parser.
+     * Results are not cached, because the result cache is keyed by the input text.
+     *
+     * @param templateName the template file to use.
+     * @param input        the parsed input JSON.
+     * @param extraParams  additional parameters to inject into the data model.
+     * @return the transformed JSON as a string.
+     * @throws Exception if transformation fails.
+     */
+    public String transform(String templateName, JsonNode input, Map<String, Object> extraParams)
+            throws Exception {
+        long startTime = System.nanoTime();
+        String outputJson;
+        try {
+            outputJson = transformRecord(templateName, input, extraParams);
+        } catch (Exception e) {
+            metrics.recordTransform(templateName, "error", startTime);
+            throw e;
+        }
+        metrics.recordTransform(templateName, "success", startTime);
+        logger.debug("Transformation of parsed input completed in {} ms", (System.nanoTime() - startTime) / 1_000_000);
+        return outputJson;
+    }
+
+    /**
+     * Transforms an input document read from a byte stream, e.g. {@link DataLoader#openStream()}.
+     * Jackson parses the bytes directly, so the input never exists as a string.
+     * Results are not cached, because the result cache is keyed by the input text.
+     *
+     * @param templateName the template file to use.
+     * @param input        the input JSON as UTF-8 bytes; read but not closed.
+     * @param extraParams  additional parameters to inject into the data model.
+     * @return the transformed JSON as a string.
+     * @throws Exception if reading the input or the transformation fails.
+     */
+    public String transform(String templateName, InputStream input, Map<String, Object> extraParams)
+            throws Exception {
+        long startTime = System.nanoTime();
+        String outputJson;
+        try {
+            JsonNode root = stage(templateName, Stage.PARSE, () -> {
+                try (JsonParser parser = objectMapper.getFactory().createParser(input)) {
+                    // The parser must not close the caller's stream.
+                    parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+                    return readInput(parser, inputProjection(templateName));
+                }
+            });
+            outputJson = transformRecord(templateName, root, extraParams);
+        } catch (Exception e) {
+            metrics.recordTransform(templateName, "error", startTime);
+            throw e;
+        }
+        metrics.recordTransform(templateName, "success", startTime);
+        logger.info("Transformation of streamed input completed in {} ms", (System.nanoTime() - startTime) / 1_000_000);
+        return outputJson;
+    }
+
+    /**
+     * Transforms input JSON based on the specified template and streams the rendered output
+     * straight into the supplied writer, so the output document is never held in memory.
+     * Because the output only ever exists as a stream, the plugin's {@code afterProcessing}
+     * hook and the output schema validator are not applied in this mode.
+     *
+     * @param templateName the template file to use.
+     * @param inputJson    the input JSON string.
+     * @param extraParams  additional parameters to inject into the data model.
+     * @param out          the writer receiving the transformed JSON; flushed but not closed.
+     * @throws Exception if transformation fails.
+     */
+    public void transformTo(String templateName, String inputJson, Map<String, Object> extraParams, Writer out)
+            throws Exception {
+        long startTime = System.nanoTime();
+        logger.info("Starting streaming JSON transformation.");
+
+        try {
+            metrics.recordInputSize(templateName, Utf8OutputBuffer.encodedLength(inputJson));
+            JsonNode input = stage(templateName, Stage.PARSE, () -> parseInput(templateName, inputJson));
+            Map<String, Object> dataModel = prepareDataModel(templateName, input, extraParams);
+
+            // Render directly into the caller's writer.
+            stage(templateName, Stage.RENDER, () -> {
+                templateEngine.process(templateName, dataModel, out);
+                return null;
+            });
+        } catch (Exception e) {
+            metrics.recordTransform(templateName, "error", startTime);
+            throw e;
+        }
+
+        metrics.recordTransform(templateName, "success", startTime);
+        long duration = System.nanoTime() - startTime;
+        logger.info("Streaming transformation completed in {} ms", duration / 1_000_000);
+    }
+
+    /**
+     * Reuses output buffers across requests for {@link #transform(String, String, Map, OutputStream)}.
+     *
+     * @param outputBuffers the pool (null to allocate a buffer per request).
+     */
+    public void setOutputBufferPool(OutputBufferPool outputBuffers) {
+        this.outputBuffers = outputBuffers;
+    }
+
+    /**
+     * Enables parallel batch transformation. Records are handed to the executor as they are read,
+     * with at most {@code maxInFlight} records parsed but not yet written at any time; once that
+     * window is full the reader waits, so a slow consumer or a saturated pool throttles parsing.
+     * The template engine, plugin and validators must be thread-safe when this is enabled.
+     *
+     * @param executor      executor running the per-record transformations (null to disable).
+     * @param maxInFlight   maximum number of records being transformed or awaiting output.
+     * @param preserveOrder if true, records are written in input order; otherwise as they complete.
+     */
+    public void setBatchExecution(Executor executor, int maxInFlight, boolean preserveOrder) {
+        if (executor != null && maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be at least 1");
+        }
+        this.batchExecutor = executor;
+        this.batchMaxInFlight = maxInFlight;
+        this.batchPreserveOrder = preserveOrder;
+    }
+
+    /**
+     * Sets values visible to every template, below the request's extra parameters and above the
+     * input fields. The map is shared by all requests and must not be modified afterwards.
+     *
+     * @param globals the shared values (can be null).
+     */
+    public void setGlobals(Map<String, Object> globals) {
+        this.globals = globals == null ? Collections.emptyMap() : Collections.unmodifiableMap(globals);
+    }
+
+    /**
+     * Parses inputs only as far as the template reads them, skipping every other subtree, when the
+     * template engine can tell which fields that are. Inputs are still parsed in full for templates
+     * with an input schema and when the plugin reads input fields.
+     *
+     * @param inputProjection whether inputs may be pruned.
+     */
+    public void setInputProjection(boolean inputProjection) {
+        this.inputProjection = inputProjection;
+    }
+
+    /**
+     * Lets the plugin prepare batch records in chunks through {@link TransformerPlugin#beforeProcessingBatch},
+     * so enrichment lookups are made once per chunk instead of once per record.
+     *
+     * @param pluginBatchSize records per chunk; 0 or 1 runs the plugin for each record separately.
+     */
+    public void setPluginBatchSize(int pluginBatchSize) {
+        this.pluginBatchSize = pluginBatchSize;
+    }
+
+    /**
+     * Transforms a batch of input records, reading and writing one record at a time so memory use
+     * does not depend on the size of the batch. The input is either a single top-level JSON array
+     * or a sequence of root-level JSON values (NDJSON). An array is answered with a JSON array of
+     * the rendered records; NDJSON input is answered with one rendered record per line.
+     * Every record goes through the same validation and plugin hooks as {@link #transform}.
+     * If {@link #setBatchExecution batch execution} is configured, records are transformed in parallel.
+     *
+     * @param templateName the template file to use.
+     * @param input        the batch input; read to the end but not closed.
+     * @param extraParams  additional parameters to inject into every record's data model.
+     * @param out          the writer receiving the transformed records; flushed but not closed.
+     * @return the number of records transformed.
+     * @throws Exception if reading the input or transforming any record fails.
+     */
+    public long transformBatch(String templateName, InputStream input, Map<String, Object> extraParams, Writer out)
+            throws Exception {
+        long startTime = System.nanoTime();
+        logger.info("Starting batch JSON transformation.");
+
+        BatchOutput output;
+        try (JsonParser parser = objectMapper.getFactory().createParser(input)) {
+            // The parser must not close the caller's stream.
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            JsonToken token = parser.nextToken();
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) {
+                token = parser.nextToken();
+            }
+            output = new BatchOutput(out, array);
+            output.start();
+            BatchReader reader = new BatchReader(templateName, parser, token, extraParams);
+            if (batchExecutor == null) {
+                transformSequentially(reader, output);
+            } else {
+                transformInParallel(reader, output);
+            }
+            output.finish();
+        }
+
+        long duration = System.nanoTime() - startTime;
+        logger.info("Batch transformation of {} records completed in {} ms", output.records(), duration / 1_000_000);
+        return output.records();
+    }
+
+    private void transformSequentially(BatchReader reader, BatchOutput output) throws Exception {
+        long index = 0;
+        StageCall<String> record;
+        while ((record = reader.next()) != null) {
             try {
-                inputSchemaValidator.validate(inputJson);
-                logger.info("Input JSON schema validation passed.");
+                output.write(record.call());
             } catch (Exception e) {
-                logger.error("Input JSON schema validation failed.", e);
-                throw new RuntimeException(e);
+                logger.error("Batch transformation failed at record {}.", index, e);
+                throw e;
             }
+            index++;
         }
+    }
 
-        // Inject any extra parameters into the data model.
-        if (extraParams != null) {
-            dataModel.putAll(extraParams);
+    private void transformInParallel(BatchReader reader, BatchOutput output) throws Exception {
+        // In ordered mode records leave from the head of this queue; otherwise in completion order.
+        Deque<CompletableFuture<String>> inFlight = new ArrayDeque<>(batchMaxInFlight);
+        BlockingQueue<CompletableFuture<String>> completed = new LinkedBlockingQueue<>();
+        long index = 0;
+        try {
+            StageCall<String> record;
+            while ((record = reader.next()) != null) {
+                StageCall<String> work = record;
+                long recordIndex = index++;
+                CompletableFuture<String> future = CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return work.call();
+                    } catch (Exception e) {
+                        logger.error("Batch transformation failed at record {}.", recordIndex, e);
+                        throw new CompletionException(e);
+                    }
+                }, batchExecutor);
+                inFlight.addLast(future);
+                if (!batchPreserveOrder) {
+                    future.whenComplete((result, error) -> completed.add(future));
+                }
+
+                // Write whatever is already done, then block only if the window is full.
+                drain(inFlight, completed, output, false);
+                while (inFlight.size() >= batchMaxInFlight) {
+                    drain(inFlight, completed, output, true);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                drain(inFlight, completed, output, true);
+            }
+        } catch (Exception e) {
+            inFlight.forEach(future -> future.cancel(false));
+            throw e;
         }
+    }
 
-        // Pre-processing hook: allow plugins to modify the data model.
-        if (plugin != null) {
-            dataModel = plugin.beforeProcessing(dataModel);
+    /**
+     * Reads batch records and turns each into the work that renders it. With a
+     * {@link #setPluginBatchSize plugin batch size}, records are read ahead in chunks whose data
+     * models go through {@link TransformerPlugin#beforeProcessingBatch} together, on the reading
+     * thread; otherwise every record runs the plugin hook itself as part of its work.
+     */
+    private final class BatchReader {
+        private final String templateName;
+        private final JsonParser parser;
+        private final Map<String, Object> extraParams;
+        private final InputProjection projection;
+        private final Deque<Map<String, Object>> prepared = new ArrayDeque<>();
+        private JsonToken token;
+
+        BatchReader(String templateName, JsonParser parser, JsonToken token, Map<String, Object> extraParams)
+                throws Exception {
+            this.templateName = templateName;
+            this.parser = parser;
+            this.token = token;
+            this.extraParams = extraParams;
+            this.projection = inputProjection(templateName);
         }
 
-        // Process using the generic template engine.
-        String outputJson = templateEngine.process(templateName, dataModel);
+        /**
+         * @return the work for the next record, or null at the end of the batch.
+         */
+        StageCall<String> next() throws Exception {
+            if (plugin == null || pluginBatchSize <= 1) {
+                JsonNode record = read();
+                return record == null ? null : () -> transformRecord(templateName, record, extraParams);
+            }
+            if (prepared.isEmpty()) {
+                readChunk();
+            }
+            Map<String, Object> dataModel = prepared.poll();
+            return dataModel == null ? null : () -> render(templateName, dataModel);
+        }
 
-        // Post-processing hook: allow additional modifications.
-        if (plugin != null) {
-            outputJson = plugin.afterProcessing(outputJson);
+        private void readChunk() throws Exception {
+            List<Map<String, Object>> chunk = new ArrayList<>(pluginBatchSize);
+            JsonNode record;
+            while (chunk.size() < pluginBatchSize && (record = read()) != null) {
+                chunk.add(validatedDataModel(templateName, record, extraParams));
+            }
+            if (!chunk.isEmpty()) {
+                prepared.addAll(stage(templateName, Stage.BEFORE_PROCESSING, () -> plugin.beforeProcessingBatch(chunk)));
+            }
+        }
+
+        private JsonNode read() throws Exception {
+            if (token == null || token == JsonToken.END_ARRAY) {
+                return null;
+            }
+            // Materialize only the current record; the parser moves past it afterwards.
+            JsonNode record = stage(templateName, Stage.PARSE, () -> readInput(parser, projection));
+            token = parser.nextToken();
+            return record;
+        }
+    }
+
+    /**
+     * Writes finished records. With {@code block} set, waits until at least one record is written.
+     */
+    private void drain(Deque<CompletableFuture<String>> inFlight, BlockingQueue<CompletableFuture<String>> completed,
+                       BatchOutput output, boolean block) throws Exception {
+        if (batchPreserveOrder) {
+            while (!inFlight.isEmpty() && (block || inFlight.peekFirst().isDone())) {
+                output.write(await(inFlight.pollFirst()));
+                block = false;
+            }
+        } else {
+            CompletableFuture<String> future = block ? completed.take() : completed.poll();
+            while (future != null) {
+                inFlight.remove(future);
+                output.write(await(future));
+                future = completed.poll();
+            }
+        }
+    }
+
+    private static String await(CompletableFuture<String> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Runs a single parsed record through validation, the plugin hooks and the template engine.
+     */
+    private String transformRecord(String templateName, JsonNode input,
+                                   Map<String, Object> extraParams) throws Exception {
+        return render(templateName, prepareDataModel(templateName, input, extraParams));
+    }
+
+    /**
+     * Renders a prepared data model, then runs the post-processing hook and output validation.
+     */
+    private String render(String templateName, Map<String, Object> dataModel) throws Exception {
+        // Post-processing hook: allow additional modifications. A tree plugin gets the output rendered
+        // straight into a tree, and the same tree is validated below instead of parsing any text.
+        OutputAccess outputAccess = plugin == null ? OutputAccess.NONE : plugin.outputAccess();
+        JsonNode outputTree = null;
+        String outputJson;
+        if (outputAccess == OutputAccess.TREE) {
+            JsonNode rendered = stage(templateName, Stage.RENDER, () -> renderTree(templateName, dataModel));
+            outputTree = stage(templateName, Stage.AFTER_PROCESSING, () -> plugin.afterProcessingTree(rendered));
+            outputJson = objectMapper.writeValueAsString(outputTree);
+        } else {
+            // Process using the generic template engine.
+            String rendered = stage(templateName, Stage.RENDER, () -> templateEngine.process(templateName, dataModel));
+            outputJson = outputAccess == OutputAccess.NONE ? rendered
+                    : stage(templateName, Stage.AFTER_PROCESSING, () -> plugin.afterProcessing(rendered));
         }
 
         // Validate the output JSON, if a validator is provided.
         if (outputSchemaValidator != null) {
-            try {
-                outputSchemaValidator.validate(outputJson);
-                logger.info("Output JSON schema validation passed.");
-            } catch (Exception e) {
-                logger.error("Output JSON schema validation failed.", e);
-                throw new RuntimeException(e);
-            }
+            JsonNode parsedOutput = outputTree;
+            String outputText = outputJson;
+            stage(templateName, Stage.OUTPUT_VALIDATE, () -> {
+                try {
+                    if (parsedOutput != null) {
+                        outputSchemaValidator.validate(templateName, parsedOutput);
+                    } else {
+                        outputSchemaValidator.validate(templateName, outputText);
+                    }
+                    logger.debug("Output JSON schema validation passed.");
+                } catch (Exception e) {
+                    logger.error("Output JSON schema validation failed.", e);
+                    throw new RuntimeException(e);
+                }
+                return null;
+            });
         }
+        metrics.recordOutputSize(templateName, Utf8OutputBuffer.encodedLength(outputJson));
+        return outputJson;
+    }
 
-        long duration = System.nanoTime() - startTime;
-        logger.info("Transformation completed in {} ms", duration / 1_000_000);
-        // In production, metric data can be sent to monitoring systems like Micrometer.
+    /**
+     * Renders a prepared data model into a byte buffer, then runs output validation. Plugins that
+     * post-process the output get it through {@link #render} and the result is encoded afterwards.
+     */
+    private void renderTo(String templateName, Map<String, Object> dataModel, Utf8OutputBuffer buffer)
+            throws Exception {
+        OutputAccess outputAccess = plugin == null ? OutputAccess.NONE : plugin.outputAccess();
+        if (outputAccess != OutputAccess.NONE) {
+            buffer.write(render(templateName, dataModel));
+            return;
+        }
+        stage(templateName, Stage.RENDER, () -> {
+            templateEngine.process(templateName, dataModel, buffer);
+            return null;
+        });
+        if (outputSchemaValidator != null && outputSchemaValidator.validates(templateName)) {
+            stage(templateName, Stage.OUTPUT_VALIDATE, () -> {
+                try {
+                    JsonNode output = objectMapper.readTree(buffer.array(), 0, buffer.size());
+                    outputSchemaValidator.validate(templateName, output);
+                    logger.debug("Output JSON schema validation passed.");
+                } catch (Exception e) {
+                    logger.error("Output JSON schema validation failed.", e);
+                    throw new RuntimeException(e);
+                }
+                return null;
+            });
+        }
+        metrics.recordOutputSize(templateName, buffer.size());
+    }
+
+    /**
+     * Validates the parsed input, then builds the data model handed to the template engine.
+     */
+    private Map<String, Object> prepareDataModel(String templateName, JsonNode input,
+                                                 Map<String, Object> extraParams) throws Exception {
+        Map<String, Object> dataModel = validatedDataModel(templateName, input, extraParams);
+
+        // Pre-processing hook: allow plugins to modify the data model.
+        if (plugin != null) {
+            return stage(templateName, Stage.BEFORE_PROCESSING, () -> plugin.beforeProcessing(dataModel));
+        }
+        return dataModel;
+    }
 
+    /**
+     * Validates the parsed input and builds its data model with the extra parameters, before any plugin runs.
+     */
+    private Map<String, Object> validatedDataModel(String templateName, JsonNode input,
+                                                   Map<String, Object> extraParams) throws Exception {
+        Map<String, Object> dataModel = toDataModel(input, extraParams);
+
+        // Validate the parsed input JSON, if a validator is provided.
+        if (inputSchemaValidator != null) {
+            stage(templateName, Stage.INPUT_VALIDATE, () -> {
+                try {
+                    inputSchemaValidator.validate(templateName, input);
+                    logger.debug("Input JSON schema validation passed.");
+                } catch (Exception e) {
+                    logger.error("Input JSON schema validation failed.", e);
+                    throw new RuntimeException(e);
+                }
+                return null;
+            });
+        }
+        return dataModel;
+    }
+
+    /**
+     * @return the fields to read from inputs of the template, or null to read inputs in full.
+     */
+    private InputProjection inputProjection(String templateName) throws Exception {
+        if (!inputProjection || (plugin != null && plugin.readsInput())
+                || (inputSchemaValidator != null && inputSchemaValidator.validates(templateName))) {
+            return null;
+        }
+        return templateEngine.getInputProjection(templateName);
+    }
+
+    private JsonNode parseInput(String templateName, String inputJson) throws Exception {
+        InputProjection projection = inputProjection(templateName);
+        if (projection == null) {
+            return objectMapper.readTree(inputJson);
+        }
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputJson)) {
+            return projection.read(parser, objectMapper);
+        }
+    }
+
+    private JsonNode readInput(JsonParser parser, InputProjection projection) throws Exception {
+        return projection == null ? objectMapper.readTree(parser) : projection.read(parser, objectMapper);
+    }
+
+    /**
+     * Renders the template as JSON events into a token buffer and reads it back as a tree.
+     */
+    private JsonNode renderTree(String templateName, Map<String, Object> dataModel) throws Exception {
+        TokenBuffer buffer = new TokenBuffer(objectMapper, false);
+        templateEngine.process(templateName, dataModel, buffer);
+        try (JsonParser parser = buffer.asParser()) {
+            return objectMapper.readTree(parser);
+        }
+    }
+
+    /**
+     * @return the identity of the transformation for the result cache and request coalescing, or null
+     * if neither is enabled or the engine does not track the template's version.
+     */
+    private TransformResultCache.Key transformKey(String templateName, String inputJson,
+                                                  Map<String, Object> extraParams) throws Exception {
+        if (resultCache == null && coalescer == null) {
+            return null;
+        }
+        // Read the version before rendering, so a concurrent reload can never be cached under it.
+        long templateVersion = templateEngine.getTemplateVersion(templateName);
+        return templateVersion < 0 ? null : TransformResultCache.key(templateName, templateVersion, inputJson, extraParams);
+    }
+
+    /**
+     * Waits for the identical transformation another request is running and shares its result.
+     */
+    private String awaitLeader(String templateName, TransformCoalescer.Flight flight, long startTime)
+            throws Exception {
+        String outputJson;
+        try {
+            outputJson = flight.await();
+        } catch (Exception e) {
+            metrics.recordTransform(templateName, "error", startTime);
+            throw e;
+        }
+        metrics.recordTransform(templateName, "coalesced", startTime);
+        logger.info("Transformation shared with an identical request in {} ms",
+                (System.nanoTime() - startTime) / 1_000_000);
         return outputJson;
     }
+
+    /**
+     * Runs one pipeline stage, recording its duration or, if it fails, an error for that stage.
+     */
+    private <T> T stage(String templateName, Stage stage, StageCall<T> call) throws Exception {
+        long start = System.nanoTime();
+        try {
+            T result = call.call();
+            metrics.recordStage(templateName, stage, start);
+            return result;
+        } catch (Exception e) {
+            metrics.recordError(templateName, stage);
+            throw e;
+        }
+    }
+
+    @FunctionalInterface
+    private interface StageCall<T> {
+        T call() throws Exception;
+    }
+
+    /**
+     * Exposes the parsed input, the extra parameters and the globals as one mutable data model.
+     * Nothing is copied: names are looked up through the layers, and plugin writes go to a layer of
+     * their own, so neither the input nor the shared parameter maps are modified.
+     */
+    private Map<String, Object> toDataModel(JsonNode root, Map<String, Object> extraParams)
+            throws MismatchedInputException {
+        if (root == null || !root.isObject()) {
+            throw MismatchedInputException.from(null, Map.class,
+                    "Input JSON must be an object but was " + (root == null ? "empty" : root.getNodeType()));
+        }
+        return new LayeredDataModel(root, globals, extraParams);
+    }
 }
@@ -0,0 +1,104 @@
+package com.gautam.jsontransformation.transformer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Data model that resolves names through read-only layers instead of copying them into one map.
+ * Lookups check, in order, the fields written by plugins, the request parameters, the shared
+ * globals and finally the top-level fields of the parsed input object. None of the layers below
+ * the writes is ever modified, so the parameter and global maps can be shared by every request.
+ * <p>
+ * {@link #put} and {@link #remove} only touch the write layer, which is allocated on the first
+ * write; a removed name is masked rather than deleted from the layer that holds it. Iterating the
+ * whole map merges the layers into a new map, so it is meant for debugging, not for templates.
+ */
+public final class LayeredDataModel extends AbstractMap<String, Object> {
+    private static final Object REMOVED = new Object();
+
+    private final JsonNode input;
+    private final Map<String, ?> globals;
+    private final Map<String, ?> params;
+    private Map<String, Object> writes;
+
+    /**
+     * @param input   the parsed input; must be a JSON object.
+     * @param globals values shared by all requests (can be null).
+     * @param params  parameters of this request (can be null).
+     */
+    public LayeredDataModel(JsonNode input, Map<String, ?> globals, Map<String, ?> params) {
+        this.input = input;
+        this.globals = globals == null ? Collections.emptyMap() : globals;
+        this.params = params == null ? Collections.emptyMap() : params;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (writes != null) {
+            Object value = writes.get(key);
+            if (value != null || writes.containsKey(key)) {
+                return value == REMOVED ? null : value;
+            }
+        }
+        Object value = params.get(key);
+        if (value != null || params.containsKey(key)) {
+            return value;
+        }
+        value = globals.get(key);
+        if (value != null || globals.containsKey(key)) {
+            return value;
+        }
+        return key instanceof String ? input.get((String) key) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (writes != null && writes.containsKey(key)) {
+            return writes.get(key) != REMOVED;
+        }
+        return params.containsKey(key) || globals.containsKey(key)
+                || key instanceof String && input.has((String) key);
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        Object previous = get(key);
+        if (writes == null) {
+            writes = new HashMap<>(4);
+        }
+        writes.put(key, value);
+        return previous;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        if (!(key instanceof String) || !containsKey(key)) {
+            return null;
+        }
+        return put((String) key, REMOVED);
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        Map<String, Object> merged = new LinkedHashMap<>();
+        input.fields().forEachRemaining(field -> merged.put(field.getKey(), field.getValue()));
+        merged.putAll(globals);
+        merged.putAll(params);
+        if (writes != null) {
+            for (Entry<String, Object> write : writes.entrySet()) {
+                if (write.getValue() == REMOVED) {
+                    merged.remove(write.getKey());
+                } else {
+                    merged.put(write.getKey(), write.getValue());
+                }
+            }
+        }
+        return Collections.unmodifiableMap(merged).entrySet();
+    }
+}
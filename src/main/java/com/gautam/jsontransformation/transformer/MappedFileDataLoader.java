@@ -0,0 +1,144 @@
+package com.gautam.jsontransformation.transformer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Loads JSON files through memory mapping, for offline transforms of files too large to copy onto
+ * the heap. {@link #openStream()} reads the file through a sliding window of mapped pages, so a parser
+ * such as Jackson consumes the bytes straight from the page cache, however large the file is.
+ * <p>
+ * Mapped pages are released by the garbage collector once their buffer is unreachable, not when
+ * the stream is closed; that is a limitation of the JDK, not of this class.
+ */
+public class MappedFileDataLoader implements DataLoader {
+    private static final int DEFAULT_WINDOW_SIZE = 256 * 1024 * 1024;
+
+    private final Path path;
+    private final int windowSize;
+
+    public MappedFileDataLoader(String filePath) {
+        this(Paths.get(filePath), DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * @param path       the file to load.
+     * @param windowSize bytes mapped at a time by {@link #openStream()}.
+     */
+    MappedFileDataLoader(Path path, int windowSize) {
+        this.path = path;
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Decodes the whole file into a string; prefer {@link #openStream()} for large files.
+     */
+    @Override
+    public String loadData() throws IOException {
+        return StandardCharsets.UTF_8.decode(mapData()).toString();
+    }
+
+    /**
+     * Maps the whole file read-only. A single buffer can address at most 2 GB.
+     *
+     * @return the mapped file contents.
+     * @throws IOException if the file cannot be mapped or is too large for one buffer.
+     */
+    public ByteBuffer mapData() throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File " + path + " is too large to map into one buffer (" + size
+                        + " bytes); use openStream() instead");
+            }
+            // The mapping stays valid after the channel is closed.
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    @Override
+    public InputStream openStream() throws IOException {
+        return new MappedInputStream(FileChannel.open(path, StandardOpenOption.READ), windowSize);
+    }
+
+    /**
+     * Input stream over a file channel that maps one window of the file at a time.
+     */
+    private static final class MappedInputStream extends InputStream {
+        private final FileChannel channel;
+        private final long size;
+        private final int windowSize;
+        private long nextPosition;
+        private MappedByteBuffer window;
+
+        MappedInputStream(FileChannel channel, int windowSize) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            this.windowSize = windowSize;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return nextWindow() ? window.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!nextWindow()) {
+                return -1;
+            }
+            int count = Math.min(length, window.remaining());
+            window.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            if (n <= 0 || !nextWindow()) {
+                return 0;
+            }
+            int count = (int) Math.min(n, window.remaining());
+            window.position(window.position() + count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return window == null ? 0 : window.remaining();
+        }
+
+        @Override
+        public void close() throws IOException {
+            window = null;
+            channel.close();
+        }
+
+        /**
+         * Maps the next window once the current one is used up.
+         *
+         * @return false at the end of the file.
+         */
+        private boolean nextWindow() throws IOException {
+            if (window != null && window.hasRemaining()) {
+                return true;
+            }
+            if (nextPosition >= size) {
+                return false;
+            }
+            long length = Math.min(windowSize, size - nextPosition);
+            window = channel.map(FileChannel.MapMode.READ_ONLY, nextPosition, length);
+            nextPosition += length;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.gautam.jsontransformation.transformer;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded pool of {@link Utf8OutputBuffer}s shared by all request threads. Each template keeps an
+ * estimate of its output size, so a borrowed buffer is grown once up front instead of doubling
+ * while a document is rendered. The estimate follows the largest recent output and decays slowly
+ * towards smaller ones.
+ * <p>
+ * Buffers are not tied to threads, which keeps pooling effective with virtual threads. Buffers that
+ * grew beyond {@code maxRetainedBytes} are dropped on release, so one huge document does not pin
+ * its memory; for the same reason buffers are never presized beyond it.
+ */
+public class OutputBufferPool {
+    private static final int MIN_CAPACITY = 1024;
+
+    private final BlockingQueue<Utf8OutputBuffer> buffers;
+    private final int maxRetainedBytes;
+    private final ConcurrentMap<String, AtomicInteger> outputSizes = new ConcurrentHashMap<>();
+
+    /**
+     * @param maxBuffers       maximum number of idle buffers kept.
+     * @param maxRetainedBytes largest buffer capacity returned to the pool.
+     */
+    public OutputBufferPool(int maxBuffers, int maxRetainedBytes) {
+        this.buffers = new ArrayBlockingQueue<>(Math.max(maxBuffers, 1));
+        this.maxRetainedBytes = maxRetainedBytes;
+    }
+
+    /**
+     * Borrows an empty buffer sized for the template's expected output.
+     *
+     * @param templateName the template that will render into the buffer.
+     * @return the buffer; hand it back with {@link #release}.
+     */
+    public Utf8OutputBuffer acquire(String templateName) {
+        AtomicInteger estimate = outputSizes.get(templateName);
+        // A little headroom, so outputs slightly above the estimate do not double the array.
+        int expected = estimate == null ? MIN_CAPACITY
+                : (int) Math.min(estimate.get() + estimate.get() / 8L, maxRetainedBytes);
+        Utf8OutputBuffer buffer = buffers.poll();
+        if (buffer == null) {
+            return new Utf8OutputBuffer(Math.max(expected, MIN_CAPACITY));
+        }
+        buffer.ensureCapacity(expected);
+        return buffer;
+    }
+
+    /**
+     * Records the size of the template's output and returns the buffer to the pool.
+     *
+     * @param templateName the template that rendered into the buffer.
+     * @param buffer       the buffer; must not be used afterwards.
+     */
+    public void release(String templateName, Utf8OutputBuffer buffer) {
+        int size = buffer.size();
+        // Requests for unknown templates fail before writing anything and must not grow the map.
+        if (size > 0) {
+            outputSizes.computeIfAbsent(templateName, name -> new AtomicInteger())
+                    .accumulateAndGet(size, (estimate, observed) ->
+                            observed >= estimate ? observed : estimate - (estimate - observed) / 8);
+        }
+        if (buffer.capacity() <= maxRetainedBytes) {
+            buffer.reset();
+            buffers.offer(buffer);
+        }
+    }
+
+    /**
+     * @return the current output size estimate of the template, or 0 if it has not rendered yet.
+     */
+    public int expectedSize(String templateName) {
+        AtomicInteger estimate = outputSizes.get(templateName);
+        return estimate == null ? 0 : estimate.get();
+    }
+}
@@ -0,0 +1,218 @@
+package com.gautam.jsontransformation.transformer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Ordered chain of plugins, itself usable wherever a single {@link TransformerPlugin} is expected.
+ * Stages run one after the other and each sees the data model left by the previous ones. A stage
+ * is either one {@link TransformerPlugin} or a group of {@link AsyncTransformerPlugin}s that run
+ * concurrently, whose contributed fields are merged in the order the plugins were added.
+ * <p>
+ * For batches, {@link #beforeProcessingBatch} hands each stage all records at once, so an
+ * enrichment plugin costs one round trip per chunk of records rather than one per record.
+ * <p>
+ * On the output side the {@code afterProcessing} hooks of the {@link TransformerPlugin} stages run in order.
+ */
+public class PluginChain implements TransformerPlugin {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final List<Stage> stages = new ArrayList<>();
+
+    /**
+     * Appends a synchronous plugin as its own stage.
+     *
+     * @param plugin the plugin.
+     * @return this chain.
+     */
+    public PluginChain then(TransformerPlugin plugin) {
+        stages.add(new PluginStage(plugin));
+        return this;
+    }
+
+    /**
+     * Appends a stage of independent asynchronous plugins that run concurrently.
+     *
+     * @param plugins the plugins of the stage.
+     * @return this chain.
+     */
+    public PluginChain then(AsyncTransformerPlugin... plugins) {
+        if (plugins.length > 0) {
+            stages.add(new EnrichmentStage(List.of(plugins)));
+        }
+        return this;
+    }
+
+    @Override
+    public Map<String, Object> beforeProcessing(Map<String, Object> dataModel) {
+        return beforeProcessingBatch(Collections.singletonList(dataModel)).get(0);
+    }
+
+    @Override
+    public List<Map<String, Object>> beforeProcessingBatch(List<Map<String, Object>> dataModels) {
+        List<Map<String, Object>> current = dataModels;
+        for (Stage stage : stages) {
+            current = stage.process(current);
+        }
+        return current;
+    }
+
+    @Override
+    public boolean readsInput() {
+        return stages.stream().anyMatch(Stage::readsInput);
+    }
+
+    @Override
+    public String afterProcessing(String outputJson) {
+        String output = outputJson;
+        for (TransformerPlugin plugin : outputPlugins()) {
+            if (plugin.outputAccess() == OutputAccess.TREE) {
+                try {
+                    output = objectMapper.writeValueAsString(plugin.afterProcessingTree(objectMapper.readTree(output)));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            } else {
+                output = plugin.afterProcessing(output);
+            }
+        }
+        return output;
+    }
+
+    @Override
+    public JsonNode afterProcessingTree(JsonNode output) {
+        JsonNode result = output;
+        for (TransformerPlugin plugin : outputPlugins()) {
+            result = plugin.afterProcessingTree(result);
+        }
+        return result;
+    }
+
+    /**
+     * @return {@code NONE} if no plugin touches the output, {@code TREE} if all that do work on trees,
+     * and {@code TEXT} otherwise.
+     */
+    @Override
+    public OutputAccess outputAccess() {
+        List<TransformerPlugin> plugins = outputPlugins();
+        if (plugins.isEmpty()) {
+            return OutputAccess.NONE;
+        }
+        return plugins.stream().allMatch(plugin -> plugin.outputAccess() == OutputAccess.TREE)
+                ? OutputAccess.TREE : OutputAccess.TEXT;
+    }
+
+    private List<TransformerPlugin> outputPlugins() {
+        List<TransformerPlugin> plugins = new ArrayList<>();
+        for (Stage stage : stages) {
+            TransformerPlugin plugin = stage.outputPlugin();
+            if (plugin != null && plugin.outputAccess() != OutputAccess.NONE) {
+                plugins.add(plugin);
+            }
+        }
+        return plugins;
+    }
+
+    private static List<Map<String, Object>> enrich(List<AsyncTransformerPlugin> plugins,
+                                                    List<Map<String, Object>> dataModels) {
+        List<Map<String, Object>> views = new ArrayList<>(dataModels.size());
+        dataModels.forEach(dataModel -> views.add(Collections.unmodifiableMap(dataModel)));
+
+        // Start every plugin of the stage before waiting for any of them.
+        List<CompletableFuture<List<Map<String, Object>>>> futures = new ArrayList<>(plugins.size());
+        for (AsyncTransformerPlugin plugin : plugins) {
+            futures.add(plugin.enrichBatch(views));
+        }
+        List<List<Map<String, Object>>> results = new ArrayList<>(futures.size());
+        try {
+            for (CompletableFuture<List<Map<String, Object>>> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(false));
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+
+        // Merge only once every plugin is done, so none of them sees another one's fields.
+        for (List<Map<String, Object>> contributions : results) {
+            if (contributions.size() != dataModels.size()) {
+                throw new IllegalStateException("Plugin returned " + contributions.size()
+                        + " results for " + dataModels.size() + " records");
+            }
+            for (int i = 0; i < dataModels.size(); i++) {
+                dataModels.get(i).putAll(contributions.get(i));
+            }
+        }
+        return dataModels;
+    }
+
+    /**
+     * One step of the chain on the input side.
+     */
+    private interface Stage {
+        /**
+         * @param dataModels the data models left by the previous stages.
+         * @return the data models for the next stage.
+         */
+        List<Map<String, Object>> process(List<Map<String, Object>> dataModels);
+
+        boolean readsInput();
+
+        /**
+         * @return the plugin whose output hooks run after rendering, or null if the stage has none.
+         */
+        default TransformerPlugin outputPlugin() {
+            return null;
+        }
+    }
+
+    private static final class PluginStage implements Stage {
+        private final TransformerPlugin plugin;
+
+        PluginStage(TransformerPlugin plugin) {
+            this.plugin = plugin;
+        }
+
+        @Override
+        public List<Map<String, Object>> process(List<Map<String, Object>> dataModels) {
+            return plugin.beforeProcessingBatch(dataModels);
+        }
+
+        @Override
+        public boolean readsInput() {
+            return plugin.readsInput();
+        }
+
+        @Override
+        public TransformerPlugin outputPlugin() {
+            return plugin;
+        }
+    }
+
+    private static final class EnrichmentStage implements Stage {
+        private final List<AsyncTransformerPlugin> plugins;
+
+        EnrichmentStage(List<AsyncTransformerPlugin> plugins) {
+            this.plugins = plugins;
+        }
+
+        @Override
+        public List<Map<String, Object>> process(List<Map<String, Object>> dataModels) {
+            return enrich(plugins, dataModels);
+        }
+
+        @Override
+        public boolean readsInput() {
+            return plugins.stream().anyMatch(AsyncTransformerPlugin::readsInput);
+        }
+    }
+}
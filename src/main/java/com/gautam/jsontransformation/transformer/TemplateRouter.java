@@ -0,0 +1,119 @@
+package com.gautam.jsontransformation.transformer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Picks the template for a request. In order of precedence: an explicitly requested template
+ * (e.g. from the URL path), a template named in a request header, the template mapped to a probed
+ * payload field value, and finally the default template.
+ */
+public class TemplateRouter {
+    private static final Logger logger = LoggerFactory.getLogger(TemplateRouter.class);
+
+    static final String TEMPLATE_SUFFIX = ".ftl";
+
+    private final String defaultTemplate;
+    private final JsonFieldProbe fieldProbe;
+    private final Map<String, String> fieldTemplates;
+
+    /**
+     * @param defaultTemplate template used when no rule matches.
+     * @param fieldProbe      probe for the routing field in the payload (can be null).
+     * @param fieldTemplates  template to use for each value of the routing field.
+     */
+    public TemplateRouter(String defaultTemplate, JsonFieldProbe fieldProbe, Map<String, String> fieldTemplates) {
+        this.defaultTemplate = defaultTemplate;
+        this.fieldProbe = fieldProbe;
+        this.fieldTemplates = fieldTemplates != null ? fieldTemplates : Collections.emptyMap();
+    }
+
+    /**
+     * Resolves the template for one request.
+     *
+     * @param requestedTemplate template named by the caller, e.g. via the URL (can be null).
+     * @param headerTemplate    template named in the routing header (can be null).
+     * @param inputJson         the request payload, probed only if neither name is given (can be null).
+     * @return the template name to use.
+     */
+    public String route(String requestedTemplate, String headerTemplate, String inputJson) {
+        if (hasText(requestedTemplate)) {
+            return normalize(requestedTemplate);
+        }
+        if (hasText(headerTemplate)) {
+            return normalize(headerTemplate);
+        }
+        if (fieldProbe != null && inputJson != null) {
+            try {
+                String value = fieldProbe.probe(inputJson);
+                String template = value != null ? fieldTemplates.get(value) : null;
+                if (template != null) {
+                    return normalize(template);
+                }
+            } catch (IOException e) {
+                // Malformed input is reported by the transformation itself.
+                logger.debug("Routing probe could not read the payload.", e);
+            }
+        }
+        return defaultTemplate;
+    }
+
+    /**
+     * Resolves the template for one request whose payload has already been parsed.
+     *
+     * @param requestedTemplate template named by the caller, e.g. via the URL (can be null).
+     * @param headerTemplate    template named in the routing header (can be null).
+     * @param input             the parsed request payload, probed only if neither name is given (can be null).
+     * @return the template name to use.
+     */
+    public String routeParsed(String requestedTemplate, String headerTemplate, JsonNode input) {
+        if (hasText(requestedTemplate)) {
+            return normalize(requestedTemplate);
+        }
+        if (hasText(headerTemplate)) {
+            return normalize(headerTemplate);
+        }
+        if (fieldProbe != null && input != null) {
+            String value = fieldProbe.probe(input);
+            String template = value != null ? fieldTemplates.get(value) : null;
+            if (template != null) {
+                return normalize(template);
+            }
+        }
+        return defaultTemplate;
+    }
+
+    /**
+     * @param requestedTemplate template named by the caller, e.g. via the URL (can be null).
+     * @param headerTemplate    template named in the routing header (can be null).
+     * @return whether the template can only be resolved by probing the payload.
+     */
+    public boolean needsPayload(String requestedTemplate, String headerTemplate) {
+        return !hasText(requestedTemplate) && !hasText(headerTemplate)
+                && fieldProbe != null && !fieldTemplates.isEmpty();
+    }
+
+    /**
+     * @return the template used when no rule matches.
+     */
+    public String getDefaultTemplate() {
+        return defaultTemplate;
+    }
+
+    /**
+     * Appends the template suffix to bare names, so {@code /transform/invoice} means {@code invoice.ftl}.
+     */
+    static String normalize(String templateName) {
+        String name = templateName.trim();
+        return name.contains(".") ? name : name + TEMPLATE_SUFFIX;
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.trim().isEmpty();
+    }
+}
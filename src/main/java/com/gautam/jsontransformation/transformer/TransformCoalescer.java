@@ -0,0 +1,180 @@
+package com.gautam.jsontransformation.transformer;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Single-flight deduplication of identical transformations. Requests with the same
+ * {@link TransformResultCache.Key} (template, template version, input and parameters) that arrive
+ * while one of them is being transformed wait for that transformation and share its result, instead
+ * of each parsing and rendering the same document. A failure is shared the same way.
+ * <p>
+ * Only transformations in progress are tracked; a request arriving after the result was produced
+ * starts a new one (or hits the {@link TransformResultCache}, if enabled). A waiting request gives up
+ * after a timeout, so a stuck transformation cannot hold its followers forever.
+ */
+public class TransformCoalescer {
+    static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+
+    private final ConcurrentMap<TransformResultCache.Key, Flight> flights = new ConcurrentHashMap<>();
+    private final LongAdder coalesced = new LongAdder();
+    private final Duration timeout;
+
+    public TransformCoalescer() {
+        this(DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * @param timeout how long a request waits for the identical transformation in progress.
+     */
+    public TransformCoalescer(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * Joins the transformation in progress for the key, or starts one.
+     *
+     * @param key the identity of the transformation.
+     * @return the flight; the caller computes the result if it {@link Flight#isLeader() leads} it,
+     * otherwise it {@link Flight#await() waits} for it.
+     */
+    public Flight join(TransformResultCache.Key key) {
+        Flight[] joined = new Flight[1];
+        // Followers register inside compute, so the count is final once the leader removed the flight.
+        flights.compute(key, (k, flight) -> {
+            if (flight == null) {
+                joined[0] = new Flight(k);
+                return joined[0];
+            }
+            flight.followers++;
+            joined[0] = flight.follower();
+            return flight;
+        });
+        if (!joined[0].isLeader()) {
+            coalesced.increment();
+        }
+        return joined[0];
+    }
+
+    /**
+     * @return the number of requests that shared another request's transformation instead of rendering.
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    /**
+     * @return the number of transformations currently in progress.
+     */
+    public int inFlight() {
+        return flights.size();
+    }
+
+    /**
+     * Publishes the number of renders saved ({@code transform.coalesced}) and the transformations in
+     * progress ({@code transform.in.flight}).
+     */
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("transform.coalesced", this, TransformCoalescer::getCoalescedCount)
+                .description("Requests that shared an identical in-flight transformation instead of rendering")
+                .register(registry);
+        Gauge.builder("transform.in.flight", this, TransformCoalescer::inFlight)
+                .description("Distinct transformations in progress")
+                .register(registry);
+    }
+
+    /**
+     * One transformation in progress, as seen by one request.
+     */
+    public final class Flight {
+        private final TransformResultCache.Key key;
+        private final CompletableFuture<String> result;
+        private final boolean leader;
+        // Guarded by the map entry of the key.
+        private int followers;
+
+        private Flight(TransformResultCache.Key key) {
+            this(key, new CompletableFuture<>(), true);
+        }
+
+        private Flight(TransformResultCache.Key key, CompletableFuture<String> result, boolean leader) {
+            this.key = key;
+            this.result = result;
+            this.leader = leader;
+        }
+
+        private Flight follower() {
+            return new Flight(key, result, false);
+        }
+
+        /**
+         * @return whether this request computes the result.
+         */
+        public boolean isLeader() {
+            return leader;
+        }
+
+        /**
+         * Waits for the leader's result.
+         *
+         * @return the transformed JSON.
+         * @throws Exception the exception the leader's transformation failed with, TimeoutException
+         *                   if it has not finished within the timeout, or InterruptedException if the
+         *                   thread was interrupted while waiting.
+         */
+        public String await() throws Exception {
+            try {
+                return result.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                throw new TimeoutException("Identical transformation in progress did not finish within " + timeout);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw (Exception) cause;
+            }
+        }
+
+        /**
+         * Ends the flight for new requests; called by the leader before it publishes the outcome.
+         *
+         * @return the number of requests waiting for the result.
+         */
+        public int leave() {
+            int[] waiting = new int[1];
+            flights.computeIfPresent(key, (k, flight) -> {
+                if (flight != this) {
+                    return flight;
+                }
+                waiting[0] = followers;
+                return null;
+            });
+            return waiting[0];
+        }
+
+        /**
+         * Hands the leader's result to the waiting requests.
+         */
+        public void complete(String outputJson) {
+            result.complete(outputJson);
+        }
+
+        /**
+         * Hands the leader's failure to the waiting requests.
+         */
+        public void fail(Throwable failure) {
+            result.completeExceptionally(failure);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.gautam.jsontransformation.transformer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Micrometer instrumentation of the transformation pipeline, tagged per template:
+ * <ul>
+ *     <li>{@code transform.stage} timers, tagged with the pipeline stage,</li>
+ *     <li>{@code transform.requests} timers, tagged with the outcome ({@code success}, {@code cache_hit},
+ *     {@code coalesced}, {@code error}),</li>
+ *     <li>{@code transform.input.size} and {@code transform.output.size} distributions of the documents'
+ *     UTF-8 size in bytes,</li>
+ *     <li>{@code transform.errors} counters, tagged with the stage that failed.</li>
+ * </ul>
+ * Meters are looked up once per template and cached. To keep tag cardinality bounded when callers
+ * request arbitrary template names, names not known to {@link #setKnownTemplates} and templates beyond
+ * {@link #MAX_TEMPLATES} share the tag {@code other}.
+ */
+public class TransformMetrics {
+
+    /**
+     * Pipeline stages that are timed separately.
+     */
+    public enum Stage {
+        PARSE, INPUT_VALIDATE, BEFORE_PROCESSING, RENDER, AFTER_PROCESSING, OUTPUT_VALIDATE;
+
+        final String tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    static final int MAX_TEMPLATES = 500;
+    private static final String OTHER_TEMPLATE = "other";
+
+    private final MeterRegistry registry;
+    private final ConcurrentMap<String, TemplateMeters> meters = new ConcurrentHashMap<>();
+    private Predicate<String> knownTemplates;
+
+    public TransformMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * @return metrics that are recorded nowhere.
+     */
+    public static TransformMetrics noop() {
+        return new TransformMetrics(new CompositeMeterRegistry());
+    }
+
+    public MeterRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * @param knownTemplates tells the templates that get a tag of their own (null for every name).
+     */
+    public void setKnownTemplates(Predicate<String> knownTemplates) {
+        this.knownTemplates = knownTemplates;
+    }
+
+    /**
+     * Records the duration of a stage that started at {@code startNanos} and has just finished.
+     */
+    public void recordStage(String templateName, Stage stage, long startNanos) {
+        meters(templateName).stages[stage.ordinal()].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordError(String templateName, Stage stage) {
+        meters(templateName).errors[stage.ordinal()].increment();
+    }
+
+    /**
+     * Records the duration of a whole transformation that started at {@code startNanos}.
+     */
+    public void recordTransform(String templateName, String outcome, long startNanos) {
+        TemplateMeters templateMeters = meters(templateName);
+        templateMeters.outcomes
+                .computeIfAbsent(outcome, key -> Timer.builder("transform.requests")
+                        .description("End-to-end transformation time")
+                        .tag("template", templateMeters.tag)
+                        .tag("outcome", key)
+                        .publishPercentileHistogram()
+                        .register(registry))
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param bytes the UTF-8 size of the input document.
+     */
+    public void recordInputSize(String templateName, long bytes) {
+        meters(templateName).inputSize.record(bytes);
+    }
+
+    /**
+     * @param bytes the UTF-8 size of the output document.
+     */
+    public void recordOutputSize(String templateName, long bytes) {
+        meters(templateName).outputSize.record(bytes);
+    }
+
+    private TemplateMeters meters(String templateName) {
+        TemplateMeters templateMeters = meters.get(templateName);
+        if (templateMeters != null) {
+            return templateMeters;
+        }
+        // Unknown names fail right away and must not take the tag of a real template.
+        boolean known = knownTemplates == null || knownTemplates.test(templateName);
+        String key = known && meters.size() < MAX_TEMPLATES ? templateName : OTHER_TEMPLATE;
+        return meters.computeIfAbsent(key, tag -> new TemplateMeters(registry, tag));
+    }
+
+    private static final class TemplateMeters {
+        final String tag;
+        final Timer[] stages = new Timer[Stage.values().length];
+        final Counter[] errors = new Counter[Stage.values().length];
+        final ConcurrentMap<String, Timer> outcomes = new ConcurrentHashMap<>();
+        final DistributionSummary inputSize;
+        final DistributionSummary outputSize;
+
+        TemplateMeters(MeterRegistry registry, String tag) {
+            this.tag = tag;
+            for (Stage stage : Stage.values()) {
+                stages[stage.ordinal()] = Timer.builder("transform.stage")
+                        .description("Time spent in one stage of the transformation pipeline")
+                        .tag("template", tag)
+                        .tag("stage", stage.tag)
+                        .publishPercentileHistogram()
+                        .register(registry);
+                errors[stage.ordinal()] = Counter.builder("transform.errors")
+                        .description("Transformations that failed, by failing stage")
+                        .tag("template", tag)
+                        .tag("stage", stage.tag)
+                        .register(registry);
+            }
+            inputSize = DistributionSummary.builder("transform.input.size")
+                    .description("UTF-8 size of the input documents")
+                    .baseUnit("bytes")
+                    .tag("template", tag)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            outputSize = DistributionSummary.builder("transform.output.size")
+                    .description("UTF-8 size of the rendered output documents")
+                    .baseUnit("bytes")
+                    .tag("template", tag)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.gautam.jsontransformation.transformer;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Bounded cache of transformation results, keyed on the template, the template's version, the input
+ * text and the extra parameters. Keys hold the input text and compare it in full; its hash only
+ * spreads the keys, so a hash collision can never hand one caller another caller's result. Entries are evicted by size and by time since they were
+ * written, and dropped as soon as their template is reloaded.
+ */
+public class TransformResultCache {
+    private final Cache<Key, String> cache;
+
+    /**
+     * @param maximumSize maximum number of cached results.
+     * @param ttl         how long a result stays cached after it was computed.
+     */
+    public TransformResultCache(long maximumSize, Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Builds the cache key for one transformation.
+     *
+     * @param templateName    the template name.
+     * @param templateVersion the version of the template that will render the input.
+     * @param inputJson       the input text.
+     * @param extraParams     the extra parameters (can be null).
+     * @return the key.
+     */
+    public static Key key(String templateName, long templateVersion, String inputJson,
+                          Map<String, Object> extraParams) {
+        Map<String, Object> params = extraParams == null || extraParams.isEmpty()
+                ? Collections.emptyMap() : new HashMap<>(extraParams);
+        return new Key(templateName, templateVersion, inputJson, params);
+    }
+
+    /**
+     * @return the cached result, or null on a miss.
+     */
+    public String get(Key key) {
+        return cache.getIfPresent(key);
+    }
+
+    public void put(Key key, String outputJson) {
+        cache.put(key, outputJson);
+    }
+
+    /**
+     * Drops every cached result rendered with the given template.
+     *
+     * @param templateName the reloaded template.
+     */
+    public void invalidateTemplate(String templateName) {
+        cache.asMap().keySet().removeIf(key -> key.templateName.equals(templateName));
+    }
+
+    public long getHitCount() {
+        return stats().hitCount();
+    }
+
+    public long getMissCount() {
+        return stats().missCount();
+    }
+
+    /**
+     * Publishes the cache's hit, miss, eviction and size metrics under the given cache name.
+     */
+    public void bindTo(MeterRegistry registry, String cacheName) {
+        CaffeineCacheMetrics.monitor(registry, cache, cacheName);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Identity of one transformation: template, template version, input and parameters.
+     */
+    public static final class Key {
+        private final String templateName;
+        private final long templateVersion;
+        private final String inputJson;
+        private final long inputHash;
+        private final Map<String, Object> extraParams;
+        private final int hashCode;
+
+        Key(String templateName, long templateVersion, String inputJson, Map<String, Object> extraParams) {
+            this.templateName = templateName;
+            this.templateVersion = templateVersion;
+            this.inputJson = inputJson;
+            this.inputHash = InputHash.of(inputJson);
+            this.extraParams = extraParams;
+            this.hashCode = Objects.hash(templateName, templateVersion, inputHash, extraParams);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            // The hash rules out most other inputs cheaply; only the full text proves equality.
+            return templateVersion == other.templateVersion
+                    && inputHash == other.inputHash
+                    && templateName.equals(other.templateName)
+                    && extraParams.equals(other.extraParams)
+                    && inputJson.equals(other.inputJson);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
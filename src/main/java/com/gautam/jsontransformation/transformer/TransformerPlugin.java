@@ -1,16 +1,58 @@
 package com.gautam.jsontransformation.transformer;
 
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 public interface TransformerPlugin {
+    /**
+     * How a plugin wants to see the rendered output in {@code afterProcessing}.
+     */
+    enum OutputAccess {
+        /** The plugin does not touch the output; the post-processing hook is skipped. */
+        NONE,
+        /** The plugin works on the output text, {@link #afterProcessing(String)}. */
+        TEXT,
+        /** The plugin works on the parsed output, {@link #afterProcessingTree(JsonNode)}; the tree is shared with output validation. */
+        TREE
+    }
+
     /**
      * Hook to modify the input data model before processing.
+     * Values parsed from the input are Jackson {@code JsonNode}s rather than Maps and Lists.
      *
      * @param dataModel The original data model.
      * @return A potentially modified data model.
      */
     Map<String, Object> beforeProcessing(Map<String, Object> dataModel);
 
+    /**
+     * Hook to modify the data models of several batch records at once, so plugins can enrich them
+     * with one lookup instead of one per record. The default calls {@link #beforeProcessing} for each.
+     *
+     * @param dataModels The records' data models.
+     * @return The potentially modified data models, in the same order.
+     */
+    default List<Map<String, Object>> beforeProcessingBatch(List<Map<String, Object>> dataModels) {
+        List<Map<String, Object>> processed = new ArrayList<>(dataModels.size());
+        for (Map<String, Object> dataModel : dataModels) {
+            processed.add(beforeProcessing(dataModel));
+        }
+        return processed;
+    }
+
+    /**
+     * Tells whether {@link #beforeProcessing} reads input fields. Only plugins that do not may run
+     * on inputs pruned to the fields the template reads; the default is the safe answer.
+     *
+     * @return true if the plugin reads fields of the input document.
+     */
+    default boolean readsInput() {
+        return true;
+    }
+
     /**
      * Hook to modify the output JSON after transformation.
      *
@@ -18,4 +60,23 @@ public interface TransformerPlugin {
      * @return A potentially modified output JSON string.
      */
     String afterProcessing(String outputJson);
+
+    /**
+     * Hook to modify the parsed output JSON after transformation. Only called for plugins that
+     * return {@link OutputAccess#TREE} from {@link #outputAccess()}; the output is parsed once
+     * and the returned tree is also what the output schema validator sees.
+     *
+     * @param output The parsed output JSON.
+     * @return A potentially modified output tree.
+     */
+    default JsonNode afterProcessingTree(JsonNode output) {
+        return output;
+    }
+
+    /**
+     * @return which post-processing hook to call. Defaults to {@link OutputAccess#TEXT}.
+     */
+    default OutputAccess outputAccess() {
+        return OutputAccess.TEXT;
+    }
 }
@@ -0,0 +1,226 @@
+package com.gautam.jsontransformation.transformer;
+
+import com.gautam.jsontransformation.transformer.template.RewindableWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A writer that encodes straight into a growable UTF-8 byte array, so rendered output can be sent
+ * as bytes without first being collected as chars and copied into a {@code String}. Buffers are
+ * meant to be reused through an {@link OutputBufferPool}; they are not thread-safe.
+ * <p>
+ * Unpaired surrogates are written as {@code ?}, as {@link String#getBytes} does.
+ */
+public final class Utf8OutputBuffer extends Writer implements RewindableWriter {
+    private static final byte REPLACEMENT = '?';
+
+    private byte[] bytes;
+    private int size;
+    // A high surrogate written as the last char, waiting for its low half.
+    private char pendingHighSurrogate;
+
+    public Utf8OutputBuffer(int initialCapacity) {
+        this.bytes = new byte[Math.max(initialCapacity, 16)];
+    }
+
+    @Override
+    public void write(int c) {
+        ensureCapacity(size + 4);
+        encode((char) c);
+    }
+
+    @Override
+    public void write(char[] chars, int offset, int length) {
+        ensureCapacity(size + length);
+        int end = offset + length;
+        int i = offset;
+        while (i < end) {
+            // Copy ASCII runs without per-char capacity checks; the capacity covers one byte per char.
+            char c = chars[i];
+            if (c < 0x80 && pendingHighSurrogate == 0) {
+                bytes[size++] = (byte) c;
+                i++;
+            } else {
+                ensureCapacity(size + 4 + (end - i - 1));
+                encode(c);
+                i++;
+            }
+        }
+    }
+
+    @Override
+    public void write(String text, int offset, int length) {
+        ensureCapacity(size + length);
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80 && pendingHighSurrogate == 0) {
+                bytes[size++] = (byte) c;
+            } else {
+                ensureCapacity(size + 4 + (end - i - 1));
+                encode(c);
+            }
+        }
+    }
+
+    /**
+     * Nothing to flush; the bytes are only sent by {@link #writeTo(OutputStream)}.
+     */
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * A buffer stays usable after close, so a template engine closing its writer does not break reuse.
+     */
+    @Override
+    public void close() {
+        finishPending();
+    }
+
+    /**
+     * @return the number of encoded bytes.
+     */
+    public int size() {
+        finishPending();
+        return size;
+    }
+
+    /**
+     * @return the backing array; only the first {@link #size()} bytes are valid.
+     */
+    public byte[] array() {
+        finishPending();
+        return bytes;
+    }
+
+    /**
+     * @return the currently allocated size of the backing array.
+     */
+    public int capacity() {
+        return bytes.length;
+    }
+
+    /**
+     * Writes the encoded bytes to the stream without copying them.
+     *
+     * @param out the stream receiving the bytes; neither flushed nor closed.
+     * @throws IOException if the stream fails.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        finishPending();
+        out.write(bytes, 0, size);
+    }
+
+    /**
+     * Discards the content and keeps the backing array.
+     */
+    public void reset() {
+        size = 0;
+        pendingHighSurrogate = 0;
+    }
+
+    /**
+     * @return the number of encoded bytes so far.
+     */
+    @Override
+    public int position() {
+        return size();
+    }
+
+    @Override
+    public void rewind(int position) {
+        size = position;
+        pendingHighSurrogate = 0;
+    }
+
+    /**
+     * Grows the backing array to hold at least the given number of bytes.
+     *
+     * @param capacity the required capacity.
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(capacity, bytes.length * 2));
+        }
+    }
+
+    /**
+     * @return the content decoded as a string, e.g. for a plugin that needs the output as text.
+     */
+    @Override
+    public String toString() {
+        finishPending();
+        return new String(bytes, 0, size, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Counts the bytes a text takes as UTF-8, as this buffer encodes it, without encoding it.
+     *
+     * @param text the text.
+     * @return the encoded length in bytes.
+     */
+    public static long encodedLength(CharSequence text) {
+        int length = text.length();
+        long bytes = length;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                continue;
+            }
+            if (c < 0x800) {
+                bytes += 1;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                // Two chars, four bytes.
+                bytes += 2;
+                i++;
+            } else if (!Character.isSurrogate(c)) {
+                bytes += 2;
+            }
+        }
+        return bytes;
+    }
+
+    private void encode(char c) {
+        if (pendingHighSurrogate != 0) {
+            char high = pendingHighSurrogate;
+            pendingHighSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                int codePoint = Character.toCodePoint(high, c);
+                bytes[size++] = (byte) (0xF0 | (codePoint >> 18));
+                bytes[size++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                bytes[size++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                bytes[size++] = (byte) (0x80 | (codePoint & 0x3F));
+                return;
+            }
+            bytes[size++] = REPLACEMENT;
+            ensureCapacity(size + 3);
+        }
+        if (c < 0x80) {
+            bytes[size++] = (byte) c;
+        } else if (c < 0x800) {
+            bytes[size++] = (byte) (0xC0 | (c >> 6));
+            bytes[size++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c)) {
+            pendingHighSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            bytes[size++] = REPLACEMENT;
+        } else {
+            bytes[size++] = (byte) (0xE0 | (c >> 12));
+            bytes[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            bytes[size++] = (byte) (0x80 | (c & 0x3F));
+        }
+    }
+
+    private void finishPending() {
+        if (pendingHighSurrogate != 0) {
+            pendingHighSurrogate = 0;
+            ensureCapacity(size + 1);
+            bytes[size++] = REPLACEMENT;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.gautam.jsontransformation.transformer.mapping;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.gautam.jsontransformation.transformer.template.InputProjection;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * A mapping spec compiled into its tree of operations, together with the version of the source it
+ * was compiled from and the input fields it reads. Instances are immutable and shared by all requests.
+ */
+public final class CompiledMapping {
+    private final String name;
+    private final long version;
+    private final MappingNode root;
+    private final int slotCount;
+    private final InputProjection inputProjection;
+
+    CompiledMapping(String name, long version, MappingNode root, int slotCount, InputProjection inputProjection) {
+        this.name = name;
+        this.version = version;
+        this.root = root;
+        this.slotCount = slotCount;
+        this.inputProjection = inputProjection;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the last-modified time of the spec source, in milliseconds.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the input fields the mapping reads.
+     */
+    public InputProjection getInputProjection() {
+        return inputProjection;
+    }
+
+    /**
+     * Writes the output document for the given data model. The generator is neither flushed nor closed.
+     *
+     * @param dataModel the data model to read from.
+     * @param generator the generator receiving the output.
+     * @throws IOException if the generator fails.
+     */
+    public void write(Map<String, Object> dataModel, JsonGenerator generator) throws IOException {
+        root.write(new MappingNode.Scope(dataModel, slotCount), generator);
+    }
+
+    CompiledMapping withVersion(long version) {
+        return new CompiledMapping(name, version, root, slotCount, inputProjection);
+    }
+}
@@ -0,0 +1,248 @@
+package com.gautam.jsontransformation.transformer.mapping;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.gautam.jsontransformation.transformer.template.InputProjection;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles a mapping spec into a tree of {@link MappingNode}s. The spec is the output document
+ * itself; values that are not literals are written as:
+ * <ul>
+ *     <li>{@code "$order.orderNumber"}: the value at a dotted path ({@code "$$..."} is a literal
+ *     string starting with {@code $});</li>
+ *     <li>{@code {"$path": "order.release", "$default": false}}: a path with a default for
+ *     missing or null values;</li>
+ *     <li>{@code {"$each": "order.lines", "$as": "line", "$map": {...}}}: one element per element of
+ *     an array, with the loop variable usable as the first segment of paths;</li>
+ *     <li>{@code {"$concat": [...]}} and {@code {"$string": ...}}: the text of values;</li>
+ *     <li>{@code {"$literal": ...}}: any JSON, copied without interpreting {@code $}.</li>
+ * </ul>
+ * Operator objects cannot carry other fields, and the operands of {@code $concat} and {@code $string}
+ * must be values, not objects, arrays or loops. Missing values without a default are written as
+ * null. Every path the spec reads is recorded, so inputs can be parsed through an
+ * {@link InputProjection}.
+ */
+final class MappingCompiler {
+    private static final String PATH = "$path";
+    private static final String DEFAULT = "$default";
+    private static final String EACH = "$each";
+    private static final String AS = "$as";
+    private static final String MAP = "$map";
+    private static final String CONCAT = "$concat";
+    private static final String STRING = "$string";
+    private static final String LITERAL = "$literal";
+    private static final String DEFAULT_LOOP_VARIABLE = "item";
+
+    private final String name;
+    // Input paths of the loop variables in scope, by name; the slot of a variable is its index.
+    private final List<String> loopVariables = new ArrayList<>();
+    private final Map<String, String> loopSources = new HashMap<>();
+    private final List<String> paths = new ArrayList<>();
+    private int slotCount;
+
+    private MappingCompiler(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @param name    the name of the mapping, for error messages.
+     * @param spec    the parsed mapping spec.
+     * @param version the version of the spec source.
+     * @return the compiled mapping.
+     * @throws IOException if the spec is not a valid mapping.
+     */
+    static CompiledMapping compile(String name, JsonNode spec, long version) throws IOException {
+        MappingCompiler compiler = new MappingCompiler(name);
+        MappingNode root = compiler.node(spec);
+        InputProjection projection = InputProjection.ofPaths(compiler.paths.toArray(new String[0]));
+        return new CompiledMapping(name, version, root, compiler.slotCount, projection);
+    }
+
+    private MappingNode node(JsonNode spec) throws IOException {
+        if (spec.isTextual()) {
+            String text = spec.textValue();
+            if (text.startsWith("$$")) {
+                return new MappingNode.Literal(TextNode.valueOf(text.substring(1)));
+            }
+            if (text.startsWith("$")) {
+                return path(text.substring(1), null);
+            }
+            return new MappingNode.Literal(spec);
+        }
+        if (spec.isArray()) {
+            MappingNode[] elements = new MappingNode[spec.size()];
+            for (int i = 0; i < elements.length; i++) {
+                elements[i] = node(spec.get(i));
+            }
+            return new MappingNode.ArrayOp(elements);
+        }
+        if (!spec.isObject()) {
+            return new MappingNode.Literal(spec);
+        }
+        if (spec.has(LITERAL)) {
+            checkFields(spec, LITERAL);
+            return new MappingNode.Literal(spec.get(LITERAL));
+        }
+        if (spec.has(PATH)) {
+            checkFields(spec, PATH, DEFAULT);
+            JsonNode defaultValue = spec.get(DEFAULT);
+            return path(text(spec, PATH), defaultValue == null ? null : defaultNode(defaultValue));
+        }
+        if (spec.has(EACH)) {
+            return each(spec);
+        }
+        if (spec.has(CONCAT)) {
+            checkFields(spec, CONCAT);
+            JsonNode parts = spec.get(CONCAT);
+            if (!parts.isArray()) {
+                throw invalid(CONCAT + " must be an array");
+            }
+            MappingNode[] nodes = new MappingNode[parts.size()];
+            for (int i = 0; i < nodes.length; i++) {
+                nodes[i] = textOperand(parts.get(i), CONCAT);
+            }
+            return new MappingNode.Concat(nodes);
+        }
+        if (spec.has(STRING)) {
+            checkFields(spec, STRING);
+            return new MappingNode.Text(textOperand(spec.get(STRING), STRING));
+        }
+        String[] names = new String[spec.size()];
+        MappingNode[] values = new MappingNode[spec.size()];
+        Iterator<Map.Entry<String, JsonNode>> fields = spec.fields();
+        for (int i = 0; fields.hasNext(); i++) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (field.getKey().startsWith("$")) {
+                throw invalid("unknown operator " + field.getKey());
+            }
+            names[i] = field.getKey();
+            values[i] = node(field.getValue());
+        }
+        return new MappingNode.ObjectOp(names, values);
+    }
+
+    private MappingNode each(JsonNode spec) throws IOException {
+        checkFields(spec, EACH, AS, MAP);
+        JsonNode body = spec.get(MAP);
+        if (body == null) {
+            throw invalid(EACH + " requires " + MAP);
+        }
+        String variable = spec.has(AS) ? text(spec, AS) : DEFAULT_LOOP_VARIABLE;
+        String sourcePath = text(spec, EACH);
+        MappingNode source = path(sourcePath, null);
+        // The source was recorded as read whole; the body narrows it down if it reads fields only.
+        String inputPath = paths.remove(paths.size() - 1);
+
+        int slot = loopVariables.size();
+        String shadowed = loopSources.put(variable, inputPath);
+        loopVariables.add(variable);
+        slotCount = Math.max(slotCount, loopVariables.size());
+        int pathCount = paths.size();
+        MappingNode node = node(body);
+        loopVariables.remove(slot);
+        if (shadowed != null) {
+            loopSources.put(variable, shadowed);
+        } else {
+            loopSources.remove(variable);
+        }
+
+        boolean bodyReadsElements = false;
+        for (String path : paths.subList(pathCount, paths.size())) {
+            bodyReadsElements |= path.equals(inputPath) || path.startsWith(inputPath + ".");
+        }
+        if (!bodyReadsElements) {
+            // The array itself is still needed to know how many elements there are.
+            paths.add(inputPath);
+        }
+        return new MappingNode.Each(source, slot, node);
+    }
+
+    /**
+     * An operand of {@code $concat} or {@code $string} is printed as text, so it must have a value:
+     * objects, arrays, loops and paths defaulting to one fail here rather than on every render.
+     */
+    private MappingNode textOperand(JsonNode spec, String operator) throws IOException {
+        MappingNode node = node(spec);
+        if (node.isStructural()) {
+            throw invalid(operator + " cannot print an object, an array or " + EACH);
+        }
+        return node;
+    }
+
+    /**
+     * Fails on fields of an operator object that the operator would otherwise silently ignore.
+     */
+    private void checkFields(JsonNode spec, String... allowed) throws IOException {
+        List<String> allowedFields = Arrays.asList(allowed);
+        Iterator<String> fields = spec.fieldNames();
+        while (fields.hasNext()) {
+            String field = fields.next();
+            if (!allowedFields.contains(field)) {
+                throw invalid("unexpected field " + field + " next to " + allowed[0]);
+            }
+        }
+    }
+
+    /**
+     * A default without any spec elements in it, like {@code []} or {@code {"status": "none"}}, is
+     * written as it is; only a default that reads the data model is compiled into operations.
+     */
+    private MappingNode defaultNode(JsonNode spec) throws IOException {
+        return isConstant(spec) ? new MappingNode.Literal(spec) : node(spec);
+    }
+
+    private static boolean isConstant(JsonNode spec) {
+        if (spec.isTextual()) {
+            return !spec.textValue().startsWith("$");
+        }
+        Iterator<Map.Entry<String, JsonNode>> fields = spec.fields();
+        while (fields.hasNext()) {
+            if (fields.next().getKey().startsWith("$")) {
+                return false;
+            }
+        }
+        for (JsonNode element : spec) {
+            if (!isConstant(element)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private MappingNode path(String path, MappingNode defaultValue) throws IOException {
+        if (path.isEmpty() || path.startsWith(".") || path.endsWith(".") || path.contains("..")) {
+            throw invalid("invalid path '" + path + "'");
+        }
+        String[] segments = path.split("\\.");
+        String root = segments[0];
+        String[] rest = Arrays.copyOfRange(segments, 1, segments.length);
+        int slot = loopVariables.lastIndexOf(root);
+        if (slot >= 0) {
+            String source = loopSources.get(root);
+            paths.add(rest.length == 0 ? source : source + "." + String.join(".", rest));
+            return new MappingNode.Path(null, slot, rest, defaultValue);
+        }
+        paths.add(path);
+        return new MappingNode.Path(root, -1, rest, defaultValue);
+    }
+
+    private String text(JsonNode spec, String field) throws IOException {
+        JsonNode value = spec.get(field);
+        if (value == null || !value.isTextual()) {
+            throw invalid(field + " must be a string");
+        }
+        return value.textValue();
+    }
+
+    private IOException invalid(String message) {
+        return new IOException("Invalid mapping " + name + ": " + message);
+    }
+}
@@ -0,0 +1,323 @@
+package com.gautam.jsontransformation.transformer.mapping;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * One operation of a compiled mapping. Every kind of spec element compiles to its own node class,
+ * so rendering is a walk over pre-resolved operations: field names are pre-encoded, loop variables
+ * are array slots and paths are split into segments once.
+ */
+abstract class MappingNode {
+    // Writing a value must not flush the caller's generator after every field.
+    static final ObjectMapper objectMapper = new ObjectMapper().disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+    /**
+     * @return the value of the node, or null if it is missing.
+     */
+    abstract Object evaluate(Scope scope);
+
+    /**
+     * @return whether the node can only write itself and has no value to {@link #evaluate}, like
+     * objects, arrays and loops.
+     */
+    boolean isStructural() {
+        return false;
+    }
+
+    /**
+     * Writes the value of the node as JSON.
+     */
+    void write(Scope scope, JsonGenerator generator) throws IOException {
+        writeValue(evaluate(scope), generator);
+    }
+
+    /**
+     * The data model of one render plus the values of the loop variables in scope.
+     */
+    static final class Scope {
+        final Map<String, Object> dataModel;
+        final Object[] slots;
+
+        Scope(Map<String, Object> dataModel, int slotCount) {
+            this.dataModel = dataModel;
+            this.slots = new Object[slotCount];
+        }
+    }
+
+    /**
+     * A constant value from the spec.
+     */
+    static final class Literal extends MappingNode {
+        private final JsonNode value;
+
+        Literal(JsonNode value) {
+            this.value = value;
+        }
+
+        @Override
+        Object evaluate(Scope scope) {
+            return value;
+        }
+    }
+
+    /**
+     * A path into the data model or a loop variable, with an optional default for missing values.
+     */
+    static final class Path extends MappingNode {
+        private final String rootName;
+        private final int rootSlot;
+        private final String[] segments;
+        private final MappingNode defaultValue;
+
+        /**
+         * @param rootName     the data model name the path starts at, if it does not start at a loop variable.
+         * @param rootSlot     the slot of the loop variable the path starts at, or -1.
+         * @param segments     the field names after the root.
+         * @param defaultValue used when the value is missing (can be null).
+         */
+        Path(String rootName, int rootSlot, String[] segments, MappingNode defaultValue) {
+            this.rootName = rootName;
+            this.rootSlot = rootSlot;
+            this.segments = segments;
+            this.defaultValue = defaultValue;
+        }
+
+        @Override
+        Object evaluate(Scope scope) {
+            Object value = lookup(scope);
+            if (isMissing(value)) {
+                return defaultValue == null ? null : defaultValue.evaluate(scope);
+            }
+            return value;
+        }
+
+        @Override
+        boolean isStructural() {
+            return defaultValue != null && defaultValue.isStructural();
+        }
+
+        private Object lookup(Scope scope) {
+            Object value = rootSlot >= 0 ? scope.slots[rootSlot] : scope.dataModel.get(rootName);
+            for (int i = 0; i < segments.length && value != null; i++) {
+                value = child(value, segments[i]);
+            }
+            return value;
+        }
+
+        @Override
+        void write(Scope scope, JsonGenerator generator) throws IOException {
+            Object value = lookup(scope);
+            if (isMissing(value) && defaultValue != null) {
+                // Array and object defaults only know how to write themselves.
+                defaultValue.write(scope, generator);
+            } else {
+                writeValue(value, generator);
+            }
+        }
+
+        private static Object child(Object value, String field) {
+            if (value instanceof JsonNode) {
+                return ((JsonNode) value).get(field);
+            }
+            if (value instanceof Map) {
+                return ((Map<?, ?>) value).get(field);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * The text form of a value, as a FreeMarker interpolation inside quotes would print it.
+     */
+    static final class Text extends MappingNode {
+        private final MappingNode value;
+
+        Text(MappingNode value) {
+            this.value = value;
+        }
+
+        @Override
+        Object evaluate(Scope scope) {
+            Object result = value.evaluate(scope);
+            return result == null ? null : text(result);
+        }
+    }
+
+    /**
+     * The concatenated text of several values; missing values contribute nothing.
+     */
+    static final class Concat extends MappingNode {
+        private final MappingNode[] parts;
+
+        Concat(MappingNode[] parts) {
+            this.parts = parts;
+        }
+
+        @Override
+        Object evaluate(Scope scope) {
+            StringBuilder text = new StringBuilder();
+            for (MappingNode part : parts) {
+                Object value = part.evaluate(scope);
+                if (value != null) {
+                    text.append(text(value));
+                }
+            }
+            return text.toString();
+        }
+    }
+
+    /**
+     * A JSON object with fixed field names.
+     */
+    static final class ObjectOp extends MappingNode {
+        private final SerializableString[] names;
+        private final MappingNode[] values;
+
+        ObjectOp(String[] names, MappingNode[] values) {
+            this.names = new SerializableString[names.length];
+            for (int i = 0; i < names.length; i++) {
+                this.names[i] = new SerializedString(names[i]);
+            }
+            this.values = values;
+        }
+
+        @Override
+        Object evaluate(Scope scope) {
+            throw new IllegalStateException("An object cannot be used as a text value");
+        }
+
+        @Override
+        boolean isStructural() {
+            return true;
+        }
+
+        @Override
+        void write(Scope scope, JsonGenerator generator) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < names.length; i++) {
+                generator.writeFieldName(names[i]);
+                values[i].write(scope, generator);
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * A JSON array with a fixed number of elements.
+     */
+    static final class ArrayOp extends MappingNode {
+        private final MappingNode[] elements;
+
+        ArrayOp(MappingNode[] elements) {
+            this.elements = elements;
+        }
+
+        @Override
+        Object evaluate(Scope scope) {
+            throw new IllegalStateException("An array cannot be used as a text value");
+        }
+
+        @Override
+        boolean isStructural() {
+            return true;
+        }
+
+        @Override
+        void write(Scope scope, JsonGenerator generator) throws IOException {
+            generator.writeStartArray();
+            for (MappingNode element : elements) {
+                element.write(scope, generator);
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    /**
+     * A JSON array with one element per element of a source array, each rendered with the loop
+     * variable bound to it. A missing source renders an empty array.
+     */
+    static final class Each extends MappingNode {
+        private final MappingNode source;
+        private final int slot;
+        private final MappingNode body;
+
+        Each(MappingNode source, int slot, MappingNode body) {
+            this.source = source;
+            this.slot = slot;
+            this.body = body;
+        }
+
+        @Override
+        Object evaluate(Scope scope) {
+            throw new IllegalStateException("A loop cannot be used as a text value");
+        }
+
+        @Override
+        boolean isStructural() {
+            return true;
+        }
+
+        @Override
+        void write(Scope scope, JsonGenerator generator) throws IOException {
+            generator.writeStartArray();
+            Iterator<?> elements = elements(source.evaluate(scope));
+            while (elements.hasNext()) {
+                scope.slots[slot] = elements.next();
+                body.write(scope, generator);
+            }
+            scope.slots[slot] = null;
+            generator.writeEndArray();
+        }
+
+        private static Iterator<?> elements(Object value) {
+            if (value instanceof JsonNode && ((JsonNode) value).isArray()) {
+                return ((JsonNode) value).elements();
+            }
+            if (value instanceof Iterable) {
+                return ((Iterable<?>) value).iterator();
+            }
+            return Collections.emptyIterator();
+        }
+    }
+
+    static boolean isMissing(Object value) {
+        return value == null || value instanceof JsonNode && (((JsonNode) value).isNull() || ((JsonNode) value).isMissingNode());
+    }
+
+    static String text(Object value) {
+        if (value instanceof JsonNode) {
+            JsonNode node = (JsonNode) value;
+            return node.isValueNode() ? node.asText() : node.toString();
+        }
+        return String.valueOf(value);
+    }
+
+    static void writeValue(Object value, JsonGenerator generator) throws IOException {
+        if (isMissing(value)) {
+            generator.writeNull();
+        } else if (value instanceof JsonNode) {
+            JsonNode node = (JsonNode) value;
+            if (node.isTextual()) {
+                generator.writeString(node.textValue());
+            } else if (node.isBoolean()) {
+                generator.writeBoolean(node.booleanValue());
+            } else {
+                objectMapper.writeTree(generator, node);
+            }
+        } else if (value instanceof String) {
+            generator.writeString((String) value);
+        } else {
+            objectMapper.writeValue(generator, value);
+        }
+    }
+}
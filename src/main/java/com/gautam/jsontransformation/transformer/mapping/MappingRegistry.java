@@ -0,0 +1,170 @@
+package com.gautam.jsontransformation.transformer.mapping;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gautam.jsontransformation.transformer.template.TemplateRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * In-memory registry of compiled mapping specs. Every {@code .mapping.json} file below the template
+ * directory is compiled once at startup; the mapping is addressed by its file name, like a template,
+ * so template routing selects mappings too.
+ * <p>
+ * Edits are picked up through the {@link TemplateRegistry}'s watcher; a spec that fails to compile
+ * keeps its previous version.
+ */
+@Component
+public class MappingRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(MappingRegistry.class);
+
+    public static final String MAPPING_SUFFIX = ".mapping.json";
+
+    private final TemplateRegistry templateRegistry;
+    private final Path templateDir;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ConcurrentMap<String, CompiledMapping> mappings = new ConcurrentHashMap<>();
+    private final List<Consumer<String>> reloadListeners = new CopyOnWriteArrayList<>();
+
+    public MappingRegistry(TemplateRegistry templateRegistry,
+                           @Value("${freemarker.template.dir.path}") String templateDir) {
+        this.templateRegistry = templateRegistry;
+        this.templateDir = Paths.get(templateDir).toAbsolutePath().normalize();
+    }
+
+    /**
+     * @param name a template name.
+     * @return whether the name refers to a mapping spec rather than a Freemarker template.
+     */
+    public static boolean isMapping(String name) {
+        return name != null && name.endsWith(MAPPING_SUFFIX);
+    }
+
+    /**
+     * Compiles every mapping spec found in the template directory.
+     *
+     * @throws IOException if the template directory cannot be read or a spec is invalid.
+     */
+    @PostConstruct
+    public void preload() throws IOException {
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(templateDir)) {
+            files = paths.filter(path -> isMapping(path.toString()) && Files.isRegularFile(path))
+                    .collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            CompiledMapping mapping = compile(file);
+            mappings.put(mapping.getName(), mapping);
+        }
+        templateRegistry.addFileChangeListener(this::reload);
+        logger.info("Compiled {} mappings from {}.", mappings.size(), templateDir);
+    }
+
+    /**
+     * Returns the compiled mapping with the given name. Specs that were not present at startup are
+     * compiled on first use and kept from then on.
+     *
+     * @param name the spec path relative to the template directory.
+     * @return the compiled mapping.
+     * @throws IOException if the spec does not exist or is invalid.
+     */
+    public CompiledMapping getMapping(String name) throws IOException {
+        CompiledMapping mapping = mappings.get(name);
+        if (mapping != null) {
+            return mapping;
+        }
+        Path file = templateDir.resolve(name).normalize();
+        if (!isMapping(name) || !file.startsWith(templateDir) || !Files.isRegularFile(file)) {
+            throw new FileNotFoundException("Mapping not found: " + name);
+        }
+        mapping = compile(file);
+        CompiledMapping existing = mappings.putIfAbsent(mapping.getName(), mapping);
+        return existing != null ? existing : mapping;
+    }
+
+    /**
+     * @return the names of all compiled mappings.
+     */
+    public Set<String> getMappingNames() {
+        return Collections.unmodifiableSet(mappings.keySet());
+    }
+
+    /**
+     * Registers a callback that receives the name of every mapping that is reloaded or removed.
+     *
+     * @param listener the callback; invoked on the watcher thread.
+     */
+    public void addReloadListener(Consumer<String> listener) {
+        reloadListeners.add(listener);
+    }
+
+    /**
+     * Recompiles the spec at the given path and swaps it in, or drops it if the file is gone.
+     *
+     * @param file a changed file below the template directory.
+     */
+    void reload(Path file) {
+        if (!isMapping(file.toString())) {
+            return;
+        }
+        String name = nameOf(file);
+        if (!Files.isRegularFile(file)) {
+            if (mappings.remove(name) != null) {
+                logger.info("Mapping {} was removed.", name);
+                notifyReloaded(name);
+            }
+            return;
+        }
+        try {
+            CompiledMapping compiled = compile(file);
+            CompiledMapping previous = mappings.get(name);
+            if (previous != null && compiled.getVersion() <= previous.getVersion()) {
+                // Keep versions strictly increasing even when the file time did not move.
+                compiled = compiled.withVersion(previous.getVersion() + 1);
+            }
+            mappings.put(name, compiled);
+            logger.info("Reloaded mapping {}.", name);
+            notifyReloaded(name);
+        } catch (Exception e) {
+            logger.warn("Mapping {} failed to compile; keeping the previous version.", name, e);
+        }
+    }
+
+    private void notifyReloaded(String name) {
+        for (Consumer<String> listener : reloadListeners) {
+            try {
+                listener.accept(name);
+            } catch (RuntimeException e) {
+                logger.warn("Mapping reload listener failed for {}.", name, e);
+            }
+        }
+    }
+
+    private CompiledMapping compile(Path file) throws IOException {
+        long version = Files.getLastModifiedTime(file).toMillis();
+        JsonNode spec = objectMapper.readTree(file.toFile());
+        return MappingCompiler.compile(nameOf(file), spec, version);
+    }
+
+    private String nameOf(Path file) {
+        return templateDir.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+    }
+}
@@ -0,0 +1,77 @@
+package com.gautam.jsontransformation.transformer.mapping;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.gautam.jsontransformation.transformer.template.InputProjection;
+import com.gautam.jsontransformation.transformer.template.TemplateEngine;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Map;
+
+/**
+ * Renders declarative JSON-to-JSON mappings ({@code *.mapping.json}). A mapping is compiled once into
+ * a tree of operations that write straight to a {@link JsonGenerator}, so there is no template text
+ * to interpret and no rendered text to parse again: the output is valid JSON by construction and
+ * values are always escaped.
+ */
+@Component
+public class MappingTemplateEngine implements TemplateEngine {
+    private static final JsonFactory jsonFactory = new JsonFactory()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    private final MappingRegistry mappingRegistry;
+
+    public MappingTemplateEngine(MappingRegistry mappingRegistry) {
+        this.mappingRegistry = mappingRegistry;
+    }
+
+    @Override
+    public String process(String templateName, Map<String, Object> dataModel) throws IOException {
+        StringWriter writer = new StringWriter();
+        process(templateName, dataModel, writer);
+        return writer.toString();
+    }
+
+    @Override
+    public void process(String templateName, Map<String, Object> dataModel, Writer out) throws IOException {
+        CompiledMapping mapping = mappingRegistry.getMapping(templateName);
+        try (JsonGenerator generator = jsonFactory.createGenerator(out)) {
+            mapping.write(dataModel, generator);
+        }
+        out.flush();
+    }
+
+    /**
+     * Encodes UTF-8 in the generator itself instead of going through a writer.
+     */
+    @Override
+    public void process(String templateName, Map<String, Object> dataModel, OutputStream out) throws IOException {
+        CompiledMapping mapping = mappingRegistry.getMapping(templateName);
+        try (JsonGenerator generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            mapping.write(dataModel, generator);
+        }
+        out.flush();
+    }
+
+    @Override
+    public void process(String templateName, Map<String, Object> dataModel, JsonGenerator generator)
+            throws IOException {
+        mappingRegistry.getMapping(templateName).write(dataModel, generator);
+        generator.flush();
+    }
+
+    @Override
+    public long getTemplateVersion(String templateName) throws IOException {
+        return mappingRegistry.getMapping(templateName).getVersion();
+    }
+
+    @Override
+    public InputProjection getInputProjection(String templateName) throws IOException {
+        return mappingRegistry.getMapping(templateName).getInputProjection();
+    }
+}
@@ -0,0 +1,60 @@
+package com.gautam.jsontransformation.transformer.schema;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gautam.jsontransformation.transformer.JsonSchemaValidator;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.ValidationMessage;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * A JSON schema compiled once into an immutable validator. Instances are thread-safe and validate
+ * parsed {@link JsonNode} trees directly; strings are only parsed when no tree is available.
+ */
+public final class CompiledJsonSchema implements JsonSchemaValidator {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final String name;
+    private final JsonSchema schema;
+
+    CompiledJsonSchema(String name, JsonSchema schema) {
+        // Build all keyword validators up front so requests never trigger lazy initialization.
+        schema.initializeValidators();
+        this.name = name;
+        this.schema = schema;
+    }
+
+    /**
+     * @return the schema file name relative to the template directory.
+     */
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void validate(String jsonString) throws Exception {
+        validate(objectMapper.readTree(jsonString));
+    }
+
+    @Override
+    public void validate(String templateName, JsonNode json) throws Exception {
+        validate(json);
+    }
+
+    /**
+     * Validates a parsed document against this schema.
+     *
+     * @param json the document to validate.
+     * @throws Exception listing every violation if the document does not match the schema.
+     */
+    public void validate(JsonNode json) throws Exception {
+        Set<ValidationMessage> messages = schema.validate(json);
+        if (!messages.isEmpty()) {
+            throw new Exception("JSON does not match schema " + name + ": " + messages.stream()
+                    .map(ValidationMessage::getMessage)
+                    .collect(Collectors.joining("; ")));
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.gautam.jsontransformation.transformer.schema;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gautam.jsontransformation.transformer.mapping.MappingRegistry;
+import com.gautam.jsontransformation.transformer.template.TemplateRegistry;
+import com.networknt.schema.JsonSchemaFactory;
+import com.networknt.schema.SpecVersion;
+import com.networknt.schema.SpecVersionDetector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Compiled JSON schemas per template. A template {@code orders/invoice.ftl} may come with
+ * {@code orders/invoice.input.schema.json} and {@code orders/invoice.output.schema.json} next to it;
+ * each schema is compiled once and shared by all requests until its template or the schema file
+ * changes. Mapping specs such as {@code orders/invoice.mapping.json} use the same schema names.
+ * <p>
+ * Schemas without a {@code $schema} keyword are read as draft 7.
+ */
+@Component
+public class JsonSchemaRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(JsonSchemaRegistry.class);
+
+    static final String TEMPLATE_SUFFIX = ".ftl";
+
+    /**
+     * Which side of a transformation a schema describes.
+     */
+    public enum Kind {
+        INPUT(".input.schema.json"),
+        OUTPUT(".output.schema.json");
+
+        private final String suffix;
+
+        Kind(String suffix) {
+            this.suffix = suffix;
+        }
+    }
+
+    private final TemplateRegistry templateRegistry;
+    private final MappingRegistry mappingRegistry;
+    private final Path templateDir;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // Absent schemas are cached as empty, so templates without one cost a single map lookup.
+    private final ConcurrentMap<String, Optional<CompiledJsonSchema>> schemas = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a registry for Freemarker templates only.
+     */
+    public JsonSchemaRegistry(TemplateRegistry templateRegistry, String templateDir) {
+        this(templateRegistry, null, templateDir);
+    }
+
+    /**
+     * @param templateRegistry the Freemarker templates.
+     * @param mappingRegistry  the mapping specs (can be null).
+     * @param templateDir      the directory holding templates and their schemas.
+     */
+    @Autowired
+    public JsonSchemaRegistry(TemplateRegistry templateRegistry, MappingRegistry mappingRegistry,
+                              @Value("${freemarker.template.dir.path}") String templateDir) {
+        this.templateRegistry = templateRegistry;
+        this.mappingRegistry = mappingRegistry;
+        this.templateDir = Paths.get(templateDir).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Compiles the schemas of every preloaded template and drops them whenever their template is
+     * reloaded or the schema file changes.
+     *
+     * @throws IOException if a schema cannot be read or is not a valid schema.
+     */
+    @PostConstruct
+    public void preload() throws IOException {
+        templateRegistry.addReloadListener(this::invalidate);
+        templateRegistry.addFileChangeListener(this::fileChanged);
+        for (String templateName : templateRegistry.getTemplates().keySet()) {
+            for (Kind kind : Kind.values()) {
+                getSchema(templateName, kind);
+            }
+        }
+        if (mappingRegistry != null) {
+            mappingRegistry.addReloadListener(this::invalidate);
+            for (String mappingName : mappingRegistry.getMappingNames()) {
+                for (Kind kind : Kind.values()) {
+                    getSchema(mappingName, kind);
+                }
+            }
+        }
+        logger.info("Compiled {} JSON schemas.", schemas.values().stream().filter(Optional::isPresent).count());
+    }
+
+    /**
+     * Returns the compiled schema of the given kind for a template.
+     *
+     * @param templateName the template path relative to the template directory.
+     * @param kind         the input or output schema.
+     * @return the compiled schema, or null if the template has none.
+     * @throws IOException if the template does not exist or its schema cannot be compiled.
+     */
+    public CompiledJsonSchema getSchema(String templateName, Kind kind) throws IOException {
+        String schemaName = schemaName(templateName, kind);
+        Optional<CompiledJsonSchema> schema = schemas.get(schemaName);
+        if (schema == null) {
+            // Unknown templates fail here as they would when rendering, so arbitrary names are never cached.
+            if (mappingRegistry != null && MappingRegistry.isMapping(templateName)) {
+                mappingRegistry.getMapping(templateName);
+            } else {
+                templateRegistry.getTemplate(templateName);
+            }
+            try {
+                schema = schemas.computeIfAbsent(schemaName, this::compile);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+        return schema.orElse(null);
+    }
+
+    /**
+     * Drops the compiled schemas of a template; they are compiled again on next use.
+     *
+     * @param templateName the template path relative to the template directory.
+     */
+    public void invalidate(String templateName) {
+        for (Kind kind : Kind.values()) {
+            schemas.remove(schemaName(templateName, kind));
+        }
+    }
+
+    /**
+     * Drops the compiled schema stored in a changed file. Other JSON files may be shared definitions
+     * that schemas {@code $ref}, so a change to one of them drops every compiled schema.
+     *
+     * @param file a changed file below the template directory.
+     */
+    void fileChanged(Path file) {
+        String name = file.toString();
+        if (!name.endsWith(".json") || MappingRegistry.isMapping(name)) {
+            return;
+        }
+        for (Kind kind : Kind.values()) {
+            if (name.endsWith(kind.suffix)) {
+                String schemaName = templateDir.relativize(file.toAbsolutePath().normalize()).toString()
+                        .replace(file.getFileSystem().getSeparator(), "/");
+                if (schemas.remove(schemaName) != null) {
+                    logger.info("JSON schema {} changed.", schemaName);
+                }
+                return;
+            }
+        }
+        schemas.clear();
+        logger.info("JSON file {} changed; dropped all compiled schemas.", name);
+    }
+
+    private Optional<CompiledJsonSchema> compile(String schemaName) {
+        Path file = templateDir.resolve(schemaName).normalize();
+        if (!file.startsWith(templateDir) || !Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        try {
+            JsonNode schemaNode = objectMapper.readTree(file.toFile());
+            SpecVersion.VersionFlag version = schemaNode.has("$schema")
+                    ? SpecVersionDetector.detect(schemaNode) : SpecVersion.VersionFlag.V7;
+            // The file URI lets relative $refs resolve against the schema's own directory.
+            CompiledJsonSchema schema = new CompiledJsonSchema(schemaName,
+                    JsonSchemaFactory.getInstance(version).getSchema(file.toUri(), schemaNode));
+            logger.debug("Compiled JSON schema {}.", schemaName);
+            return Optional.of(schema);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            throw new UncheckedIOException(new IOException("Invalid JSON schema " + schemaName, e));
+        }
+    }
+
+    private static String schemaName(String templateName, Kind kind) {
+        String baseName = templateName;
+        if (templateName.endsWith(TEMPLATE_SUFFIX)) {
+            baseName = templateName.substring(0, templateName.length() - TEMPLATE_SUFFIX.length());
+        } else if (MappingRegistry.isMapping(templateName)) {
+            baseName = templateName.substring(0, templateName.length() - MappingRegistry.MAPPING_SUFFIX.length());
+        }
+        return baseName + kind.suffix;
+    }
+}
@@ -0,0 +1,54 @@
+package com.gautam.jsontransformation.transformer.schema;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.gautam.jsontransformation.transformer.JsonSchemaValidator;
+
+/**
+ * Validates documents against the schema that belongs to their template. Templates without a
+ * schema of the given kind are not validated. Documents validated without a template name are
+ * checked against the schema of the default template.
+ */
+public class TemplateSchemaValidator implements JsonSchemaValidator {
+    private final JsonSchemaRegistry schemaRegistry;
+    private final JsonSchemaRegistry.Kind kind;
+    private final String defaultTemplate;
+
+    /**
+     * @param schemaRegistry  the compiled schemas per template.
+     * @param kind            whether input or output documents are validated.
+     * @param defaultTemplate the template whose schema applies to documents validated without a template name.
+     */
+    public TemplateSchemaValidator(JsonSchemaRegistry schemaRegistry, JsonSchemaRegistry.Kind kind,
+                                   String defaultTemplate) {
+        this.schemaRegistry = schemaRegistry;
+        this.kind = kind;
+        this.defaultTemplate = defaultTemplate;
+    }
+
+    @Override
+    public void validate(String jsonString) throws Exception {
+        validate(defaultTemplate, jsonString);
+    }
+
+    @Override
+    public boolean validates(String templateName) throws Exception {
+        return schemaRegistry.getSchema(templateName, kind) != null;
+    }
+
+    @Override
+    public void validate(String templateName, JsonNode json) throws Exception {
+        CompiledJsonSchema schema = schemaRegistry.getSchema(templateName, kind);
+        if (schema != null) {
+            schema.validate(json);
+        }
+    }
+
+    @Override
+    public void validate(String templateName, String jsonString) throws Exception {
+        // Only parse the document if there is a schema to check it against.
+        CompiledJsonSchema schema = schemaRegistry.getSchema(templateName, kind);
+        if (schema != null) {
+            schema.validate(jsonString);
+        }
+    }
+}
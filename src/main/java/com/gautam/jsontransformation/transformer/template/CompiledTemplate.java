@@ -0,0 +1,393 @@
+package com.gautam.jsontransformation.transformer.template;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+import java.text.NumberFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A template translated by {@link TemplateCompiler} into a tree of operations that append to a
+ * {@link StringBuilder} or straight to the caller's writer. Names are resolved once: loop variables
+ * are slots of a frame, data model names and field names are constants, so a render is a walk over
+ * pre-resolved lookups instead of an interpretation of the Freemarker AST.
+ * <p>
+ * A render only covers the values the interpreter would print the same way: strings, integral
+ * numbers, booleans through {@code ?c}. Anything else (missing values, other types) abandons the
+ * render, and the caller renders the template with Freemarker instead, which also reports errors
+ * exactly as before. A template whose data keeps needing the interpreter is demoted after
+ * {@link #MAX_DEOPTIMIZATIONS} abandoned renders, so it stops paying for a partial render every time.
+ */
+final class CompiledTemplate {
+    static final int MAX_DEOPTIMIZATIONS = 16;
+
+    private final String name;
+    private final Op root;
+    private final int slotCount;
+    private final ThreadLocal<NumberFormat> numberFormat;
+    private final AtomicInteger deoptimizations = new AtomicInteger();
+
+    CompiledTemplate(String name, Op root, int slotCount, Locale locale) {
+        this.name = name;
+        this.root = root;
+        this.slotCount = slotCount;
+        // NumberFormat is not thread-safe; Freemarker's "number" format is the locale's number instance.
+        this.numberFormat = ThreadLocal.withInitial(() -> NumberFormat.getNumberInstance(locale));
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * @return whether so many renders were abandoned that the template should be interpreted from now on.
+     */
+    boolean isDemoted() {
+        return deoptimizations.get() >= MAX_DEOPTIMIZATIONS;
+    }
+
+    /**
+     * @param dataModel the data model to apply.
+     * @return the rendered output, or null if the data model needs the interpreter.
+     * @throws IOException never, the output is collected in memory.
+     */
+    String render(Map<String, Object> dataModel) throws IOException {
+        StringBuilder out = new StringBuilder(256);
+        return render(dataModel, out) ? out.toString() : null;
+    }
+
+    /**
+     * Renders into the given output as it goes. If the render is abandoned, part of the output has
+     * already been written; the caller has to discard it before falling back to the interpreter.
+     *
+     * @param dataModel the data model to apply.
+     * @param out       the output to append to.
+     * @return false if the data model needs the interpreter.
+     * @throws IOException if the output fails.
+     */
+    boolean render(Map<String, Object> dataModel, Appendable out) throws IOException {
+        Frame frame = new Frame(dataModel, slotCount, numberFormat.get());
+        try {
+            root.render(frame, out);
+            return true;
+        } catch (Deoptimization e) {
+            deoptimizations.incrementAndGet();
+            return false;
+        }
+    }
+
+    /**
+     * State of one render: the data model and the current element of every enclosing list.
+     */
+    static final class Frame {
+        final Map<String, Object> dataModel;
+        final Object[] items;
+        final boolean[] hasNext;
+        final NumberFormat numberFormat;
+
+        Frame(Map<String, Object> dataModel, int slotCount, NumberFormat numberFormat) {
+            this.dataModel = dataModel;
+            this.items = new Object[slotCount];
+            this.hasNext = new boolean[slotCount];
+            this.numberFormat = numberFormat;
+        }
+    }
+
+    /**
+     * Thrown when a value cannot be rendered here; it carries no stack trace, so giving up is cheap.
+     */
+    static final class Deoptimization extends RuntimeException {
+        static final Deoptimization INSTANCE = new Deoptimization();
+
+        private Deoptimization() {
+            super(null, null, false, false);
+        }
+    }
+
+    abstract static class Op {
+        abstract void render(Frame frame, Appendable out) throws IOException;
+    }
+
+    abstract static class Expr {
+        abstract Object value(Frame frame);
+
+        boolean test(Frame frame) {
+            Object value = value(frame);
+            if (value instanceof Boolean) {
+                return (Boolean) value;
+            }
+            if (value instanceof JsonNode && ((JsonNode) value).isBoolean()) {
+                return ((JsonNode) value).booleanValue();
+            }
+            throw Deoptimization.INSTANCE;
+        }
+    }
+
+    static final class Text extends Op {
+        private final String text;
+
+        Text(String text) {
+            this.text = text;
+        }
+
+        @Override
+        void render(Frame frame, Appendable out) throws IOException {
+            out.append(text);
+        }
+    }
+
+    static final class Sequence extends Op {
+        private final Op[] ops;
+
+        Sequence(Op[] ops) {
+            this.ops = ops;
+        }
+
+        @Override
+        void render(Frame frame, Appendable out) throws IOException {
+            for (Op op : ops) {
+                op.render(frame, out);
+            }
+        }
+    }
+
+    /**
+     * {@code ${expression}}, or {@code ${expression?c}} when {@code computer} is set.
+     */
+    static final class Interpolation extends Op {
+        private final Expr expression;
+        private final boolean computer;
+
+        Interpolation(Expr expression, boolean computer) {
+            this.expression = expression;
+            this.computer = computer;
+        }
+
+        @Override
+        void render(Frame frame, Appendable out) throws IOException {
+            Object value = expression.value(frame);
+            if (value instanceof JsonNode) {
+                JsonNode node = (JsonNode) value;
+                if (node.isTextual() && !computer) {
+                    out.append(node.textValue());
+                } else if (node.isInt() || node.isLong()) {
+                    appendIntegral(node.longValue(), frame, out);
+                } else if (node.isBoolean() && computer) {
+                    out.append(node.booleanValue() ? "true" : "false");
+                } else {
+                    throw Deoptimization.INSTANCE;
+                }
+            } else if (value instanceof String && !computer) {
+                out.append((String) value);
+            } else if (value instanceof Integer || value instanceof Long
+                    || value instanceof Short || value instanceof Byte) {
+                appendIntegral(((Number) value).longValue(), frame, out);
+            } else if (value instanceof Boolean && computer) {
+                out.append((Boolean) value ? "true" : "false");
+            } else {
+                throw Deoptimization.INSTANCE;
+            }
+        }
+
+        private void appendIntegral(long value, Frame frame, Appendable out) throws IOException {
+            if (computer) {
+                out.append(Long.toString(value));
+            } else {
+                out.append(frame.numberFormat.format(value));
+            }
+        }
+    }
+
+    /**
+     * {@code <#list source as item>}; the element and whether another one follows go to a slot.
+     */
+    static final class ListOp extends Op {
+        private final Expr source;
+        private final int slot;
+        private final Op body;
+
+        ListOp(Expr source, int slot, Op body) {
+            this.source = source;
+            this.slot = slot;
+            this.body = body;
+        }
+
+        @Override
+        void render(Frame frame, Appendable out) throws IOException {
+            Object value = source.value(frame);
+            Iterator<?> elements;
+            if (value instanceof JsonNode && ((JsonNode) value).isArray()) {
+                elements = ((JsonNode) value).elements();
+            } else if (value instanceof List) {
+                elements = ((List<?>) value).iterator();
+            } else {
+                throw Deoptimization.INSTANCE;
+            }
+            while (elements.hasNext()) {
+                frame.items[slot] = elements.next();
+                frame.hasNext[slot] = elements.hasNext();
+                body.render(frame, out);
+            }
+            frame.items[slot] = null;
+        }
+    }
+
+    /**
+     * {@code <#if>} with its {@code <#elseif>} and {@code <#else>} branches; a null condition is the else branch.
+     */
+    static final class IfOp extends Op {
+        private final Expr[] conditions;
+        private final Op[] branches;
+
+        IfOp(Expr[] conditions, Op[] branches) {
+            this.conditions = conditions;
+            this.branches = branches;
+        }
+
+        @Override
+        void render(Frame frame, Appendable out) throws IOException {
+            for (int i = 0; i < conditions.length; i++) {
+                if (conditions[i] == null || conditions[i].test(frame)) {
+                    branches[i].render(frame, out);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * A top-level name, looked up in the data model.
+     */
+    static final class Root extends Expr {
+        private final String name;
+
+        Root(String name) {
+            this.name = name;
+        }
+
+        @Override
+        Object value(Frame frame) {
+            return present(frame.dataModel.get(name));
+        }
+    }
+
+    /**
+     * A loop variable.
+     */
+    static final class LoopVariable extends Expr {
+        private final int slot;
+
+        LoopVariable(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        Object value(Frame frame) {
+            return present(frame.items[slot]);
+        }
+    }
+
+    /**
+     * {@code target.key}, on a JSON object or a map.
+     */
+    static final class Dot extends Expr {
+        private final Expr target;
+        private final String key;
+
+        Dot(Expr target, String key) {
+            this.target = target;
+            this.key = key;
+        }
+
+        @Override
+        Object value(Frame frame) {
+            Object value = target.value(frame);
+            if (value instanceof JsonNode && ((JsonNode) value).isObject()) {
+                return present(((JsonNode) value).get(key));
+            }
+            if (value instanceof Map) {
+                return present(((Map<?, ?>) value).get(key));
+            }
+            throw Deoptimization.INSTANCE;
+        }
+    }
+
+    /**
+     * {@code item?has_next}.
+     */
+    static final class HasNext extends Expr {
+        private final int slot;
+
+        HasNext(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        Object value(Frame frame) {
+            return frame.hasNext[slot];
+        }
+
+        @Override
+        boolean test(Frame frame) {
+            return frame.hasNext[slot];
+        }
+    }
+
+    static final class Not extends Expr {
+        private final Expr operand;
+
+        Not(Expr operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        Object value(Frame frame) {
+            return !operand.test(frame);
+        }
+    }
+
+    static final class And extends Expr {
+        private final Expr left;
+        private final Expr right;
+
+        And(Expr left, Expr right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        Object value(Frame frame) {
+            return left.test(frame) && right.test(frame);
+        }
+    }
+
+    static final class Or extends Expr {
+        private final Expr left;
+        private final Expr right;
+
+        Or(Expr left, Expr right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        Object value(Frame frame) {
+            return left.test(frame) || right.test(frame);
+        }
+    }
+
+    /**
+     * Missing values are errors or defaults in Freemarker; both are left to the interpreter.
+     */
+    private static Object present(Object value) {
+        if (value == null || value instanceof JsonNode
+                && (((JsonNode) value).isNull() || ((JsonNode) value).isMissingNode())) {
+            throw Deoptimization.INSTANCE;
+        }
+        return value;
+    }
+}
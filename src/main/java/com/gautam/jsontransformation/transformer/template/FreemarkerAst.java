@@ -0,0 +1,63 @@
+package com.gautam.jsontransformation.transformer.template;
+
+import freemarker.core.TemplateObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+
+/**
+ * Reflective access to the parameters of Freemarker AST nodes, which Freemarker keeps
+ * package-private. Analyses built on it must treat {@link #isAvailable()} being false, or any
+ * reflective failure, as "cannot tell" and fall back to plain rendering.
+ * <p>
+ * Freemarker marks its AST classes as deprecated for public use; this class and the analyses built
+ * on it are the only code touching them, so a Freemarker upgrade only has to be checked here.
+ */
+@SuppressWarnings("deprecation")
+final class FreemarkerAst {
+    private static final Logger logger = LoggerFactory.getLogger(FreemarkerAst.class);
+
+    private static final Method PARAMETER_COUNT;
+    private static final Method PARAMETER_VALUE;
+    private static final Method PARAMETER_ROLE;
+
+    static {
+        Method count = null;
+        Method value = null;
+        Method role = null;
+        try {
+            count = TemplateObject.class.getDeclaredMethod("getParameterCount");
+            value = TemplateObject.class.getDeclaredMethod("getParameterValue", int.class);
+            role = TemplateObject.class.getDeclaredMethod("getParameterRole", int.class);
+            count.setAccessible(true);
+            value.setAccessible(true);
+            role.setAccessible(true);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.warn("Freemarker AST is not accessible; template analysis is disabled.", e);
+            count = null;
+        }
+        PARAMETER_COUNT = count;
+        PARAMETER_VALUE = value;
+        PARAMETER_ROLE = role;
+    }
+
+    private FreemarkerAst() {
+    }
+
+    static boolean isAvailable() {
+        return PARAMETER_COUNT != null;
+    }
+
+    static int parameterCount(TemplateObject node) throws ReflectiveOperationException {
+        return (Integer) PARAMETER_COUNT.invoke(node);
+    }
+
+    static Object parameterValue(TemplateObject node, int index) throws ReflectiveOperationException {
+        return PARAMETER_VALUE.invoke(node, index);
+    }
+
+    static String parameterRole(TemplateObject node, int index) throws ReflectiveOperationException {
+        return String.valueOf(PARAMETER_ROLE.invoke(node, index));
+    }
+}
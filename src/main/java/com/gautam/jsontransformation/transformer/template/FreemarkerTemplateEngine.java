@@ -1,20 +1,25 @@
 package com.gautam.jsontransformation.transformer.template;
 
-import freemarker.template.Configuration;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import freemarker.core.Environment;
 import freemarker.template.Template;
 import freemarker.template.TemplateException;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.util.Map;
 
 @Component
 public class FreemarkerTemplateEngine implements TemplateEngine {
-    private final Configuration configuration;
+    private static final JsonFactory jsonFactory = new JsonFactory();
 
-    public FreemarkerTemplateEngine(Configuration configuration) {
-        this.configuration = configuration;
+    private final TemplateRegistry templateRegistry;
+
+    public FreemarkerTemplateEngine(TemplateRegistry templateRegistry) {
+        this.templateRegistry = templateRegistry;
     }
 
 
@@ -35,9 +40,108 @@ public class FreemarkerTemplateEngine implements TemplateEngine {
     @Override
     public String process(String templateName, Map<String, Object> dataModel)
             throws IOException, TemplateException {
-        Template template = configuration.getTemplate(templateName);
+        String compiled = renderCompiled(templateName, dataModel);
+        if (compiled != null) {
+            return compiled;
+        }
         StringWriter writer = new StringWriter();
-        template.process(dataModel, writer);
+        interpret(templateName, dataModel, writer);
         return writer.toString();
     }
+
+    /**
+     * Hot templates render straight into a {@link RewindableWriter} through their compiled form; every
+     * other writer gets the interpreter's output as it is produced.
+     */
+    @Override
+    public void process(String templateName, Map<String, Object> dataModel, Writer out)
+            throws IOException, TemplateException {
+        if (out instanceof RewindableWriter && renderCompiled(templateName, dataModel, out)) {
+            out.flush();
+            return;
+        }
+        interpret(templateName, dataModel, out);
+    }
+
+    private void interpret(String templateName, Map<String, Object> dataModel, Writer out)
+            throws IOException, TemplateException {
+        Template template = templateRegistry.getTemplate(templateName);
+        Environment env = template.createProcessingEnvironment(dataModel, out);
+        // JSON directives write through a generator on the same writer, created on first use.
+        env.setCustomAttribute(JsonOutput.ATTRIBUTE, JsonOutput.forWriter(jsonFactory, out));
+        env.process();
+        out.flush();
+    }
+
+    /**
+     * Renders templates built from {@link JsonDirectives} straight into the generator. Templates that
+     * render JSON as text are parsed and copied into it instead. A template must not mix both:
+     * text outside the directives can only be rendered through the writer variants.
+     */
+    @Override
+    public void process(String templateName, Map<String, Object> dataModel, JsonGenerator generator)
+            throws IOException, TemplateException {
+        String compiled = renderCompiled(templateName, dataModel);
+        if (compiled != null) {
+            JsonOutput.copy(jsonFactory, compiled, generator);
+            generator.flush();
+            return;
+        }
+        Template template = templateRegistry.getTemplate(templateName);
+        StringWriter text = new StringWriter();
+        Environment env = template.createProcessingEnvironment(dataModel, text);
+        JsonOutput output = JsonOutput.forGenerator(generator);
+        env.setCustomAttribute(JsonOutput.ATTRIBUTE, output);
+        env.process();
+
+        String rendered = text.toString();
+        if (output.values() == 0) {
+            JsonOutput.copy(jsonFactory, rendered, generator);
+        } else if (!rendered.trim().isEmpty()) {
+            throw new TemplateException("Template " + templateName
+                    + " mixes JSON text with JSON directives and can only be rendered as text.", env);
+        }
+        generator.flush();
+    }
+
+    @Override
+    public long getTemplateVersion(String templateName) throws IOException {
+        return templateRegistry.getVersion(templateName);
+    }
+
+    @Override
+    public InputProjection getInputProjection(String templateName) throws IOException {
+        return templateRegistry.getInputProjection(templateName);
+    }
+
+    /**
+     * Renders hot templates through their compiled form.
+     *
+     * @return the output, or null if the template is interpreted or this data model needs the interpreter.
+     */
+    private String renderCompiled(String templateName, Map<String, Object> dataModel) throws IOException {
+        CompiledTemplate compiled = templateRegistry.getCompiledTemplate(templateName);
+        return compiled == null ? null : compiled.render(dataModel);
+    }
+
+    /**
+     * Renders hot templates through their compiled form into the writer, rewinding it if the render
+     * is abandoned.
+     *
+     * @return false if the template is interpreted or this data model needs the interpreter.
+     */
+    private boolean renderCompiled(String templateName, Map<String, Object> dataModel, Writer out)
+            throws IOException {
+        CompiledTemplate compiled = templateRegistry.getCompiledTemplate(templateName);
+        if (compiled == null) {
+            return false;
+        }
+        RewindableWriter rewindable = (RewindableWriter) out;
+        int position = rewindable.position();
+        if (compiled.render(dataModel, out)) {
+            return true;
+        }
+        rewindable.rewind(position);
+        return false;
+    }
 }
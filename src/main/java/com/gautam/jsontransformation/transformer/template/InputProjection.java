@@ -0,0 +1,132 @@
+package com.gautam.jsontransformation.transformer.template;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The input fields a template can read, as a tree of field names. Parsing through a projection
+ * builds only the selected fields and skips every other subtree with {@link JsonParser#skipChildren()},
+ * so wide documents are tokenized but not materialized.
+ * <p>
+ * Arrays are transparent: a field selected below an array is selected in each of its elements,
+ * matching the way templates reach elements through {@code #list} or an index.
+ */
+public final class InputProjection {
+    private final Map<String, InputProjection> fields = new LinkedHashMap<>();
+    private boolean whole;
+
+    InputProjection() {
+    }
+
+    /**
+     * Builds a projection from dotted field paths, e.g. {@code order.lines.sku}; each path is
+     * selected with everything below it.
+     *
+     * @param paths the paths the template reads.
+     * @return the projection.
+     */
+    public static InputProjection ofPaths(String... paths) {
+        InputProjection projection = new InputProjection();
+        for (String path : paths) {
+            projection.selectWhole(Arrays.asList(path.split("\\.")));
+        }
+        return projection;
+    }
+
+    /**
+     * Selects the whole value at the given field path, including everything below it.
+     */
+    void selectWhole(Iterable<String> path) {
+        InputProjection node = this;
+        for (String field : path) {
+            if (node.whole) {
+                return;
+            }
+            node = node.fields.computeIfAbsent(field, name -> new InputProjection());
+        }
+        node.whole = true;
+        node.fields.clear();
+    }
+
+    /**
+     * @return the names of the top-level fields that are read, fully or in part.
+     */
+    public Set<String> getFieldNames() {
+        return fields.keySet();
+    }
+
+    /**
+     * @param field a field name.
+     * @return the projection of the field's value, or null if the field is not read.
+     */
+    public InputProjection getField(String field) {
+        return fields.get(field);
+    }
+
+    /**
+     * @return whether the value is read as a whole, e.g. printed, passed to a macro or enumerated.
+     */
+    public boolean isWhole() {
+        return whole;
+    }
+
+    /**
+     * Reads the next value from the parser, keeping only the projected fields. The parser is left
+     * on the last token of the value, as after {@link ObjectMapper#readTree(JsonParser)}.
+     *
+     * @param parser       the parser, before or on the first token of the value.
+     * @param objectMapper builds the nodes of the selected values.
+     * @return the pruned value, or null at the end of the input.
+     * @throws IOException if the input cannot be read or is not valid JSON.
+     */
+    public JsonNode read(JsonParser parser, ObjectMapper objectMapper) throws IOException {
+        JsonToken token = parser.currentToken() != null ? parser.currentToken() : parser.nextToken();
+        if (token == null) {
+            return null;
+        }
+        return readValue(parser, objectMapper, this);
+    }
+
+    private static JsonNode readValue(JsonParser parser, ObjectMapper objectMapper, InputProjection projection)
+            throws IOException {
+        switch (parser.currentToken()) {
+            case START_OBJECT:
+                if (projection.whole) {
+                    return objectMapper.readTree(parser);
+                }
+                ObjectNode object = objectMapper.createObjectNode();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.getCurrentName();
+                    parser.nextToken();
+                    InputProjection field = projection.fields.get(name);
+                    if (field == null) {
+                        parser.skipChildren();
+                    } else {
+                        object.set(name, readValue(parser, objectMapper, field));
+                    }
+                }
+                return object;
+            case START_ARRAY:
+                if (projection.whole) {
+                    return objectMapper.readTree(parser);
+                }
+                ArrayNode array = objectMapper.createArrayNode();
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    array.add(readValue(parser, objectMapper, projection));
+                }
+                return array;
+            default:
+                return objectMapper.readTree(parser);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.gautam.jsontransformation.transformer.template;
+
+import freemarker.core.TemplateElement;
+import freemarker.core.TemplateObject;
+import freemarker.template.Template;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Derives the {@link InputProjection} of a template by walking its Freemarker AST once.
+ * <p>
+ * Freemarker keeps the parameters of AST nodes package-private, so they are read through
+ * {@link FreemarkerAst}; if that fails, or the template does anything whose reads cannot be
+ * determined statically (includes, imports, {@code ?eval}, {@code .data_model}, ...), no projection
+ * is returned and inputs are parsed in full. The analysis only errs towards reading more: a path
+ * that is used as a value anywhere, rather than just navigated through, is selected with everything
+ * below it.
+ */
+@SuppressWarnings("deprecation")
+final class InputProjectionAnalyzer {
+    private static final Logger logger = LoggerFactory.getLogger(InputProjectionAnalyzer.class);
+
+    /** Elements that pull in other templates or walk nodes, whose reads cannot be seen here. */
+    private static final Set<String> UNSAFE_ELEMENTS = new HashSet<>(Arrays.asList(
+            "Include", "LibraryLoad", "VisitNode", "RecurseNode", "FallbackInstruction"));
+    /** Special variables that expose the data model as a whole. */
+    private static final Set<String> UNSAFE_VARIABLES = new HashSet<>(Arrays.asList(
+            ".data_model", ".vars", ".globals", ".main", ".namespace", ".node", ".current_node"));
+    /** Built-ins that evaluate strings as template code. */
+    private static final Set<String> UNSAFE_BUILT_INS = new HashSet<>(Arrays.asList(
+            "eval", "eval_json", "interpret"));
+    private static final Pattern PLAIN_STRING_LITERAL = Pattern.compile("\"[^\"\\\\$#{}]*\"|'[^'\\\\$#{}]*'");
+    /** Marks a name that is bound to something other than input, e.g. the key of a hash listing. */
+    private static final List<String> NOT_INPUT = Collections.emptyList();
+    /** Scope entry carrying the source of an {@code #list} whose loop variable is declared by {@code #items}. */
+    private static final String ITEMS_SOURCE = "#items";
+
+    private final InputProjection projection = new InputProjection();
+
+    private InputProjectionAnalyzer() {
+    }
+
+    /**
+     * @param template a compiled template.
+     * @return the fields the template can read, or null if they cannot be determined.
+     */
+    static InputProjection analyze(Template template) {
+        if (!FreemarkerAst.isAvailable()) {
+            return null;
+        }
+        InputProjectionAnalyzer analyzer = new InputProjectionAnalyzer();
+        try {
+            analyzer.element(template.getRootTreeNode(), new HashMap<>());
+            return analyzer.projection;
+        } catch (UnsupportedTemplateException e) {
+            logger.debug("Template {} is not projectable: {}", template.getName(), e.getMessage());
+            return null;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.warn("Input projection analysis of template {} failed; inputs are read in full.", template.getName(), e);
+            return null;
+        }
+    }
+
+    private void element(TemplateElement element, Map<String, List<String>> scope) throws ReflectiveOperationException {
+        String type = element.getClass().getSimpleName();
+        if (UNSAFE_ELEMENTS.contains(type)) {
+            throw new UnsupportedTemplateException("uses " + element.getNodeName());
+        }
+        Map<String, List<String>> childScope = scope;
+        int count = FreemarkerAst.parameterCount(element);
+        if ("IteratorBlock".equals(type) || "Items".equals(type)) {
+            childScope = iteration(element, type, scope);
+        } else {
+            for (int i = 0; i < count; i++) {
+                Object value = FreemarkerAst.parameterValue(element, i);
+                if (value instanceof TemplateObject && !(value instanceof TemplateElement)) {
+                    use((TemplateObject) value, scope);
+                }
+            }
+        }
+        for (int i = 0; i < element.getChildCount(); i++) {
+            element((TemplateElement) element.getChildAt(i), childScope);
+        }
+    }
+
+    /**
+     * Binds the loop variables of {@code #list} and {@code #items} to the elements of the listed
+     * path. The elements of a sequence share the path of the sequence, because arrays are transparent.
+     */
+    private Map<String, List<String>> iteration(TemplateElement element, String type, Map<String, List<String>> scope)
+            throws ReflectiveOperationException {
+        List<String> source = scope.get(ITEMS_SOURCE);
+        List<String> loopVariables = new ArrayList<>();
+        for (int i = 0; i < FreemarkerAst.parameterCount(element); i++) {
+            Object value = FreemarkerAst.parameterValue(element, i);
+            String role = FreemarkerAst.parameterRole(element, i);
+            if ("list source".equals(role)) {
+                source = path((TemplateObject) value, scope);
+                if (source == null) {
+                    use((TemplateObject) value, scope);
+                    source = NOT_INPUT;
+                }
+            } else if ("target loop variable".equals(role) && value != null) {
+                loopVariables.add(value.toString());
+            } else if (value instanceof TemplateObject && !(value instanceof TemplateElement)) {
+                use((TemplateObject) value, scope);
+            }
+        }
+        if (source == null) {
+            source = NOT_INPUT;
+        }
+        Map<String, List<String>> childScope = new HashMap<>(scope);
+        if ("IteratorBlock".equals(type) && loopVariables.isEmpty()) {
+            // The loop variable is declared by a nested #items.
+            childScope.put(ITEMS_SOURCE, source);
+        } else if (loopVariables.size() == 1) {
+            childScope.put(loopVariables.get(0), source);
+        } else {
+            // Listing a hash as key and value pairs reads all of it.
+            select(source);
+            loopVariables.forEach(name -> childScope.put(name, NOT_INPUT));
+        }
+        return childScope;
+    }
+
+    /**
+     * Handles an expression whose value is used as a whole.
+     */
+    private void use(TemplateObject expression, Map<String, List<String>> scope) throws ReflectiveOperationException {
+        String type = expression.getClass().getSimpleName();
+        if ("BuiltinVariable".equals(type)) {
+            if (UNSAFE_VARIABLES.contains(expression.getCanonicalForm())) {
+                throw new UnsupportedTemplateException("uses " + expression.getCanonicalForm());
+            }
+            return;
+        }
+        List<String> path = path(expression, scope);
+        if (path != null) {
+            select(path);
+            return;
+        }
+        if (isBuiltIn(expression)) {
+            String name = String.valueOf(FreemarkerAst.parameterValue(expression, 1));
+            if (UNSAFE_BUILT_INS.contains(name)) {
+                throw new UnsupportedTemplateException("uses ?" + name);
+            }
+            if (expression.getClass().getName().contains("ForLoopVariables")) {
+                // ?index, ?has_next and the like only read the state of the loop.
+                return;
+            }
+        }
+        if ("DynamicKeyName".equals(type)) {
+            // A computed key can select any field of the target.
+            use((TemplateObject) FreemarkerAst.parameterValue(expression, 0), scope);
+            use((TemplateObject) FreemarkerAst.parameterValue(expression, 1), scope);
+            return;
+        }
+        for (int i = 0; i < FreemarkerAst.parameterCount(expression); i++) {
+            Object value = FreemarkerAst.parameterValue(expression, i);
+            if (value instanceof TemplateObject) {
+                use((TemplateObject) value, scope);
+            }
+        }
+    }
+
+    /**
+     * @return the input path an expression navigates to, {@link #NOT_INPUT} for local variables,
+     * or null if the expression is not a plain path.
+     */
+    private List<String> path(TemplateObject expression, Map<String, List<String>> scope)
+            throws ReflectiveOperationException {
+        switch (expression.getClass().getSimpleName()) {
+            case "Identifier": {
+                String name = expression.getCanonicalForm();
+                List<String> bound = scope.get(name);
+                return bound != null ? bound : Collections.singletonList(name);
+            }
+            case "ParentheticalExpression":
+                return path((TemplateObject) FreemarkerAst.parameterValue(expression, 0), scope);
+            case "Dot":
+                return child(path((TemplateObject) FreemarkerAst.parameterValue(expression, 0), scope),
+                        String.valueOf(FreemarkerAst.parameterValue(expression, 1)));
+            case "DynamicKeyName": {
+                TemplateObject key = (TemplateObject) FreemarkerAst.parameterValue(expression, 1);
+                String keyType = key.getClass().getSimpleName();
+                if ("NumberLiteral".equals(keyType)) {
+                    // An index selects an element, which shares the path of its array.
+                    return path((TemplateObject) FreemarkerAst.parameterValue(expression, 0), scope);
+                }
+                String literal = key.getCanonicalForm();
+                if ("StringLiteral".equals(keyType) && PLAIN_STRING_LITERAL.matcher(literal).matches()) {
+                    return child(path((TemplateObject) FreemarkerAst.parameterValue(expression, 0), scope),
+                            literal.substring(1, literal.length() - 1));
+                }
+                return null;
+            }
+            default:
+                return null;
+        }
+    }
+
+    private static List<String> child(List<String> parent, String field) {
+        if (parent == null || parent == NOT_INPUT) {
+            return parent;
+        }
+        List<String> path = new ArrayList<>(parent.size() + 1);
+        path.addAll(parent);
+        path.add(field);
+        return path;
+    }
+
+    private void select(List<String> path) {
+        if (path == NOT_INPUT) {
+            return;
+        }
+        if (path.isEmpty()) {
+            throw new UnsupportedTemplateException("reads the whole input");
+        }
+        projection.selectWhole(path);
+    }
+
+    private static boolean isBuiltIn(TemplateObject expression) {
+        for (Class<?> type = expression.getClass(); type != null; type = type.getSuperclass()) {
+            if ("BuiltIn".equals(type.getSimpleName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Thrown when a template reads input in a way the analysis cannot follow.
+     */
+    private static final class UnsupportedTemplateException extends RuntimeException {
+        UnsupportedTemplateException(String message) {
+            super(message, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.gautam.jsontransformation.transformer.template;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import freemarker.core.Environment;
+import freemarker.ext.util.WrapperTemplateModel;
+import freemarker.template.TemplateBooleanModel;
+import freemarker.template.TemplateDirectiveBody;
+import freemarker.template.TemplateDirectiveModel;
+import freemarker.template.TemplateException;
+import freemarker.template.TemplateHashModel;
+import freemarker.template.TemplateModel;
+import freemarker.template.TemplateModelException;
+import freemarker.template.TemplateNumberModel;
+import freemarker.template.TemplateScalarModel;
+import freemarker.template.utility.DeepUnwrap;
+import freemarker.template.utility.NullWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Map;
+
+/**
+ * Directives that emit JSON through a Jackson {@link JsonGenerator} instead of hand-assembled text,
+ * registered as the shared variable {@code json}:
+ * <pre>
+ * &lt;@json.object&gt;
+ *   &lt;@json.field name="id" value=order.id/&gt;
+ *   &lt;@json.array name="lines"&gt;
+ *     &lt;#list order.lines as line&gt;&lt;@json.value value=line.sku/&gt;&lt;/#list&gt;
+ *   &lt;/@json.array&gt;
+ * &lt;/@json.object&gt;
+ * </pre>
+ * Values are escaped by the generator and separators are written automatically. Text inside
+ * {@code object} and {@code array} bodies is ignored; a {@code field} or {@code value} without a
+ * {@code value} parameter writes the value produced by its body, or the body's text as a string.
+ * <p>
+ * Rendered as text, the JSON goes into the template's writer. Rendered through
+ * {@link FreemarkerTemplateEngine#process(String, Map, JsonGenerator)}, the structural events go
+ * to the caller's generator, so the output never exists as a string that has to be parsed again.
+ */
+public final class JsonDirectives implements TemplateHashModel {
+    public static final String VARIABLE_NAME = "json";
+
+    // Writing an object or array value must not flush the template's writer in the middle of the document.
+    private static final ObjectMapper objectMapper =
+            new ObjectMapper().disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+    private final Map<String, TemplateDirectiveModel> directives = Map.of(
+            "object", new StructureDirective(true),
+            "array", new StructureDirective(false),
+            "field", new ValueDirective(true),
+            "value", new ValueDirective(false));
+
+    @Override
+    public TemplateModel get(String key) {
+        return directives.get(key);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return false;
+    }
+
+    /**
+     * {@code <@json.object name="...">} and {@code <@json.array name="...">}; the name is only used inside an object.
+     */
+    private static final class StructureDirective implements TemplateDirectiveModel {
+        private final boolean object;
+
+        StructureDirective(boolean object) {
+            this.object = object;
+        }
+
+        @Override
+        public void execute(Environment env, @SuppressWarnings("rawtypes") Map params, TemplateModel[] loopVars,
+                            TemplateDirectiveBody body) throws TemplateException, IOException {
+            JsonOutput output = JsonOutput.of(env);
+            JsonGenerator generator = output.enter();
+            String name = stringParam(params, "name");
+            if (name != null) {
+                generator.writeFieldName(name);
+            }
+            if (object) {
+                generator.writeStartObject();
+            } else {
+                generator.writeStartArray();
+            }
+            if (body != null) {
+                // Nested directives write to the generator; whitespace and separators in the text are dropped.
+                body.render(NullWriter.INSTANCE);
+            }
+            if (object) {
+                generator.writeEndObject();
+            } else {
+                generator.writeEndArray();
+            }
+            output.exit();
+        }
+    }
+
+    /**
+     * {@code <@json.field name="..." value=.../>} and {@code <@json.value value=.../>}.
+     */
+    private static final class ValueDirective implements TemplateDirectiveModel {
+        private final boolean field;
+
+        ValueDirective(boolean field) {
+            this.field = field;
+        }
+
+        @Override
+        public void execute(Environment env, @SuppressWarnings("rawtypes") Map params, TemplateModel[] loopVars,
+                            TemplateDirectiveBody body) throws TemplateException, IOException {
+            JsonOutput output = JsonOutput.of(env);
+            JsonGenerator generator = output.enter();
+            if (field) {
+                String name = stringParam(params, "name");
+                if (name == null) {
+                    throw new TemplateModelException("json.field requires a name parameter.");
+                }
+                generator.writeFieldName(name);
+            }
+            if (params.containsKey("value") || body == null) {
+                writeValue(generator, (TemplateModel) params.get("value"));
+            } else {
+                long before = output.values();
+                StringWriter text = new StringWriter();
+                body.render(text);
+                if (output.values() == before) {
+                    generator.writeString(text.toString());
+                }
+            }
+            output.exit();
+        }
+    }
+
+    private static String stringParam(@SuppressWarnings("rawtypes") Map params, String name)
+            throws TemplateModelException {
+        Object value = params.get(name);
+        if (value == null) {
+            return null;
+        }
+        if (!(value instanceof TemplateScalarModel)) {
+            throw new TemplateModelException("Parameter " + name + " must be a string.");
+        }
+        return ((TemplateScalarModel) value).getAsString();
+    }
+
+    private static void writeValue(JsonGenerator generator, TemplateModel model) throws IOException, TemplateModelException {
+        if (model == null) {
+            generator.writeNull();
+        } else if (model instanceof WrapperTemplateModel
+                && ((WrapperTemplateModel) model).getWrappedObject() instanceof JsonNode) {
+            objectMapper.writeTree(generator, (JsonNode) ((WrapperTemplateModel) model).getWrappedObject());
+        } else if (model instanceof TemplateBooleanModel) {
+            generator.writeBoolean(((TemplateBooleanModel) model).getAsBoolean());
+        } else if (model instanceof TemplateNumberModel) {
+            writeNumber(generator, ((TemplateNumberModel) model).getAsNumber());
+        } else if (model instanceof TemplateScalarModel) {
+            generator.writeString(((TemplateScalarModel) model).getAsString());
+        } else {
+            // Hashes, sequences, dates and beans: let Jackson serialize the unwrapped Java value.
+            objectMapper.writeValue(generator, DeepUnwrap.unwrap(model));
+        }
+    }
+
+    private static void writeNumber(JsonGenerator generator, Number number) throws IOException {
+        if (number instanceof Integer || number instanceof Short || number instanceof Byte) {
+            generator.writeNumber(number.intValue());
+        } else if (number instanceof Long) {
+            generator.writeNumber(number.longValue());
+        } else if (number instanceof Double || number instanceof Float) {
+            generator.writeNumber(number.doubleValue());
+        } else if (number instanceof BigDecimal) {
+            generator.writeNumber((BigDecimal) number);
+        } else if (number instanceof BigInteger) {
+            generator.writeNumber((BigInteger) number);
+        } else {
+            generator.writeNumber(number.toString());
+        }
+    }
+}
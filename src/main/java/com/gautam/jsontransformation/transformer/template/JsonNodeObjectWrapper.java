@@ -0,0 +1,182 @@
+package com.gautam.jsontransformation.transformer.template;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.POJONode;
+import freemarker.ext.util.WrapperTemplateModel;
+import freemarker.template.DefaultObjectWrapper;
+import freemarker.template.ObjectWrapper;
+import freemarker.template.SimpleCollection;
+import freemarker.template.SimpleNumber;
+import freemarker.template.SimpleScalar;
+import freemarker.template.TemplateBooleanModel;
+import freemarker.template.TemplateCollectionModel;
+import freemarker.template.TemplateHashModelEx2;
+import freemarker.template.TemplateModel;
+import freemarker.template.TemplateModelException;
+import freemarker.template.TemplateModelIterator;
+import freemarker.template.TemplateSequenceModel;
+import freemarker.template.Version;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Object wrapper that exposes Jackson {@link JsonNode} trees to Freemarker directly.
+ * Objects become hashes and arrays become sequences whose children are only wrapped when a
+ * template actually reads them, so the input never has to be copied into {@code Map}/{@code List}
+ * structures of boxed values. Everything that is not a {@code JsonNode} is wrapped as usual.
+ */
+public class JsonNodeObjectWrapper extends DefaultObjectWrapper {
+
+    public JsonNodeObjectWrapper(Version incompatibleImprovements) {
+        super(incompatibleImprovements);
+    }
+
+    @Override
+    public TemplateModel wrap(Object obj) throws TemplateModelException {
+        if (obj instanceof JsonNode) {
+            return wrapNode((JsonNode) obj);
+        }
+        return super.wrap(obj);
+    }
+
+    private TemplateModel wrapNode(JsonNode node) throws TemplateModelException {
+        switch (node.getNodeType()) {
+            case OBJECT:
+                return new JsonObjectModel(node, this);
+            case ARRAY:
+                return new JsonArrayModel(node, this);
+            case STRING:
+                return new SimpleScalar(node.textValue());
+            case NUMBER:
+                return new SimpleNumber(node.numberValue());
+            case BOOLEAN:
+                return node.booleanValue() ? TemplateBooleanModel.TRUE : TemplateBooleanModel.FALSE;
+            case NULL:
+            case MISSING:
+                // Freemarker treats null as "missing", so ?? and ?has_content behave as expected.
+                return null;
+            default:
+                // BINARY and POJO nodes carry arbitrary Java values.
+                return super.wrap(node.isPojo() ? ((POJONode) node).getPojo() : node.asText());
+        }
+    }
+
+    /**
+     * Hash view of a JSON object node.
+     */
+    static final class JsonObjectModel implements TemplateHashModelEx2, WrapperTemplateModel {
+        private final JsonNode node;
+        private final ObjectWrapper wrapper;
+
+        JsonObjectModel(JsonNode node, ObjectWrapper wrapper) {
+            this.node = node;
+            this.wrapper = wrapper;
+        }
+
+        @Override
+        public TemplateModel get(String key) throws TemplateModelException {
+            JsonNode child = node.get(key);
+            return child == null ? null : wrapper.wrap(child);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return node.size() == 0;
+        }
+
+        @Override
+        public int size() {
+            return node.size();
+        }
+
+        @Override
+        public TemplateCollectionModel keys() {
+            return new SimpleCollection(node.fieldNames(), wrapper);
+        }
+
+        @Override
+        public TemplateCollectionModel values() {
+            return new SimpleCollection(node.elements(), wrapper);
+        }
+
+        @Override
+        public KeyValuePairIterator keyValuePairIterator() {
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            return new KeyValuePairIterator() {
+                @Override
+                public boolean hasNext() {
+                    return fields.hasNext();
+                }
+
+                @Override
+                public KeyValuePair next() throws TemplateModelException {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    TemplateModel key = new SimpleScalar(field.getKey());
+                    TemplateModel value = wrapper.wrap(field.getValue());
+                    return new KeyValuePair() {
+                        @Override
+                        public TemplateModel getKey() {
+                            return key;
+                        }
+
+                        @Override
+                        public TemplateModel getValue() {
+                            return value;
+                        }
+                    };
+                }
+            };
+        }
+
+        @Override
+        public Object getWrappedObject() {
+            return node;
+        }
+    }
+
+    /**
+     * Sequence view of a JSON array node.
+     */
+    static final class JsonArrayModel implements TemplateSequenceModel, TemplateCollectionModel, WrapperTemplateModel {
+        private final JsonNode node;
+        private final ObjectWrapper wrapper;
+
+        JsonArrayModel(JsonNode node, ObjectWrapper wrapper) {
+            this.node = node;
+            this.wrapper = wrapper;
+        }
+
+        @Override
+        public TemplateModel get(int index) throws TemplateModelException {
+            JsonNode child = node.get(index);
+            return child == null ? null : wrapper.wrap(child);
+        }
+
+        @Override
+        public int size() {
+            return node.size();
+        }
+
+        @Override
+        public TemplateModelIterator iterator() {
+            Iterator<JsonNode> elements = node.elements();
+            return new TemplateModelIterator() {
+                @Override
+                public TemplateModel next() throws TemplateModelException {
+                    return wrapper.wrap(elements.next());
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return elements.hasNext();
+                }
+            };
+        }
+
+        @Override
+        public Object getWrappedObject() {
+            return node;
+        }
+    }
+}
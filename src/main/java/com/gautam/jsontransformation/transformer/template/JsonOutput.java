@@ -0,0 +1,101 @@
+package com.gautam.jsontransformation.transformer.template;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import freemarker.core.Environment;
+import freemarker.template.TemplateModelException;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Target of the {@link JsonDirectives} for one render. When a template is rendered as text the
+ * generator is created on the first directive and writes into the same writer as the template,
+ * flushing whenever a top-level value is complete so it stays in order with the surrounding text.
+ */
+final class JsonOutput {
+    static final String ATTRIBUTE = JsonOutput.class.getName();
+
+    private final JsonFactory jsonFactory;
+    private final Writer out;
+    private JsonGenerator generator;
+    private int depth;
+    private long values;
+
+    private JsonOutput(JsonFactory jsonFactory, Writer out, JsonGenerator generator) {
+        this.jsonFactory = jsonFactory;
+        this.out = out;
+        this.generator = generator;
+    }
+
+    /**
+     * Output that shares the template's writer.
+     */
+    static JsonOutput forWriter(JsonFactory jsonFactory, Writer out) {
+        return new JsonOutput(jsonFactory, out, null);
+    }
+
+    /**
+     * Output that goes straight to a caller's generator.
+     */
+    static JsonOutput forGenerator(JsonGenerator generator) {
+        return new JsonOutput(null, null, generator);
+    }
+
+    /**
+     * Returns the output of the template being rendered in the given environment.
+     */
+    static JsonOutput of(Environment env) throws TemplateModelException {
+        Object output = env.getCustomAttribute(ATTRIBUTE);
+        if (!(output instanceof JsonOutput)) {
+            throw new TemplateModelException("JSON directives are only available through FreemarkerTemplateEngine.");
+        }
+        return (JsonOutput) output;
+    }
+
+    /**
+     * Starts writing a value and returns the generator to write it with.
+     */
+    JsonGenerator enter() throws IOException {
+        if (generator == null) {
+            generator = jsonFactory.createGenerator(out);
+            // Top-level values are placed by the template text, not separated by the generator.
+            generator.setRootValueSeparator(null);
+        }
+        depth++;
+        values++;
+        return generator;
+    }
+
+    /**
+     * Finishes the value started by the matching {@link #enter()}.
+     */
+    void exit() throws IOException {
+        depth--;
+        if (depth == 0 && out != null) {
+            generator.flush();
+        }
+    }
+
+    /**
+     * @return the number of values written so far, including nested ones.
+     */
+    long values() {
+        return values;
+    }
+
+    /**
+     * Copies JSON text into a generator token by token, for templates that render JSON as plain text.
+     */
+    static void copy(JsonFactory jsonFactory, String json, JsonGenerator generator) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            JsonToken token = parser.nextToken();
+            while (token != null) {
+                generator.copyCurrentStructure(parser);
+                token = parser.nextToken();
+            }
+        }
+    }
+}
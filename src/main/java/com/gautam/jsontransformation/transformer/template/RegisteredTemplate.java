@@ -0,0 +1,76 @@
+package com.gautam.jsontransformation.transformer.template;
+
+import freemarker.template.Template;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A compiled template held by the {@link TemplateRegistry}, together with the version of the
+ * source it was compiled from and the input fields it reads. Once a template has been rendered
+ * often enough it is also translated by the {@link TemplateCompiler}, until the compiled form is
+ * demoted for abandoning too many renders; a reload starts over with a new instance.
+ */
+public final class RegisteredTemplate {
+    private static final Object NOT_COMPILABLE = new Object();
+
+    private final String name;
+    private final Template template;
+    private final long version;
+    private final InputProjection inputProjection;
+    private final AtomicInteger renders = new AtomicInteger();
+    // Set once the compiler has run; null until then, and NOT_COMPILABLE if it gave up or was demoted.
+    private volatile Object compiled;
+
+    RegisteredTemplate(String name, Template template, long version) {
+        this.name = name;
+        this.template = template;
+        this.version = version;
+        this.inputProjection = InputProjectionAnalyzer.analyze(template);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Template getTemplate() {
+        return template;
+    }
+
+    /**
+     * @return the last-modified time of the template source, in milliseconds.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the input fields the template reads, or null if they cannot be determined statically.
+     */
+    public InputProjection getInputProjection() {
+        return inputProjection;
+    }
+
+    /**
+     * Counts a render and compiles the template on the render that reaches the threshold.
+     *
+     * @param threshold renders before the template is compiled.
+     * @return the compiled template, or null while it is below the threshold, cannot be compiled or
+     * has been demoted.
+     */
+    CompiledTemplate promote(int threshold) {
+        Object current = compiled;
+        if (current == null && renders.incrementAndGet() == threshold) {
+            CompiledTemplate result = TemplateCompiler.compile(template);
+            compiled = result != null ? result : NOT_COMPILABLE;
+            return result;
+        }
+        if (!(current instanceof CompiledTemplate)) {
+            return null;
+        }
+        if (((CompiledTemplate) current).isDemoted()) {
+            compiled = NOT_COMPILABLE;
+            return null;
+        }
+        return (CompiledTemplate) current;
+    }
+}
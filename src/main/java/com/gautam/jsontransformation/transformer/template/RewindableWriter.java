@@ -0,0 +1,21 @@
+package com.gautam.jsontransformation.transformer.template;
+
+/**
+ * A writer that can take back what was written after a position. Compiled templates render straight
+ * into such a writer and rewind it when a render has to be handed to the interpreter; into any other
+ * writer the interpreter renders right away, so nothing is collected in memory first.
+ */
+public interface RewindableWriter {
+
+    /**
+     * @return the current position, to rewind to later.
+     */
+    int position();
+
+    /**
+     * Discards everything written after the position.
+     *
+     * @param position a position returned by {@link #position()}.
+     */
+    void rewind(int position);
+}
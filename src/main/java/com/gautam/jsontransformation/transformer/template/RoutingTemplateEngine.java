@@ -0,0 +1,81 @@
+package com.gautam.jsontransformation.transformer.template;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Picks the engine of a template by the suffix of its name, e.g. {@code .mapping.json} for mapping
+ * specs, and falls back to a default engine for all other names. Every call is delegated unchanged,
+ * so each engine keeps its own fast paths.
+ */
+public class RoutingTemplateEngine implements TemplateEngine {
+    private final TemplateEngine defaultEngine;
+    private final Map<String, TemplateEngine> enginesBySuffix = new LinkedHashMap<>();
+
+    /**
+     * @param defaultEngine renders templates whose name matches no registered suffix.
+     */
+    public RoutingTemplateEngine(TemplateEngine defaultEngine) {
+        this.defaultEngine = defaultEngine;
+    }
+
+    /**
+     * Routes templates whose name ends with the given suffix to an engine. Suffixes are checked in
+     * registration order.
+     *
+     * @param suffix the template name suffix.
+     * @param engine the engine rendering those templates.
+     * @return this router.
+     */
+    public RoutingTemplateEngine route(String suffix, TemplateEngine engine) {
+        enginesBySuffix.put(suffix, engine);
+        return this;
+    }
+
+    /**
+     * @param templateName the name of the template file.
+     * @return the engine rendering the template.
+     */
+    public TemplateEngine engineFor(String templateName) {
+        for (Map.Entry<String, TemplateEngine> route : enginesBySuffix.entrySet()) {
+            if (templateName.endsWith(route.getKey())) {
+                return route.getValue();
+            }
+        }
+        return defaultEngine;
+    }
+
+    @Override
+    public String process(String templateName, Map<String, Object> dataModel) throws Exception {
+        return engineFor(templateName).process(templateName, dataModel);
+    }
+
+    @Override
+    public void process(String templateName, Map<String, Object> dataModel, Writer out) throws Exception {
+        engineFor(templateName).process(templateName, dataModel, out);
+    }
+
+    @Override
+    public void process(String templateName, Map<String, Object> dataModel, OutputStream out) throws Exception {
+        engineFor(templateName).process(templateName, dataModel, out);
+    }
+
+    @Override
+    public void process(String templateName, Map<String, Object> dataModel, JsonGenerator generator) throws Exception {
+        engineFor(templateName).process(templateName, dataModel, generator);
+    }
+
+    @Override
+    public long getTemplateVersion(String templateName) throws Exception {
+        return engineFor(templateName).getTemplateVersion(templateName);
+    }
+
+    @Override
+    public InputProjection getInputProjection(String templateName) throws Exception {
+        return engineFor(templateName).getInputProjection(templateName);
+    }
+}
@@ -0,0 +1,215 @@
+package com.gautam.jsontransformation.transformer.template;
+
+import freemarker.core.TemplateElement;
+import freemarker.core.TemplateObject;
+import freemarker.template.DefaultObjectWrapper;
+import freemarker.template.Template;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Translates the subset of FTL the transformation templates use into a {@link CompiledTemplate}:
+ * text, {@code ${...}} interpolations of paths (optionally with {@code ?c}), {@code #list ... as ...},
+ * {@code #if}/{@code #elseif}/{@code #else} on boolean paths, {@code ?has_next}, {@code !},
+ * {@code &&} and {@code ||}. Templates using anything else, or settings that change how values are
+ * printed, are not compiled and stay with the interpreter. The AST is walked through Freemarker's
+ * deprecated {@code TemplateElement} API; package-private parts are read through {@link FreemarkerAst}.
+ */
+@SuppressWarnings("deprecation")
+final class TemplateCompiler {
+    private static final Logger logger = LoggerFactory.getLogger(TemplateCompiler.class);
+
+    // Loop variables in scope; the slot of a variable is its index.
+    private final List<String> loopVariables = new ArrayList<>();
+    private int slotCount;
+
+    private TemplateCompiler() {
+    }
+
+    /**
+     * @param template a parsed template.
+     * @return the compiled template, or null if it uses constructs or settings that are not supported.
+     */
+    static CompiledTemplate compile(Template template) {
+        if (!FreemarkerAst.isAvailable() || !hasPlainSettings(template)) {
+            return null;
+        }
+        TemplateCompiler compiler = new TemplateCompiler();
+        try {
+            CompiledTemplate.Op root = compiler.element(template.getRootTreeNode());
+            return new CompiledTemplate(template.getName(), root, compiler.slotCount, template.getLocale());
+        } catch (UnsupportedTemplateException e) {
+            logger.debug("Template {} stays interpreted: {}", template.getName(), e.getMessage());
+            return null;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.warn("Compiling template {} failed; it stays interpreted.", template.getName(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Values are only printed here the way the interpreter prints them with the default settings:
+     * no auto-escaping, Freemarker's "number" format with a locale printing small integers as plain
+     * digits, and an object wrapper that exposes maps, lists and JSON trees as they are.
+     */
+    private static boolean hasPlainSettings(Template template) {
+        if (template.getAutoEscaping() || !"number".equals(template.getNumberFormat())
+                || !(template.getObjectWrapper() instanceof DefaultObjectWrapper)) {
+            return false;
+        }
+        NumberFormat format = NumberFormat.getNumberInstance(template.getLocale());
+        return "-7".equals(format.format(-7L)) && "42".equals(format.format(42L));
+    }
+
+    private CompiledTemplate.Op element(TemplateElement element) throws ReflectiveOperationException {
+        switch (element.getClass().getSimpleName()) {
+            case "MixedContent":
+                return children(element);
+            case "TextBlock":
+                return new CompiledTemplate.Text((String) FreemarkerAst.parameterValue(element, 0));
+            case "Comment":
+                return new CompiledTemplate.Text("");
+            case "DollarVariable":
+                return interpolation((TemplateObject) FreemarkerAst.parameterValue(element, 0));
+            case "IteratorBlock":
+                return list(element);
+            case "IfBlock": {
+                int count = element.getChildCount();
+                CompiledTemplate.Expr[] conditions = new CompiledTemplate.Expr[count];
+                CompiledTemplate.Op[] branches = new CompiledTemplate.Op[count];
+                for (int i = 0; i < count; i++) {
+                    TemplateElement branch = (TemplateElement) element.getChildAt(i);
+                    conditions[i] = condition(branch);
+                    branches[i] = children(branch);
+                }
+                return new CompiledTemplate.IfOp(conditions, branches);
+            }
+            case "ConditionalBlock":
+                return new CompiledTemplate.IfOp(new CompiledTemplate.Expr[]{condition(element)},
+                        new CompiledTemplate.Op[]{children(element)});
+            default:
+                throw new UnsupportedTemplateException("uses " + element.getNodeName());
+        }
+    }
+
+    private CompiledTemplate.Op children(TemplateElement element) throws ReflectiveOperationException {
+        int count = element.getChildCount();
+        if (count == 1) {
+            return element((TemplateElement) element.getChildAt(0));
+        }
+        CompiledTemplate.Op[] ops = new CompiledTemplate.Op[count];
+        for (int i = 0; i < count; i++) {
+            ops[i] = element((TemplateElement) element.getChildAt(i));
+        }
+        return new CompiledTemplate.Sequence(ops);
+    }
+
+    private CompiledTemplate.Op interpolation(TemplateObject expression) throws ReflectiveOperationException {
+        if (isBuiltIn(expression, "c")) {
+            TemplateObject target = (TemplateObject) FreemarkerAst.parameterValue(expression, 0);
+            return new CompiledTemplate.Interpolation(path(target), true);
+        }
+        return new CompiledTemplate.Interpolation(path(expression), false);
+    }
+
+    private CompiledTemplate.Op list(TemplateElement element) throws ReflectiveOperationException {
+        TemplateObject source = null;
+        String variable = null;
+        for (int i = 0; i < FreemarkerAst.parameterCount(element); i++) {
+            String role = FreemarkerAst.parameterRole(element, i);
+            Object value = FreemarkerAst.parameterValue(element, i);
+            if ("list source".equals(role)) {
+                source = (TemplateObject) value;
+            } else if ("target loop variable".equals(role) && value != null) {
+                if (variable != null) {
+                    throw new UnsupportedTemplateException("lists key-value pairs");
+                }
+                variable = value.toString();
+            }
+        }
+        if (source == null || variable == null) {
+            // #items and #sep nest the loop variable in child elements.
+            throw new UnsupportedTemplateException("uses #list without a loop variable");
+        }
+        CompiledTemplate.Expr sourceExpr = path(source);
+        int slot = loopVariables.size();
+        loopVariables.add(variable);
+        slotCount = Math.max(slotCount, loopVariables.size());
+        CompiledTemplate.Op body = element.getChildCount() == 0 ? new CompiledTemplate.Text("") : children(element);
+        loopVariables.remove(slot);
+        return new CompiledTemplate.ListOp(sourceExpr, slot, body);
+    }
+
+    private CompiledTemplate.Expr condition(TemplateElement branch) throws ReflectiveOperationException {
+        if (!"ConditionalBlock".equals(branch.getClass().getSimpleName())) {
+            throw new UnsupportedTemplateException("uses " + branch.getNodeName());
+        }
+        Object condition = FreemarkerAst.parameterValue(branch, 0);
+        return condition == null ? null : bool((TemplateObject) condition);
+    }
+
+    private CompiledTemplate.Expr bool(TemplateObject expression) throws ReflectiveOperationException {
+        switch (expression.getClass().getSimpleName()) {
+            case "ParentheticalExpression":
+                return bool((TemplateObject) FreemarkerAst.parameterValue(expression, 0));
+            case "NotExpression":
+                return new CompiledTemplate.Not(bool((TemplateObject) FreemarkerAst.parameterValue(expression, 0)));
+            case "AndExpression":
+                return new CompiledTemplate.And(bool((TemplateObject) FreemarkerAst.parameterValue(expression, 0)),
+                        bool((TemplateObject) FreemarkerAst.parameterValue(expression, 1)));
+            case "OrExpression":
+                return new CompiledTemplate.Or(bool((TemplateObject) FreemarkerAst.parameterValue(expression, 0)),
+                        bool((TemplateObject) FreemarkerAst.parameterValue(expression, 1)));
+            default:
+                if (isBuiltIn(expression, "has_next")) {
+                    TemplateObject target = (TemplateObject) FreemarkerAst.parameterValue(expression, 0);
+                    int slot = "Identifier".equals(target.getClass().getSimpleName())
+                            ? loopVariables.lastIndexOf(target.getCanonicalForm()) : -1;
+                    if (slot < 0) {
+                        throw new UnsupportedTemplateException("uses ?has_next outside of its #list");
+                    }
+                    return new CompiledTemplate.HasNext(slot);
+                }
+                return path(expression);
+        }
+    }
+
+    private CompiledTemplate.Expr path(TemplateObject expression) throws ReflectiveOperationException {
+        switch (expression.getClass().getSimpleName()) {
+            case "Identifier": {
+                String name = expression.getCanonicalForm();
+                int slot = loopVariables.lastIndexOf(name);
+                return slot >= 0 ? new CompiledTemplate.LoopVariable(slot) : new CompiledTemplate.Root(name);
+            }
+            case "ParentheticalExpression":
+                return path((TemplateObject) FreemarkerAst.parameterValue(expression, 0));
+            case "Dot":
+                return new CompiledTemplate.Dot(path((TemplateObject) FreemarkerAst.parameterValue(expression, 0)),
+                        String.valueOf(FreemarkerAst.parameterValue(expression, 1)));
+            default:
+                throw new UnsupportedTemplateException("uses " + expression.getCanonicalForm());
+        }
+    }
+
+    private static boolean isBuiltIn(TemplateObject expression, String name) throws ReflectiveOperationException {
+        for (Class<?> type = expression.getClass(); type != null; type = type.getSuperclass()) {
+            if ("BuiltIn".equals(type.getSimpleName())) {
+                return name.equals(String.valueOf(FreemarkerAst.parameterValue(expression, 1)));
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Thrown when a template uses a construct the compiler does not translate.
+     */
+    private static final class UnsupportedTemplateException extends RuntimeException {
+        UnsupportedTemplateException(String message) {
+            super(message, null, false, false);
+        }
+    }
+}
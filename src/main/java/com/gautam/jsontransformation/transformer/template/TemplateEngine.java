@@ -1,5 +1,12 @@
 package com.gautam.jsontransformation.transformer.template;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.BufferedWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
 public interface TemplateEngine {
@@ -12,4 +19,76 @@ public interface TemplateEngine {
      * @throws Exception if rendering fails.
      */
     String process(String templateName, Map<String, Object> dataModel) throws Exception;
+
+    /**
+     * Processes the given template and writes the rendered output to the supplied writer.
+     * Engines that can render incrementally should override this so the output never has
+     * to be held in memory as a whole. The writer is flushed but not closed.
+     *
+     * @param templateName the name of the template file.
+     * @param dataModel the data model to apply.
+     * @param out the writer receiving the rendered output.
+     * @throws Exception if rendering fails.
+     */
+    default void process(String templateName, Map<String, Object> dataModel, Writer out) throws Exception {
+        out.write(process(templateName, dataModel));
+        out.flush();
+    }
+
+    /**
+     * Processes the given template and writes the rendered output to the supplied stream as UTF-8.
+     * The stream is flushed but not closed.
+     *
+     * @param templateName the name of the template file.
+     * @param dataModel the data model to apply.
+     * @param out the stream receiving the rendered output.
+     * @throws Exception if rendering fails.
+     */
+    default void process(String templateName, Map<String, Object> dataModel, OutputStream out) throws Exception {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        process(templateName, dataModel, writer);
+        writer.flush();
+    }
+
+    /**
+     * Processes the given template and writes the rendered JSON to the supplied generator as
+     * structural events, e.g. into a {@code TokenBuffer} that is read back as a tree without
+     * tokenizing text. Engines that can emit JSON directly should override this; the default
+     * renders the template as text and copies it into the generator token by token.
+     * The generator is flushed but not closed.
+     *
+     * @param templateName the name of the template file.
+     * @param dataModel the data model to apply.
+     * @param generator the generator receiving the rendered JSON.
+     * @throws Exception if rendering fails or the output is not valid JSON.
+     */
+    default void process(String templateName, Map<String, Object> dataModel, JsonGenerator generator) throws Exception {
+        String rendered = process(templateName, dataModel);
+        JsonFactory jsonFactory = generator.getCodec() != null ? generator.getCodec().getFactory() : new JsonFactory();
+        JsonOutput.copy(jsonFactory, rendered, generator);
+        generator.flush();
+    }
+
+    /**
+     * Returns a version that changes whenever the template is modified, so results rendered with it
+     * can be cached safely.
+     *
+     * @param templateName the name of the template file.
+     * @return the template version, or -1 if the engine cannot tell when the template changes.
+     * @throws Exception if the template cannot be loaded.
+     */
+    default long getTemplateVersion(String templateName) throws Exception {
+        return -1;
+    }
+
+    /**
+     * Returns the input fields the template can read, so the input parser may skip all others.
+     *
+     * @param templateName the name of the template file.
+     * @return the projection, or null if the template may read any part of the input.
+     * @throws Exception if the template cannot be loaded.
+     */
+    default InputProjection getInputProjection(String templateName) throws Exception {
+        return null;
+    }
 }
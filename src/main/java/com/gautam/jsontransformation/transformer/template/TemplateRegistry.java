@@ -0,0 +1,355 @@
+package com.gautam.jsontransformation.transformer.template;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import freemarker.core.Environment;
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import freemarker.template.TemplateExceptionHandler;
+import freemarker.template.utility.NullWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * In-memory registry of compiled Freemarker templates. Every {@code .ftl} file below the template
+ * directory is parsed once at startup and warmed up with a few throw-away renders, so requests are
+ * served from memory without per-request file-system checks or first-hit parse cost.
+ * <p>
+ * Warmup renders use {@code <template>.sample.json} next to the template as data model when it
+ * exists, and an empty model otherwise; errors during warmup are ignored.
+ * <p>
+ * With {@code template.watch.enabled} a {@link TemplateWatcher} recompiles edited templates in the
+ * background and swaps them in atomically; a template that fails to compile keeps its previous version.
+ * <p>
+ * With {@code template.compile.threshold} a template that has been rendered that many times is
+ * translated into a {@link CompiledTemplate}, which renders the supported subset of FTL without the
+ * interpreter.
+ */
+@Component
+public class TemplateRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(TemplateRegistry.class);
+
+    static final String TEMPLATE_SUFFIX = ".ftl";
+    static final String SAMPLE_SUFFIX = ".sample.json";
+
+    private final Configuration configuration;
+    private final Path templateDir;
+    private final boolean delegateToConfiguration;
+    private final boolean watchEnabled;
+    private final int warmupIterations;
+    private final int compileThreshold;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final ConcurrentMap<String, RegisteredTemplate> templates = new ConcurrentHashMap<>();
+    private final List<Consumer<String>> reloadListeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<Path>> fileChangeListeners = new CopyOnWriteArrayList<>();
+    private TemplateWatcher watcher;
+
+    /**
+     * Creates a registry that always interprets templates.
+     */
+    public TemplateRegistry(Configuration configuration, String templateDir, boolean devMode, boolean watchEnabled,
+                            int warmupIterations) {
+        this(configuration, templateDir, devMode, watchEnabled, warmupIterations, 0);
+    }
+
+    /**
+     * @param compileThreshold renders before a template is compiled (0 = always interpret).
+     */
+    @Autowired
+    public TemplateRegistry(Configuration configuration,
+                            @Value("${freemarker.template.dir.path}") String templateDir,
+                            @Value("${template.mode.dev:false}") boolean devMode,
+                            @Value("${template.watch.enabled:true}") boolean watchEnabled,
+                            @Value("${template.warmup.iterations:100}") int warmupIterations,
+                            @Value("${template.compile.threshold:0}") int compileThreshold) {
+        this.configuration = configuration;
+        this.templateDir = Paths.get(templateDir).toAbsolutePath().normalize();
+        // Without a watcher, dev mode falls back to Freemarker's own modification check.
+        this.delegateToConfiguration = devMode && !watchEnabled;
+        this.watchEnabled = watchEnabled;
+        this.warmupIterations = warmupIterations;
+        this.compileThreshold = compileThreshold;
+    }
+
+    /**
+     * Compiles and warms up every template found in the template directory.
+     *
+     * @throws IOException if the template directory cannot be read or a template fails to compile.
+     */
+    @PostConstruct
+    public void preload() throws IOException {
+        long startTime = System.nanoTime();
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(templateDir)) {
+            files = paths.filter(path -> path.toString().endsWith(TEMPLATE_SUFFIX) && Files.isRegularFile(path))
+                    .collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            RegisteredTemplate registered = compile(file);
+            templates.put(registered.getName(), registered);
+            warmup(registered, file);
+        }
+        long duration = System.nanoTime() - startTime;
+        logger.info("Preloaded {} templates from {} in {} ms", templates.size(), templateDir, duration / 1_000_000);
+
+        if (watchEnabled) {
+            watcher = new TemplateWatcher(this, templateDir);
+            watcher.start();
+        }
+    }
+
+    /**
+     * Stops watching the template directory.
+     */
+    @PreDestroy
+    public void close() throws IOException {
+        if (watcher != null) {
+            watcher.stop();
+        }
+    }
+
+    /**
+     * Returns the compiled template with the given name. Templates that were not present at startup
+     * are compiled on first use and kept from then on.
+     *
+     * @param templateName the template path relative to the template directory.
+     * @return the compiled template.
+     * @throws IOException if the template does not exist or fails to compile.
+     */
+    public Template getTemplate(String templateName) throws IOException {
+        if (delegateToConfiguration) {
+            return configuration.getTemplate(templateName);
+        }
+        RegisteredTemplate registered = templates.get(templateName);
+        if (registered == null) {
+            registered = register(templateName);
+        }
+        return registered.getTemplate();
+    }
+
+    /**
+     * Returns the version of the template that {@link #getTemplate} currently serves.
+     *
+     * @param templateName the template path relative to the template directory.
+     * @return the template version, or -1 if edits are picked up by Freemarker itself and cannot be tracked.
+     * @throws IOException if the template does not exist or fails to compile.
+     */
+    public long getVersion(String templateName) throws IOException {
+        if (delegateToConfiguration) {
+            return -1;
+        }
+        RegisteredTemplate registered = templates.get(templateName);
+        if (registered == null) {
+            registered = register(templateName);
+        }
+        return registered.getVersion();
+    }
+
+    /**
+     * Returns the input fields the template that {@link #getTemplate} currently serves can read.
+     *
+     * @param templateName the template path relative to the template directory.
+     * @return the projection, or null if it cannot be determined or edits are picked up by Freemarker itself.
+     * @throws IOException if the template does not exist or fails to compile.
+     */
+    public InputProjection getInputProjection(String templateName) throws IOException {
+        if (delegateToConfiguration) {
+            return null;
+        }
+        RegisteredTemplate registered = templates.get(templateName);
+        if (registered == null) {
+            registered = register(templateName);
+        }
+        return registered.getInputProjection();
+    }
+
+    /**
+     * Counts a render of the template and returns its compiled form once it has been rendered
+     * {@code template.compile.threshold} times.
+     *
+     * @param templateName the template path relative to the template directory.
+     * @return the compiled template, or null if the template is interpreted.
+     * @throws IOException if the template does not exist or fails to compile.
+     */
+    CompiledTemplate getCompiledTemplate(String templateName) throws IOException {
+        if (delegateToConfiguration || compileThreshold <= 0) {
+            return null;
+        }
+        RegisteredTemplate registered = templates.get(templateName);
+        if (registered == null) {
+            registered = register(templateName);
+        }
+        return registered.promote(compileThreshold);
+    }
+
+    /**
+     * Registers a callback that receives the name of every template that is reloaded or removed.
+     *
+     * @param listener the callback; invoked on the watcher thread.
+     */
+    public void addReloadListener(Consumer<String> listener) {
+        reloadListeners.add(listener);
+    }
+
+    /**
+     * Registers a callback that receives every changed file below the template directory, templates
+     * or not, so other registries can reuse the watcher for their own files.
+     *
+     * @param listener the callback; invoked on the watcher thread before the template is reloaded.
+     */
+    public void addFileChangeListener(Consumer<Path> listener) {
+        fileChangeListeners.add(listener);
+    }
+
+    /**
+     * @return the registered template, or null if it has not been loaded.
+     */
+    public RegisteredTemplate getRegistered(String templateName) {
+        return templates.get(templateName);
+    }
+
+    /**
+     * @return all registered templates by name.
+     */
+    public Map<String, RegisteredTemplate> getTemplates() {
+        return Collections.unmodifiableMap(templates);
+    }
+
+    /**
+     * Recompiles the template at the given path and swaps it in, or drops it if the file is gone.
+     * Requests keep using the previous version until the new one is compiled.
+     *
+     * @param file a changed file below the template directory.
+     */
+    void reload(Path file) {
+        // Included or imported files are cached by Freemarker itself.
+        configuration.clearTemplateCache();
+        for (Consumer<Path> listener : fileChangeListeners) {
+            try {
+                listener.accept(file);
+            } catch (RuntimeException e) {
+                logger.warn("File change listener failed for {}.", file, e);
+            }
+        }
+        if (!file.toString().endsWith(TEMPLATE_SUFFIX)) {
+            return;
+        }
+        String name = nameOf(file);
+        if (!Files.isRegularFile(file)) {
+            if (templates.remove(name) != null) {
+                logger.info("Template {} was removed.", name);
+                notifyReloaded(name);
+            }
+            return;
+        }
+        try {
+            RegisteredTemplate compiled = compile(file);
+            RegisteredTemplate previous = templates.get(name);
+            if (previous != null && compiled.getVersion() <= previous.getVersion()) {
+                // Keep versions strictly increasing even when the file time did not move.
+                compiled = new RegisteredTemplate(name, compiled.getTemplate(), previous.getVersion() + 1);
+            }
+            templates.put(name, compiled);
+            logger.info("Reloaded template {}.", name);
+            notifyReloaded(name);
+        } catch (Exception e) {
+            logger.warn("Template {} failed to compile; keeping the previous version.", name, e);
+        }
+    }
+
+    /**
+     * Recompiles every template, e.g. after the watcher lost events. File change listeners see every file.
+     */
+    void reloadAll() throws IOException {
+        try (Stream<Path> paths = Files.walk(templateDir)) {
+            paths.filter(Files::isRegularFile).forEach(this::reload);
+        }
+        templates.keySet().removeIf(name -> {
+            if (Files.isRegularFile(templateDir.resolve(name))) {
+                return false;
+            }
+            notifyReloaded(name);
+            return true;
+        });
+    }
+
+    private void notifyReloaded(String templateName) {
+        for (Consumer<String> listener : reloadListeners) {
+            try {
+                listener.accept(templateName);
+            } catch (RuntimeException e) {
+                logger.warn("Template reload listener failed for {}.", templateName, e);
+            }
+        }
+    }
+
+    private RegisteredTemplate register(String templateName) throws IOException {
+        // Let Freemarker resolve the name so lookups cannot escape the template directory.
+        Template template = configuration.getTemplate(templateName);
+        Path file = templateDir.resolve(template.getName());
+        long version = Files.exists(file) ? Files.getLastModifiedTime(file).toMillis() : 0L;
+        RegisteredTemplate registered = new RegisteredTemplate(template.getName(), template, version);
+        RegisteredTemplate existing = templates.putIfAbsent(templateName, registered);
+        return existing != null ? existing : registered;
+    }
+
+    RegisteredTemplate compile(Path file) throws IOException {
+        String name = nameOf(file);
+        long version = Files.getLastModifiedTime(file).toMillis();
+        Charset encoding = Charset.forName(configuration.getDefaultEncoding());
+        try (Reader reader = Files.newBufferedReader(file, encoding)) {
+            Template template = new Template(name, name, reader, configuration, encoding.name());
+            return new RegisteredTemplate(name, template, version);
+        }
+    }
+
+    private String nameOf(Path file) {
+        return templateDir.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+    }
+
+    private void warmup(RegisteredTemplate registered, Path file) {
+        if (warmupIterations <= 0) {
+            return;
+        }
+        Object dataModel = Collections.emptyMap();
+        String fileName = file.getFileName().toString();
+        Path sample = file.resolveSibling(
+                fileName.substring(0, fileName.length() - TEMPLATE_SUFFIX.length()) + SAMPLE_SUFFIX);
+        try {
+            if (Files.exists(sample)) {
+                dataModel = objectMapper.readTree(sample.toFile());
+            }
+            for (int i = 0; i < warmupIterations; i++) {
+                Environment env = registered.getTemplate().createProcessingEnvironment(dataModel, NullWriter.INSTANCE);
+                env.setTemplateExceptionHandler(TemplateExceptionHandler.IGNORE_HANDLER);
+                env.setCustomAttribute(JsonOutput.ATTRIBUTE, JsonOutput.forWriter(jsonFactory, NullWriter.INSTANCE));
+                env.process();
+            }
+            logger.debug("Warmed up template {} with {} renders.", registered.getName(), warmupIterations);
+        } catch (Exception e) {
+            logger.warn("Warmup of template {} failed; it will be served cold.", registered.getName(), e);
+        }
+    }
+}
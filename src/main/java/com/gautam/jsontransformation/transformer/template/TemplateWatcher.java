@@ -0,0 +1,91 @@
+package com.gautam.jsontransformation.transformer.template;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Watches the template directory tree and pushes changed templates into the {@link TemplateRegistry}
+ * from a background thread, so request threads never touch the file system to pick up edits.
+ */
+class TemplateWatcher implements Runnable {
+    private static final Logger logger = LoggerFactory.getLogger(TemplateWatcher.class);
+
+    private final TemplateRegistry registry;
+    private final Path templateDir;
+    private final WatchService watchService;
+    private final Thread thread;
+
+    TemplateWatcher(TemplateRegistry registry, Path templateDir) throws IOException {
+        this.registry = registry;
+        this.templateDir = templateDir;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        registerTree(templateDir);
+        this.thread = new Thread(this, "template-watcher");
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+        logger.info("Watching {} for template changes.", templateDir);
+    }
+
+    void stop() throws IOException {
+        watchService.close();
+        thread.interrupt();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                // Editors often emit several events per save; handle each changed file once per key.
+                Set<Path> changed = new LinkedHashSet<>();
+                boolean overflow = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        overflow = true;
+                        continue;
+                    }
+                    Path path = ((Path) key.watchable()).resolve((Path) event.context());
+                    if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                        registerTree(path);
+                    }
+                    changed.add(path);
+                }
+                key.reset();
+                if (overflow) {
+                    registry.reloadAll();
+                } else {
+                    changed.forEach(registry::reload);
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            logger.debug("Template watcher stopped.");
+        } catch (IOException e) {
+            logger.error("Template watcher failed; template edits will no longer be picked up.", e);
+        }
+    }
+
+    private void registerTree(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) paths.filter(Files::isDirectory)::iterator) {
+                path.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            }
+        }
+    }
+}
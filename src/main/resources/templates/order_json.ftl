@@ -0,0 +1,18 @@
+<#-- The document of output_template.ftl, emitted through the JSON directives: values are escaped
+     by Jackson and separators are written by the generator, so none are needed here. -->
+<@json.object>
+  <@json.field name="OrderNo" value=order.orderNumber/>
+  <@json.field name="OrderDate" value=order.processed/>
+  <@json.field name="Release" value=order.release/>
+  <@json.array name="OrderLines">
+    <#list order.lines as line>
+      <@json.object>
+        <@json.field name="unit" value=line.unit/>
+        <@json.field name="quantity" value=line.quantity/>
+        <@json.field name="itemNumber" value=line.itemNumber/>
+      </@json.object>
+    </#list>
+  </@json.array>
+  <@json.field name="ExtraInfo" value=extraInfo/>
+  <@json.field name="PluginField" value=pluginAdded/>
+</@json.object>
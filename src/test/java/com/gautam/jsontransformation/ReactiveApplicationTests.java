@@ -0,0 +1,30 @@
+package com.gautam.jsontransformation;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.main.web-application-type=reactive")
+@AutoConfigureWebTestClient
+class ReactiveApplicationTests {
+
+	@Autowired
+	private WebTestClient client;
+
+	@Test
+	void transformsThroughReactiveEndpoint() {
+		client.post().uri("/transform/order_json")
+				.contentType(MediaType.APPLICATION_JSON)
+				.bodyValue("{\"order\": {\"orderNumber\": \"13579\", \"processed\": \"2025-06-07T21:47:00\","
+						+ " \"release\": true, \"lines\": []}}")
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody(String.class).value(body -> assertTrue(body.contains("13579")));
+	}
+
+}
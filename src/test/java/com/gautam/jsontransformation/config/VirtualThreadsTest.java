@@ -0,0 +1,33 @@
+package com.gautam.jsontransformation.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VirtualThreadsTest {
+
+    /**
+     * Virtual threads are found on Java 21+ runtimes; elsewhere asking for them fails with a clear message.
+     */
+    @Test
+    public void testVirtualThreadExecutorMatchesRuntime() throws Exception {
+        boolean expected = Runtime.version().feature() >= 21;
+        assertEquals(expected, VirtualThreads.isSupported());
+
+        if (!expected) {
+            IllegalStateException exception =
+                    assertThrows(IllegalStateException.class, VirtualThreads::newVirtualThreadPerTaskExecutor);
+            assertTrue(exception.getMessage().contains("Java 21"));
+            return;
+        }
+        ExecutorService executor = VirtualThreads.newVirtualThreadPerTaskExecutor();
+        try {
+            assertEquals(Boolean.TRUE, executor.submit(
+                    () -> Thread.class.getMethod("isVirtual").invoke(Thread.currentThread())).get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
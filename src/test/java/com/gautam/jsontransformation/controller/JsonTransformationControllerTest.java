@@ -1,5 +1,7 @@
 package com.gautam.jsontransformation.controller;
 
+import com.gautam.jsontransformation.transformer.AdmissionControl;
+import com.gautam.jsontransformation.transformer.AdmissionRejectedException;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -7,7 +9,11 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -19,6 +25,9 @@ public class JsonTransformationControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private AdmissionControl admissionControl;
+
     /**
      * This test sends a valid JSON payload to the /transform endpoint and expects
      * that the output JSON includes transformed values such as the order number and extra info.
@@ -64,4 +73,186 @@ public class JsonTransformationControllerTest {
                 // Check that the returned error message is present in the response.
                 .andExpect(content().string(containsString("")));
     }
+
+    /**
+     * This test requests the streaming mode of the /transform endpoint and expects the
+     * template output to be written straight into the response body.
+     */
+    @Test
+    public void testTransformJsonStreaming() throws Exception {
+        String inputJson = "{\"order\": {"
+                + "\"orderNumber\": \"67890\","
+                + "\"processed\": \"2025-06-07T21:47:00\","
+                + "\"release\": false,"
+                + "\"lines\": ["
+                + "{ \"unit\": \"kg\", \"quantity\": 3, \"itemNumber\": \"B002\" }"
+                + "]"
+                + "}}";
+
+        mockMvc.perform(post("/transform")
+                        .param("stream", "true")
+                        .content(inputJson)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(content().string(containsString("67890")))
+                .andExpect(content().string(containsString("B002")));
+    }
+
+    /**
+     * Invalid input in streaming mode should produce the error JSON with a 500 status,
+     * since nothing has been written to the response yet.
+     */
+    @Test
+    public void testTransformJsonStreamingError() throws Exception {
+        mockMvc.perform(post("/transform")
+                        .param("stream", "true")
+                        .content("not json")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isInternalServerError())
+                .andExpect(content().string(containsString("Transformation failed")));
+    }
+
+    /**
+     * This test posts NDJSON to the batch endpoint and expects one transformed record per line.
+     */
+    @Test
+    public void testTransformBatchNdjson() throws Exception {
+        String record = "{\"order\": {"
+                + "\"orderNumber\": \"%s\","
+                + "\"processed\": \"2025-06-07T21:47:00\","
+                + "\"release\": true,"
+                + "\"lines\": []"
+                + "}}";
+        String ndjson = String.format(record, "1001") + "\n" + String.format(record, "1002") + "\n";
+
+        mockMvc.perform(post("/transform/batch")
+                        .content(ndjson)
+                        .contentType("application/x-ndjson"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andExpect(content().string(containsString("1001")))
+                .andExpect(content().string(containsString("1002")));
+    }
+
+    /**
+     * Batches are admitted against their template's bulkhead: with every slot of the default template
+     * taken, a batch is shed with 429 and a Retry-After header, and admitted again once slots free up.
+     */
+    @Test
+    public void testTransformBatchAdmission() throws Exception {
+        List<AdmissionControl.Permit> permits = new ArrayList<>();
+        try {
+            while (true) {
+                permits.add(admissionControl.admitBatch("output_template.ftl", 0));
+            }
+        } catch (AdmissionRejectedException e) {
+            assertEquals(AdmissionRejectedException.Reason.TEMPLATE_CONCURRENCY, e.getReason());
+        }
+        try {
+            mockMvc.perform(post("/transform/batch")
+                            .content("{\"order\": {}}\n")
+                            .contentType("application/x-ndjson"))
+                    .andExpect(status().isTooManyRequests())
+                    .andExpect(header().string("Retry-After", "1"));
+        } finally {
+            permits.forEach(AdmissionControl.Permit::close);
+        }
+
+        mockMvc.perform(post("/transform/batch")
+                        .content("{\"order\": {\"orderNumber\": \"1003\", \"processed\": \"2025-06-07T21:47:00\","
+                                + "\"release\": true, \"lines\": []}}\n")
+                        .contentType("application/x-ndjson"))
+                .andExpect(status().isOk());
+        assertEquals(0, admissionControl.getInFlightBytes());
+    }
+
+    /**
+     * The template can be selected through the URL path (with or without its suffix) or the routing
+     * header; an unknown template yields the error JSON.
+     */
+    @Test
+    public void testTransformJsonWithSelectedTemplate() throws Exception {
+        String inputJson = "{\"order\": {"
+                + "\"orderNumber\": \"24680\","
+                + "\"processed\": \"2025-06-07T21:47:00\","
+                + "\"release\": true,"
+                + "\"lines\": []"
+                + "}}";
+
+        mockMvc.perform(post("/transform/output_template")
+                        .content(inputJson)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("24680")));
+
+        mockMvc.perform(post("/transform")
+                        .header("X-Template", "output_template.ftl")
+                        .content(inputJson)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("24680")));
+
+        mockMvc.perform(post("/transform/no_such_template")
+                        .content(inputJson)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().string(containsString("Transformation failed")));
+    }
+
+    /**
+     * Templates written with the JSON directives escape values from the input.
+     */
+    @Test
+    public void testTransformJsonWithJsonDirectivesTemplate() throws Exception {
+        String inputJson = "{\"order\": {"
+                + "\"orderNumber\": \"12\\\"345\","
+                + "\"processed\": \"2025-06-07T21:47:00\","
+                + "\"release\": true,"
+                + "\"lines\": [{ \"unit\": \"pcs\", \"quantity\": 10, \"itemNumber\": \"A001\" }]"
+                + "}}";
+
+        mockMvc.perform(post("/transform/order_json")
+                        .content(inputJson)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.OrderNo").value("12\"345"))
+                .andExpect(jsonPath("$.OrderLines[0].quantity").value(10))
+                .andExpect(jsonPath("$.ExtraInfo").value("Value from REST endpoint"));
+    }
+
+    /**
+     * A mapping spec is selected like a template and rendered by the mapping engine, in both the
+     * buffered and the streaming mode.
+     */
+    @Test
+    public void testTransformJsonWithMapping() throws Exception {
+        String inputJson = "{\"order\": {"
+                + "\"orderNumber\": \"13579\","
+                + "\"processed\": \"2025-06-07T21:47:00\","
+                + "\"release\": false,"
+                + "\"lines\": [{ \"unit\": \"pcs\", \"quantity\": 4, \"itemNumber\": \"C003\" }],"
+                + "\"unused\": {\"deep\": [1, 2, 3]}"
+                + "}}";
+
+        mockMvc.perform(post("/transform/order.mapping.json")
+                        .content(inputJson)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.OrderNo").value("13579"))
+                .andExpect(jsonPath("$.Release").value(false))
+                .andExpect(jsonPath("$.OrderLines[0].quantity").value(4))
+                .andExpect(jsonPath("$.ExtraInfo").value("Value from REST endpoint"))
+                .andExpect(jsonPath("$.PluginField").exists());
+
+        mockMvc.perform(post("/transform")
+                        .param("stream", "true")
+                        .header("X-Template", "order.mapping.json")
+                        .content(inputJson)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.OrderLines[0].itemNumber").value("C003"));
+    }
 }
@@ -0,0 +1,127 @@
+package com.gautam.jsontransformation.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gautam.jsontransformation.config.ReactiveTransformationConfiguration;
+import com.gautam.jsontransformation.transformer.JsonTransformerHandler;
+import com.gautam.jsontransformation.transformer.TemplateRouter;
+import com.gautam.jsontransformation.transformer.template.TemplateEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ReactiveTransformationHandlerTest {
+
+    private WebTestClient client;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        TemplateEngine templateEngine = mock(TemplateEngine.class);
+        when(templateEngine.process(anyString(), anyMap())).thenAnswer(invocation -> {
+            Map<String, Object> dataModel = invocation.getArgument(1);
+            return "{\"template\":\"" + invocation.getArgument(0) + "\",\"id\":" + dataModel.get("id") + "}";
+        });
+        JsonTransformerHandler transformer = new JsonTransformerHandler(templateEngine, null, null, null);
+        TemplateRouter router = new TemplateRouter("output_template.ftl", null, Collections.emptyMap());
+        ReactiveTransformationHandler handler = new ReactiveTransformationHandler(
+                transformer, router, "X-Template", Schedulers.parallel(), 4);
+        client = WebTestClient.bindToRouterFunction(
+                new ReactiveTransformationConfiguration().transformationRoutes(handler)).build();
+    }
+
+    /**
+     * A single document is transformed with the template from the path; bad input and bodies with
+     * more than one document yield the error JSON.
+     */
+    @Test
+    public void testTransform() {
+        client.post().uri("/transform/invoice")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"id\": 7}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("{\"template\":\"invoice.ftl\",\"id\":7}");
+
+        client.post().uri("/transform")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("[1, 2]")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).value(body -> assertTrue(body.contains("Transformation failed")));
+
+        // Trailing values are not dropped silently.
+        client.post().uri("/transform/invoice")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"id\": 7} {\"id\": 8}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).value(body -> assertTrue(body.contains("Transformation failed")));
+    }
+
+    /**
+     * Batches keep their input order and framing: arrays are answered with an array, NDJSON line by line.
+     */
+    @Test
+    public void testTransformBatch() {
+        StringBuilder input = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            input.append("{\"id\":").append(i).append("}\n");
+            expected.append("{\"template\":\"output_template.ftl\",\"id\":").append(i).append("}\n");
+        }
+        client.post().uri("/transform/batch")
+                .contentType(ReactiveTransformationHandler.NDJSON)
+                .bodyValue(input.toString())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(ReactiveTransformationHandler.NDJSON)
+                .expectBody(String.class).isEqualTo(expected.toString());
+
+        client.post().uri("/transform/batch/invoice")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("[{\"id\":1},{\"id\":2}]")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo(
+                        "[{\"template\":\"invoice.ftl\",\"id\":1},{\"template\":\"invoice.ftl\",\"id\":2}]");
+    }
+
+    /**
+     * Records split across arbitrary body chunks are reassembled by the non-blocking parser.
+     */
+    @Test
+    public void testTokenizerReassemblesChunkedRecords() {
+        byte[] bytes = "[{\"id\": 1, \"tags\": [\"a\", {\"b\": null}]}, 2, \"three\"]".getBytes(StandardCharsets.UTF_8);
+        List<DataBuffer> chunks = new ArrayList<>();
+        for (int offset = 0; offset < bytes.length; offset += 3) {
+            int length = Math.min(3, bytes.length - offset);
+            chunks.add(DefaultDataBufferFactory.sharedInstance.wrap(Arrays.copyOfRange(bytes, offset, offset + length)));
+        }
+
+        List<JsonNode> records = JsonRecordTokenizer.tokenize(Flux.fromIterable(chunks), new ObjectMapper(), true)
+                .collectList().block();
+
+        assertEquals(3, records.size());
+        assertEquals("a", records.get(0).get("tags").get(0).textValue());
+        assertEquals(2, records.get(1).intValue());
+        assertEquals("three", records.get(2).textValue());
+        assertThrows(Exception.class, () -> JsonRecordTokenizer.tokenize(
+                Flux.just(DefaultDataBufferFactory.sharedInstance.wrap("{\"id\": ".getBytes(StandardCharsets.UTF_8))),
+                new ObjectMapper(), true).blockLast());
+    }
+}
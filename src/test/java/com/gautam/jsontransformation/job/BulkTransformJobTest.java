@@ -0,0 +1,163 @@
+package com.gautam.jsontransformation.job;
+
+import com.gautam.jsontransformation.transformer.JsonTransformerHandler;
+import com.gautam.jsontransformation.transformer.MappedFileDataLoader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class BulkTransformJobTest {
+
+    /**
+     * Test case for a full run followed by a restart: matching files are transformed to the same
+     * relative paths, and the second run skips everything recorded in the checkpoint.
+     */
+    @Test
+    public void testRunTransformsMatchingFilesAndResumes(@TempDir Path tempDir) throws Exception {
+        // Arrange
+        Path input = tempDir.resolve("in");
+        Files.createDirectories(input.resolve("nested"));
+        Files.write(input.resolve("a.json"), "{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+        Files.write(input.resolve("nested/b.json"), "{\"id\":2}".getBytes(StandardCharsets.UTF_8));
+        Files.write(input.resolve("notes.txt"), "ignored".getBytes(StandardCharsets.UTF_8));
+        Path output = tempDir.resolve("out");
+        Path checkpoint = output.resolve(".transform-checkpoint");
+
+        JsonTransformerHandler transformer = mock(JsonTransformerHandler.class);
+        when(transformer.transform(eq("template.ftl"), any(InputStream.class), any()))
+                .thenAnswer(invocation -> "out:" + new String(
+                        invocation.<InputStream>getArgument(1).readAllBytes(), StandardCharsets.UTF_8));
+        BulkTransformJob job = new BulkTransformJob(transformer, "template.ftl", input, "**.json", output, checkpoint);
+        job.setConcurrency(2, 1);
+
+        // Act
+        BulkTransformJob.Summary first = job.run();
+        BulkTransformJob.Summary second = job.run();
+
+        // Assert
+        assertEquals(2, first.getTransformed());
+        assertEquals(0, first.getFailed());
+        assertEquals("out:{\"id\":2}", new String(Files.readAllBytes(output.resolve("nested/b.json")), StandardCharsets.UTF_8));
+        assertFalse(Files.exists(output.resolve("notes.txt")));
+        assertEquals(0, second.getTransformed());
+        assertEquals(2, second.getSkipped());
+        verify(transformer, times(2)).transform(eq("template.ftl"), any(InputStream.class), any());
+    }
+
+    /**
+     * Test case for a failing file: the others are still written, the failure is not checkpointed
+     * so the next run retries it, and no temporary files are left behind.
+     */
+    @Test
+    public void testFailedFileIsRetriedByNextRun(@TempDir Path tempDir) throws Exception {
+        // Arrange
+        Path input = tempDir.resolve("in");
+        Files.createDirectories(input);
+        Files.write(input.resolve("good.json"), "{\"ok\":true}".getBytes(StandardCharsets.UTF_8));
+        Files.write(input.resolve("bad.json"), "{\"ok\":false}".getBytes(StandardCharsets.UTF_8));
+        Path output = tempDir.resolve("out");
+        Path checkpoint = tempDir.resolve("checkpoint");
+
+        JsonTransformerHandler transformer = mock(JsonTransformerHandler.class);
+        when(transformer.transform(eq("template.ftl"), any(InputStream.class), any())).thenAnswer(invocation -> {
+            String json = new String(invocation.<InputStream>getArgument(1).readAllBytes(), StandardCharsets.UTF_8);
+            if (json.contains("false")) {
+                throw new IllegalStateException("Render failed");
+            }
+            return json;
+        });
+        BulkTransformJob job = new BulkTransformJob(transformer, "template.ftl", input, "*.json", output, checkpoint);
+
+        // Act
+        BulkTransformJob.Summary summary = job.run();
+
+        // Assert
+        assertEquals(1, summary.getTransformed());
+        assertEquals(1, summary.getFailed());
+        assertEquals(List.of("good.json"), Files.readAllLines(checkpoint));
+        try (Stream<Path> files = Files.list(output)) {
+            assertEquals(List.of("good.json"), files.map(file -> file.getFileName().toString()).collect(Collectors.toList()));
+        }
+    }
+
+    /**
+     * Test case for a memory-mapped run: the worker hands the loader's stream to the transformer as
+     * it is, instead of first copying the file onto the heap.
+     */
+    @Test
+    public void testStreamsInputFromLoader(@TempDir Path tempDir) throws Exception {
+        // Arrange
+        Path input = tempDir.resolve("in");
+        Files.createDirectories(input);
+        Files.write(input.resolve("big.json"), "{\"id\":3}".getBytes(StandardCharsets.UTF_8));
+        Path output = tempDir.resolve("out");
+
+        List<InputStream> opened = new CopyOnWriteArrayList<>();
+        JsonTransformerHandler transformer = mock(JsonTransformerHandler.class);
+        when(transformer.transform(eq("template.ftl"), any(InputStream.class), any())).thenAnswer(invocation -> {
+            assertSame(opened.get(0), invocation.getArgument(1));
+            return new String(invocation.<InputStream>getArgument(1).readAllBytes(), StandardCharsets.UTF_8);
+        });
+        BulkTransformJob job = new BulkTransformJob(transformer, "template.ftl", input, "*.json", output,
+                tempDir.resolve("checkpoint"));
+        job.setDataLoaders(file -> new MappedFileDataLoader(file.toString()) {
+            @Override
+            public String loadData() {
+                throw new AssertionError("The input must not be loaded as a whole");
+            }
+
+            @Override
+            public InputStream openStream() throws IOException {
+                InputStream in = super.openStream();
+                opened.add(in);
+                return in;
+            }
+        });
+
+        // Act
+        BulkTransformJob.Summary summary = job.run();
+
+        // Assert
+        assertEquals(1, summary.getTransformed());
+        assertEquals(1, opened.size());
+        assertEquals("{\"id\":3}", new String(Files.readAllBytes(output.resolve("big.json")), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Test case for a checkpoint torn by a crash: the entry without its newline is dropped, so the file
+     * it named is redone, and new entries start on a line of their own.
+     */
+    @Test
+    public void testCheckpointDropsTornLastEntry(@TempDir Path tempDir) throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("checkpoint");
+        Files.write(file, "a.json\nb.js".getBytes(StandardCharsets.UTF_8));
+
+        // Act
+        try (TransformCheckpoint checkpoint = new TransformCheckpoint(file)) {
+            assertTrue(checkpoint.isDone("a.json"));
+            assertFalse(checkpoint.isDone("b.js"));
+            checkpoint.markDone("c.json");
+        }
+
+        // Assert
+        assertEquals(List.of("a.json", "c.json"), Files.readAllLines(file));
+        try (TransformCheckpoint reopened = new TransformCheckpoint(file)) {
+            assertEquals(2, reopened.size());
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.gautam.jsontransformation.transformer;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdmissionControlTest {
+
+    /**
+     * Test case for the per-template bulkheads: a saturated template is rejected with 429 while
+     * other templates are still admitted, and a closed permit frees its slot.
+     */
+    @Test
+    public void testTemplateBulkheads() throws Exception {
+        // Arrange
+        AdmissionControl admission = new AdmissionControl(1,
+                Collections.singletonMap("wide.ftl", 2), 0, null);
+
+        // Act
+        AdmissionControl.Permit first = admission.admit("slow.ftl", 10);
+        AdmissionRejectedException rejected = assertThrows(AdmissionRejectedException.class,
+                () -> admission.admit("slow.ftl", 10));
+        AdmissionControl.Permit other = admission.admit("fast.ftl", 10);
+        admission.admit("wide.ftl", 10);
+        admission.admit("wide.ftl", 10);
+        first.close();
+        first.close();
+
+        // Assert
+        assertEquals(AdmissionRejectedException.Reason.TEMPLATE_CONCURRENCY, rejected.getReason());
+        assertEquals(429, rejected.getReason().getStatus());
+        assertNotNull(other);
+        assertThrows(AdmissionRejectedException.class, () -> admission.admit("wide.ftl", 10));
+        // Closing twice released the slot once.
+        admission.admit("slow.ftl", 10);
+        assertThrows(AdmissionRejectedException.class, () -> admission.admit("slow.ftl", 10));
+    }
+
+    /**
+     * Test case for the byte budget: payloads are charged by their declared length until the budget
+     * is used up, an oversized payload only runs alone, and unknown lengths are charged a fixed size.
+     */
+    @Test
+    public void testInFlightBytesBudget() throws Exception {
+        // Arrange
+        AdmissionControl admission = new AdmissionControl(0, null, 100, null);
+        admission.setUnknownLengthBytes(30);
+
+        // Act & Assert
+        AdmissionControl.Permit first = admission.admit("template.ftl", 60);
+        AdmissionRejectedException rejected = assertThrows(AdmissionRejectedException.class,
+                () -> admission.admit("template.ftl", 50));
+        assertEquals(AdmissionRejectedException.Reason.IN_FLIGHT_BYTES, rejected.getReason());
+        assertEquals(503, rejected.getReason().getStatus());
+        AdmissionControl.Permit unknown = admission.admit("template.ftl", -1);
+        assertEquals(90, admission.getInFlightBytes());
+        assertThrows(AdmissionRejectedException.class, () -> admission.admit("template.ftl", -1));
+        assertThrows(AdmissionRejectedException.class, () -> admission.admit("template.ftl", 500));
+
+        first.close();
+        unknown.close();
+        AdmissionControl.Permit oversized = admission.admit("template.ftl", 500);
+        assertThrows(AdmissionRejectedException.class, () -> admission.admit("template.ftl", 1));
+        oversized.close();
+        assertEquals(0, admission.getInFlightBytes());
+    }
+
+    /**
+     * Test case for requests routed by their payload: they are admitted without a bulkhead and take
+     * one when they enter the transformation. Templates nobody knows get no bulkhead at all.
+     */
+    @Test
+    public void testBulkheadsOfRoutedAndUnknownTemplates() throws Exception {
+        // Arrange
+        AdmissionControl admission = new AdmissionControl(1, null, 0, null);
+        admission.setKnownTemplates("known.ftl"::equals);
+
+        // Act
+        AdmissionControl.Permit routed = admission.admit(null, 10);
+        AdmissionControl.Permit other = admission.admit(null, 10);
+        routed.enter("known.ftl");
+        AdmissionRejectedException rejected = assertThrows(AdmissionRejectedException.class,
+                () -> other.enter("known.ftl"));
+
+        // Assert
+        assertEquals(AdmissionRejectedException.Reason.TEMPLATE_CONCURRENCY, rejected.getReason());
+        assertThrows(AdmissionRejectedException.class, () -> admission.admit("known.ftl", 10));
+        for (int i = 0; i < AdmissionControl.MAX_TEMPLATES + 1; i++) {
+            admission.admit("bogus" + i + ".ftl", 10);
+            admission.admit("bogus" + i + ".ftl", 10);
+        }
+        routed.close();
+        other.close();
+        admission.admit("known.ftl", 10);
+    }
+
+    /**
+     * Test case for batches: they are charged to the bulkhead and the byte budget, but never take or
+     * sample the adaptive limit.
+     */
+    @Test
+    public void testBatchesSkipAdaptiveLimit() throws Exception {
+        // Arrange
+        AimdLimiter limiter = new AimdLimiter(2, 1, 3, Duration.ofMillis(50).toNanos(), 0.5);
+        AdmissionControl admission = new AdmissionControl(1, null, 100, limiter);
+        admission.setUnknownLengthBytes(30);
+
+        // Act
+        AdmissionControl.Permit batch = admission.admitBatch("batch.ftl", -1);
+        AdmissionRejectedException saturated = assertThrows(AdmissionRejectedException.class,
+                () -> admission.admitBatch("batch.ftl", 10));
+        AdmissionRejectedException overBudget = assertThrows(AdmissionRejectedException.class,
+                () -> admission.admitBatch("other.ftl", 80));
+        AdmissionControl.Permit single = admission.admit("template.ftl", 10);
+        long inFlightBytes = admission.getInFlightBytes();
+        int inFlight = limiter.getInFlight();
+        batch.enter("batch.ftl");
+        Thread.sleep(100);
+        batch.close();
+        single.close();
+
+        // Assert
+        assertEquals(AdmissionRejectedException.Reason.TEMPLATE_CONCURRENCY, saturated.getReason());
+        assertEquals(AdmissionRejectedException.Reason.IN_FLIGHT_BYTES, overBudget.getReason());
+        assertEquals(40, inFlightBytes);
+        assertEquals(1, inFlight);
+        assertEquals(2, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(0, admission.getInFlightBytes());
+        admission.admitBatch("batch.ftl", 10);
+    }
+
+    /**
+     * Test case for the latency fed to the adaptive limit: only the time between entering and exiting
+     * the transformation counts, and a request that never transformed is no sample at all.
+     */
+    @Test
+    public void testLimitSamplesTransformationTimeOnly() throws Exception {
+        // Arrange
+        long target = Duration.ofMillis(50).toNanos();
+        AimdLimiter limiter = new AimdLimiter(4, 2, 5, target, 0.5);
+        AdmissionControl admission = new AdmissionControl(0, null, 0, limiter);
+
+        // Act & Assert: a slow upload before the transformation does not count.
+        AdmissionControl.Permit slowUpload = admission.admit("template.ftl", 0);
+        Thread.sleep(100);
+        slowUpload.enter("template.ftl");
+        slowUpload.exit();
+        Thread.sleep(100);
+        slowUpload.close();
+        assertEquals(4, limiter.getLimit());
+
+        admission.admit("template.ftl", 0).close();
+        assertEquals(4, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+
+        // A slow transformation does, also when the permit is closed before exiting.
+        AdmissionControl.Permit slowTransform = admission.admit("template.ftl", 0);
+        slowTransform.enter("template.ftl");
+        Thread.sleep(100);
+        slowTransform.close();
+        assertEquals(2, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    /**
+     * Test case for the adaptive limit: requests over the limit are shed, slow completions cut the
+     * limit multiplicatively (once per target interval) and fast ones under load grow it additively.
+     */
+    @Test
+    public void testAimdLimit() throws Exception {
+        // Arrange
+        long target = Duration.ofMillis(100).toNanos();
+        AimdLimiter limiter = new AimdLimiter(4, 2, 5, target, 0.5);
+        AdmissionControl admission = new AdmissionControl(0, null, 0, limiter);
+
+        // Act & Assert: the limit is enforced without queueing.
+        for (int i = 0; i < 4; i++) {
+            admission.admit("template.ftl", 0);
+        }
+        AdmissionRejectedException rejected = assertThrows(AdmissionRejectedException.class,
+                () -> admission.admit("template.ftl", 0));
+        assertEquals(AdmissionRejectedException.Reason.CONCURRENCY_LIMIT, rejected.getReason());
+
+        // Fast completions at full load grow the limit by one per limit's worth of them.
+        for (int i = 0; i < 5; i++) {
+            limiter.release(target / 10);
+            assertTrue(limiter.tryAcquire());
+        }
+        assertEquals(5, limiter.getLimit());
+
+        // A burst of slow completions halves it once.
+        limiter.release(target * 2);
+        limiter.release(target * 2);
+        assertEquals(2, limiter.getLimit());
+        assertEquals(2, limiter.getInFlight());
+        assertFalse(limiter.tryAcquire());
+    }
+}
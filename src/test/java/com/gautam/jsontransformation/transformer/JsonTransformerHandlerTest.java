@@ -1,13 +1,37 @@
 package com.gautam.jsontransformation.transformer;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.gautam.jsontransformation.transformer.template.InputProjection;
 import com.gautam.jsontransformation.transformer.template.TemplateEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class JsonTransformerHandlerTest {
 
@@ -51,8 +75,9 @@ public class JsonTransformerHandlerTest {
 
         // Assert
         assertEquals(processedOutput, result);
-        verify(inputValidator, times(1)).validate(inputJson);
-        verify(outputValidator, times(1)).validate(processedOutput);
+        // The input is validated as the already parsed tree, not re-parsed from its text.
+        verify(inputValidator, times(1)).validate(templateName, new ObjectMapper().readTree(inputJson));
+        verify(outputValidator, times(1)).validate(templateName, processedOutput);
         verify(plugin, times(1)).beforeProcessing(anyMap());
         verify(plugin, times(1)).afterProcessing(processedOutput);
     }
@@ -74,7 +99,8 @@ public class JsonTransformerHandlerTest {
         Map<String, Object> extraParams = Collections.emptyMap();
 
         // Force the input validator to throw an exception.
-        doThrow(new Exception("Input JSON schema error")).when(inputValidator).validate(invalidInputJson);
+        doThrow(new Exception("Input JSON schema error")).when(inputValidator)
+                .validate(eq(templateName), any(JsonNode.class));
 
         JsonTransformerHandler handler = new JsonTransformerHandler(
                 templateEngine,
@@ -108,7 +134,7 @@ public class JsonTransformerHandlerTest {
         // The template engine returns output that fails validation.
         String outputJson = "{\"result\":\"invalid\"}";
         when(templateEngine.process(eq(templateName), anyMap())).thenReturn(outputJson);
-        doThrow(new Exception("Output JSON schema error")).when(outputValidator).validate(outputJson);
+        doThrow(new Exception("Output JSON schema error")).when(outputValidator).validate(templateName, outputJson);
 
         JsonTransformerHandler handler = new JsonTransformerHandler(
                 templateEngine,
@@ -155,4 +181,541 @@ public class JsonTransformerHandlerTest {
         assertEquals(expectedOutput, result);
         verify(templateEngine, times(1)).process(eq(templateName), anyMap());
     }
+
+    /**
+     * Test case for streaming transformation: the engine renders into the caller's writer and
+     * the post-processing hook and output validator are bypassed.
+     */
+    @Test
+    public void testTransformToWriter() throws Exception {
+        // Arrange
+        TemplateEngine templateEngine = mock(TemplateEngine.class);
+        TransformerPlugin plugin = mock(TransformerPlugin.class);
+        JsonSchemaValidator inputValidator = mock(JsonSchemaValidator.class);
+        JsonSchemaValidator outputValidator = mock(JsonSchemaValidator.class);
+
+        String templateName = "template.ftl";
+        String inputJson = "{\"name\":\"Alice\"}";
+        when(plugin.beforeProcessing(anyMap())).thenAnswer(invocation -> invocation.getArgument(0));
+        doAnswer(invocation -> {
+            Writer out = invocation.getArgument(2);
+            out.write("{\"streamed\":true}");
+            return null;
+        }).when(templateEngine).process(eq(templateName), anyMap(), any(Writer.class));
+
+        JsonTransformerHandler handler = new JsonTransformerHandler(
+                templateEngine,
+                plugin,
+                inputValidator,
+                outputValidator);
+
+        // Act
+        StringWriter out = new StringWriter();
+        handler.transformTo(templateName, inputJson, Collections.emptyMap(), out);
+
+        // Assert
+        assertEquals("{\"streamed\":true}", out.toString());
+        verify(inputValidator, times(1)).validate(eq(templateName), any(JsonNode.class));
+        verify(plugin, times(1)).beforeProcessing(anyMap());
+        verify(plugin, never()).afterProcessing(any());
+        verifyNoInteractions(outputValidator);
+    }
+
+    /**
+     * Test case for transforming to a byte stream: the engine renders into a pooled UTF-8 buffer,
+     * the output is validated from the encoded bytes and only the complete document is written.
+     */
+    @Test
+    public void testTransformToOutputStream() throws Exception {
+        // Arrange
+        TemplateEngine templateEngine = mock(TemplateEngine.class);
+        JsonSchemaValidator outputValidator = mock(JsonSchemaValidator.class);
+        when(outputValidator.validates("template.ftl")).thenReturn(true);
+        doAnswer(invocation -> {
+            Writer out = invocation.getArgument(2);
+            out.write("{\"name\":\"Zo\u00eb \ud83d\ude00\"}");
+            return null;
+        }).when(templateEngine).process(eq("template.ftl"), anyMap(), any(Writer.class));
+
+        JsonTransformerHandler handler = new JsonTransformerHandler(templateEngine, null, null, outputValidator);
+        OutputBufferPool pool = new OutputBufferPool(2, 1 << 20);
+        handler.setOutputBufferPool(pool);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        handler.setMetrics(new TransformMetrics(registry));
+
+        // Act
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        handler.transform("template.ftl", "{\"name\":\"Alice\"}", Collections.emptyMap(), out);
+        doThrow(new RuntimeException("render failed"))
+                .when(templateEngine).process(eq("template.ftl"), anyMap(), any(Writer.class));
+        ByteArrayOutputStream failed = new ByteArrayOutputStream();
+        assertThrows(RuntimeException.class, () ->
+                handler.transform("template.ftl", "{}", Collections.emptyMap(), failed));
+
+        // Assert
+        String expected = "{\"name\":\"Zo\u00eb \ud83d\ude00\"}";
+        assertArrayEquals(expected.getBytes(StandardCharsets.UTF_8), out.toByteArray());
+        assertEquals(0, failed.size());
+        assertEquals(expected.getBytes(StandardCharsets.UTF_8).length, pool.expectedSize("template.ftl"));
+        assertEquals(expected.getBytes(StandardCharsets.UTF_8).length,
+                registry.get("transform.output.size").summary().totalAmount());
+        verify(outputValidator, times(1)).validate("template.ftl", new ObjectMapper().readTree(expected));
+    }
+
+    /**
+     * Test case for transforming a document read from a byte stream: it is parsed from the bytes
+     * and goes through the same validation as a string input, and the stream is left open.
+     */
+    @Test
+    public void testTransformInputStream() throws Exception {
+        // Arrange
+        TemplateEngine templateEngine = mock(TemplateEngine.class);
+        JsonSchemaValidator inputValidator = mock(JsonSchemaValidator.class);
+        when(templateEngine.process(eq("template.ftl"), anyMap())).thenAnswer(invocation -> {
+            Map<String, Object> dataModel = invocation.getArgument(1);
+            return "{\"id\":" + dataModel.get("id") + "}";
+        });
+        JsonTransformerHandler handler = new JsonTransformerHandler(templateEngine, null, inputValidator, null);
+        AtomicBoolean closed = new AtomicBoolean();
+        InputStream input = new ByteArrayInputStream("{\"id\":7}".getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+
+        // Act
+        String result = handler.transform("template.ftl", input, null);
+
+        // Assert
+        assertEquals("{\"id\":7}", result);
+        verify(inputValidator).validate(eq("template.ftl"), any(JsonNode.class));
+        assertFalse(closed.get());
+    }
+
+    /**
+     * Test case for input projection: fields the template does not read are not parsed, unless the
+     * input is validated against a schema, which needs the whole document.
+     */
+    @Test
+    public void testInputProjectionSkipsUnreadFields() throws Exception {
+        // Arrange
+        TemplateEngine templateEngine = mock(TemplateEngine.class);
+        when(templateEngine.getInputProjection("template.ftl")).thenReturn(InputProjection.ofPaths("order.id"));
+        when(templateEngine.process(eq("template.ftl"), anyMap())).thenAnswer(invocation -> {
+            Map<String, Object> dataModel = invocation.getArgument(1);
+            return "{\"order\":" + dataModel.get("order") + ",\"noise\":" + dataModel.containsKey("noise") + "}";
+        });
+        JsonSchemaValidator inputValidator = mock(JsonSchemaValidator.class);
+        String input = "{\"noise\":[1,2,3],\"order\":{\"id\":1,\"comment\":\"x\"}}";
+
+        JsonTransformerHandler handler = new JsonTransformerHandler(templateEngine, null, inputValidator, null);
+        handler.setInputProjection(true);
+        when(inputValidator.validates("template.ftl")).thenReturn(true);
+
+        // Act
+        String validated = handler.transform("template.ftl", input, null);
+        when(inputValidator.validates("template.ftl")).thenReturn(false);
+        String projected = handler.transform("template.ftl", input, null);
+
+        // Assert
+        assertEquals("{\"order\":{\"id\":1,\"comment\":\"x\"},\"noise\":true}", validated);
+        assertEquals("{\"order\":{\"id\":1},\"noise\":false}", projected);
+    }
+
+    /**
+     * Test case for batch transformation of a top-level JSON array: every element is rendered
+     * separately and the results are written back as an array.
+     */
+    @Test
+    public void testTransformBatchArray() throws Exception {
+        // Arrange
+        TemplateEngine templateEngine = mock(TemplateEngine.class);
+        when(templateEngine.process(eq("template.ftl"), anyMap())).thenAnswer(invocation -> {
+            Map<String, Object> dataModel = invocation.getArgument(1);
+            return "{\"id\":" + dataModel.get("id") + "}";
+        });
+        JsonTransformerHandler handler = new JsonTransformerHandler(templateEngine, null, null, null);
+
+        InputStream input = new ByteArrayInputStream(
+                "[{\"id\":1},{\"id\":2},{\"id\":3}]".getBytes(StandardCharsets.UTF_8));
+        StringWriter out = new StringWriter();
+
+        // Act
+        long records = handler.transformBatch("template.ftl", input, null, out);
+
+        // Assert
+        assertEquals(3, records);
+        assertEquals("[{\"id\":1},{\"id\":2},{\"id\":3}]", out.toString());
+    }
+
+    /**
+     * Test case for batch transformation of NDJSON input: one output line per record, with the
+     * plugin hooks and validators applied to each record.
+     */
+    @Test
+    public void testTransformBatchNdjson() throws Exception {
+        // Arrange
+        TemplateEngine templateEngine = mock(TemplateEngine.class);
+        TransformerPlugin plugin = mock(TransformerPlugin.class);
+        JsonSchemaValidator inputValidator = mock(JsonSchemaValidator.class);
+        JsonSchemaValidator outputValidator = mock(JsonSchemaValidator.class);
+        when(plugin.beforeProcessing(anyMap())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(plugin.afterProcessing(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(templateEngine.process(eq("template.ftl"), anyMap())).thenAnswer(invocation -> {
+            Map<String, Object> dataModel = invocation.getArgument(1);
+            return "{\"id\":" + dataModel.get("id") + ",\"tag\":\"" + dataModel.get("tag") + "\"}";
+        });
+        JsonTransformerHandler handler = new JsonTransformerHandler(
+                templateEngine, plugin, inputValidator, outputValidator);
+
+        InputStream input = new ByteArrayInputStream(
+                "{\"id\":1}\n{\"id\":2}\n".getBytes(StandardCharsets.UTF_8));
+        StringWriter out = new StringWriter();
+
+        // Act
+        long records = handler.transformBatch("template.ftl", input, Collections.singletonMap("tag", "x"), out);
+
+        // Assert
+        assertEquals(2, records);
+        assertEquals("{\"id\":1,\"tag\":\"x\"}\n{\"id\":2,\"tag\":\"x\"}\n", out.toString());
+        verify(inputValidator, times(2)).validate(eq("template.ftl"), any(JsonNode.class));
+        verify(outputValidator, times(2)).validate(eq("template.ftl"), anyString());
+        verify(plugin, times(2)).beforeProcessing(anyMap());
+    }
+
+    /**
+     * Test case for batch transformation with a plugin batch size: the plugin prepares the records
+     * in chunks through beforeProcessingBatch instead of once per record.
+     */
+    @Test
+    public void testTransformBatchPluginChunks() throws Exception {
+        // Arrange
+        TemplateEngine templateEngine = mock(TemplateEngine.class);
+        TransformerPlugin plugin = mock(TransformerPlugin.class);
+        when(plugin.beforeProcessingBatch(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(plugin.afterProcessing(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(templateEngine.process(eq("template.ftl"), anyMap())).thenAnswer(invocation -> {
+            Map<String, Object> dataModel = invocation.getArgument(1);
+            return "{\"id\":" + dataModel.get("id") + "}";
+        });
+        JsonTransformerHandler handler = new JsonTransformerHandler(templateEngine, plugin, null, null);
+        handler.setPluginBatchSize(2);
+
+        InputStream input = new ByteArrayInputStream(
+                "[{\"id\":1},{\"id\":2},{\"id\":3}]".getBytes(StandardCharsets.UTF_8));
+        StringWriter out = new StringWriter();
+
+        // Act
+        long records = handler.transformBatch("template.ftl", input, null, out);
+
+        // Assert
+        assertEquals(3, records);
+        assertEquals("[{\"id\":1},{\"id\":2},{\"id\":3}]", out.toString());
+        verify(plugin, times(2)).beforeProcessingBatch(anyList());
+        verify(plugin, never()).beforeProcessing(anyMap());
+    }
+
+    /**
+     * Test case for parallel batch transformation with ordered output: records that finish out of
+     * order must still be written in input order.
+     */
+    @Test
+    public void testTransformBatchParallelPreservesOrder() throws Exception {
+        // Arrange: earlier records take longer, so they complete last.
+        TemplateEngine templateEngine = mock(TemplateEngine.class);
+        when(templateEngine.process(eq("template.ftl"), anyMap())).thenAnswer(invocation -> {
+            Map<String, Object> dataModel = invocation.getArgument(1);
+            int id = Integer.parseInt(dataModel.get("id").toString());
+            Thread.sleep((10 - id) * 5L);
+            return String.valueOf(id);
+        });
+        JsonTransformerHandler handler = new JsonTransformerHandler(templateEngine, null, null, null);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            handler.setBatchExecution(executor, 3, true);
+
+            StringBuilder ndjson = new StringBuilder();
+            for (int i = 0; i < 10; i++) {
+                ndjson.append("{\"id\":").append(i).append("}\n");
+            }
+            StringWriter out = new StringWriter();
+
+            // Act
+            long records = handler.transformBatch("template.ftl",
+                    new ByteArrayInputStream(ndjson.toString().getBytes(StandardCharsets.UTF_8)), null, out);
+
+            // Assert
+            assertEquals(10, records);
+            assertEquals("0\n1\n2\n3\n4\n5\n6\n7\n8\n9\n", out.toString());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Test case for parallel batch transformation without ordering: every record is written exactly
+     * once, and a failing record fails the whole batch.
+     */
+    @Test
+    public void testTransformBatchParallelUnordered() throws Exception {
+        // Arrange
+        TemplateEngine templateEngine = mock(TemplateEngine.class);
+        when(templateEngine.process(eq("template.ftl"), anyMap())).thenAnswer(invocation -> {
+            Map<String, Object> dataModel = invocation.getArgument(1);
+            if (dataModel.containsKey("fail")) {
+                throw new IllegalStateException("Render failed");
+            }
+            return dataModel.get("id").toString();
+        });
+        JsonTransformerHandler handler = new JsonTransformerHandler(templateEngine, null, null, null);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            handler.setBatchExecution(executor, 2, false);
+            StringWriter out = new StringWriter();
+
+            // Act
+            long records = handler.transformBatch("template.ftl", new ByteArrayInputStream(
+                    "[{\"id\":1},{\"id\":2},{\"id\":3},{\"id\":4},{\"id\":5}]".getBytes(StandardCharsets.UTF_8)),
+                    null, out);
+
+            // Assert
+            assertEquals(5, records);
+            String body = out.toString();
+            assertTrue(body.startsWith("[") && body.endsWith("]"));
+            Set<String> ids = new HashSet<>(Arrays.asList(body.substring(1, body.length() - 1).split(",")));
+            assertEquals(new HashSet<>(Arrays.asList("1", "2", "3", "4", "5")), ids);
+
+            IllegalStateException thrown = assertThrows(IllegalStateException.class, () ->
+                    handler.transformBatch("template.ftl", new ByteArrayInputStream(
+                            "[{\"id\":1},{\"fail\":true},{\"id\":3}]".getBytes(StandardCharsets.UTF_8)),
+                            null, new StringWriter()));
+            assertEquals("Render failed", thrown.getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Test case for the result cache: a repeated document is served without parsing, plugin hooks
+     * or rendering, while a different parameter set, template version or invalidation misses.
+     */
+    @Test
+    public void testResultCache() throws Exception {
+        // Arrange
+        TemplateEngine templateEngine = mock(TemplateEngine.class);
+        TransformerPlugin plugin = mock(TransformerPlugin.class);
+        when(plugin.beforeProcessing(anyMap())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(plugin.afterProcessing(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(templateEngine.getTemplateVersion("template.ftl")).thenReturn(1L);
+        when(templateEngine.process(eq("template.ftl"), anyMap())).thenReturn("{\"out\":1}");
+        JsonTransformerHandler handler = new JsonTransformerHandler(templateEngine, plugin, null, null);
+        TransformResultCache cache = new TransformResultCache(100, Duration.ofMinutes(1));
+        handler.setResultCache(cache);
+        String inputJson = "{\"id\":1}";
+
+        // Act & Assert: second identical call is a hit.
+        assertEquals("{\"out\":1}", handler.transform("template.ftl", inputJson, Collections.singletonMap("p", "a")));
+        assertEquals("{\"out\":1}", handler.transform("template.ftl", inputJson, Collections.singletonMap("p", "a")));
+        verify(templateEngine, times(1)).process(eq("template.ftl"), anyMap());
+        verify(plugin, times(1)).beforeProcessing(anyMap());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        // Different parameters miss.
+        handler.transform("template.ftl", inputJson, Collections.singletonMap("p", "b"));
+        verify(templateEngine, times(2)).process(eq("template.ftl"), anyMap());
+
+        // A new template version misses, and invalidation drops the template's entries.
+        when(templateEngine.getTemplateVersion("template.ftl")).thenReturn(2L);
+        handler.transform("template.ftl", inputJson, Collections.singletonMap("p", "a"));
+        verify(templateEngine, times(3)).process(eq("template.ftl"), anyMap());
+        cache.invalidateTemplate("template.ftl");
+        assertEquals(0, cache.size());
+
+        // Engines that cannot track versions are never cached.
+        when(templateEngine.getTemplateVersion("template.ftl")).thenReturn(-1L);
+        handler.transform("template.ftl", inputJson, null);
+        handler.transform("template.ftl", inputJson, null);
+        verify(templateEngine, times(5)).process(eq("template.ftl"), anyMap());
+    }
+
+    /**
+     * Test case for request coalescing: identical requests arriving while the first one renders wait
+     * for it and share its result, a different input renders on its own, and a failure is shared too.
+     */
+    @Test
+    public void testCoalescesIdenticalInFlightRequests() throws Exception {
+        // Arrange
+        TemplateEngine templateEngine = mock(TemplateEngine.class);
+        when(templateEngine.getTemplateVersion("template.ftl")).thenReturn(1L);
+        CountDownLatch rendering = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(templateEngine.process(eq("template.ftl"), anyMap())).thenAnswer(invocation -> {
+            rendering.countDown();
+            release.await();
+            return "{\"out\":1}";
+        }).thenReturn("{\"out\":2}").thenThrow(new IllegalStateException("render failed"));
+        JsonTransformerHandler handler = new JsonTransformerHandler(templateEngine, null, null, null);
+        TransformCoalescer coalescer = new TransformCoalescer();
+        handler.setCoalescer(coalescer);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            // Act
+            Future<String> leader = executor.submit(() -> handler.transform("template.ftl", "{\"id\":1}", null));
+            rendering.await();
+            List<Future<ByteArrayOutputStream>> followers = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                followers.add(executor.submit(() -> {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    handler.transform("template.ftl", "{\"id\":1}", null, out);
+                    return out;
+                }));
+            }
+            while (coalescer.getCoalescedCount() < 3) {
+                Thread.sleep(1);
+            }
+            String other = handler.transform("template.ftl", "{\"id\":2}", null);
+            release.countDown();
+
+            // Assert
+            assertEquals("{\"out\":1}", leader.get());
+            for (Future<ByteArrayOutputStream> follower : followers) {
+                assertEquals("{\"out\":1}", follower.get().toString(StandardCharsets.UTF_8.name()));
+            }
+            assertEquals("{\"out\":2}", other);
+            verify(templateEngine, times(2)).process(eq("template.ftl"), anyMap());
+            assertEquals(0, coalescer.inFlight());
+            assertThrows(IllegalStateException.class, () -> handler.transform("template.ftl", "{\"id\":1}", null));
+            assertEquals(0, coalescer.inFlight());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Test case for the coalescing timeout: a request waiting for a stuck identical transformation
+     * fails after the timeout instead of waiting for it forever.
+     */
+    @Test
+    public void testCoalescedRequestTimesOut() throws Exception {
+        // Arrange
+        TemplateEngine templateEngine = mock(TemplateEngine.class);
+        when(templateEngine.getTemplateVersion("template.ftl")).thenReturn(1L);
+        CountDownLatch rendering = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(templateEngine.process(eq("template.ftl"), anyMap())).thenAnswer(invocation -> {
+            rendering.countDown();
+            release.await();
+            return "{\"out\":1}";
+        });
+        JsonTransformerHandler handler = new JsonTransformerHandler(templateEngine, null, null, null);
+        handler.setCoalescer(new TransformCoalescer(Duration.ofMillis(50)));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            // Act
+            Future<String> leader = executor.submit(() -> handler.transform("template.ftl", "{\"id\":1}", null));
+            rendering.await();
+
+            // Assert
+            assertThrows(TimeoutException.class, () -> handler.transform("template.ftl", "{\"id\":1}", null));
+            release.countDown();
+            assertEquals("{\"out\":1}", leader.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Test case for metrics: every stage is timed per template, sizes are recorded, and a failing
+     * stage increments its error counter.
+     */
+    @Test
+    public void testMetricsPerStage() throws Exception {
+        // Arrange
+        TemplateEngine templateEngine = mock(TemplateEngine.class);
+        TransformerPlugin plugin = mock(TransformerPlugin.class);
+        JsonSchemaValidator inputValidator = mock(JsonSchemaValidator.class);
+        JsonSchemaValidator outputValidator = mock(JsonSchemaValidator.class);
+        when(plugin.beforeProcessing(anyMap())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(plugin.afterProcessing(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(templateEngine.process(eq("template.ftl"), anyMap())).thenReturn("{\"out\":true}");
+        JsonTransformerHandler handler = new JsonTransformerHandler(
+                templateEngine, plugin, inputValidator, outputValidator);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        handler.setMetrics(new TransformMetrics(registry));
+
+        // Act
+        handler.transform("template.ftl", "{\"id\":1}", null);
+        assertThrows(Exception.class, () -> handler.transform("template.ftl", "{broken", null));
+
+        // Assert
+        for (String stage : Arrays.asList("input_validate", "before_processing", "render",
+                "after_processing", "output_validate")) {
+            assertEquals(1, registry.get("transform.stage").tag("template", "template.ftl").tag("stage", stage)
+                    .timer().count(), stage);
+        }
+        assertEquals(1, registry.get("transform.stage").tag("stage", "parse").timer().count());
+        assertEquals(1, registry.get("transform.errors").tag("stage", "parse").counter().count());
+        assertEquals(1, registry.get("transform.requests").tag("outcome", "success").timer().count());
+        assertEquals(1, registry.get("transform.requests").tag("outcome", "error").timer().count());
+        assertEquals(2, registry.get("transform.input.size").summary().count());
+        assertEquals(12, registry.get("transform.output.size").summary().totalAmount());
+    }
+
+    /**
+     * Test case for metric tags: only known templates get a tag of their own, so requests for
+     * arbitrary names cannot use up the tags real templates need.
+     */
+    @Test
+    public void testMetricsTagOnlyKnownTemplates() {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        TransformMetrics metrics = new TransformMetrics(registry);
+        metrics.setKnownTemplates("template.ftl"::equals);
+
+        // Act
+        for (int i = 0; i < TransformMetrics.MAX_TEMPLATES + 1; i++) {
+            metrics.recordInputSize("bogus" + i + ".ftl", 1);
+        }
+        metrics.recordInputSize("template.ftl", 5);
+
+        // Assert
+        assertEquals(TransformMetrics.MAX_TEMPLATES + 1,
+                registry.get("transform.input.size").tag("template", "other").summary().count());
+        assertEquals(5, registry.get("transform.input.size").tag("template", "template.ftl").summary().totalAmount());
+    }
+
+    /**
+     * Test case for a plugin working on the parsed output: the template is rendered into a token
+     * buffer and the same tree is handed to the output validator, which never sees the text.
+     */
+    @Test
+    public void testTreePluginSharesParsedOutput() throws Exception {
+        // Arrange
+        TemplateEngine templateEngine = mock(TemplateEngine.class);
+        TransformerPlugin plugin = mock(TransformerPlugin.class);
+        JsonSchemaValidator outputValidator = mock(JsonSchemaValidator.class);
+        when(plugin.beforeProcessing(anyMap())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(plugin.outputAccess()).thenReturn(TransformerPlugin.OutputAccess.TREE);
+        when(plugin.afterProcessingTree(any(JsonNode.class))).thenAnswer(invocation -> {
+            ObjectNode output = invocation.getArgument(0);
+            return output.put("checked", true);
+        });
+        when(templateEngine.process(eq("template.ftl"), anyMap())).thenReturn("{\"id\":1}");
+        // The engine's default generator rendering copies the text output into the token buffer.
+        doCallRealMethod().when(templateEngine).process(eq("template.ftl"), anyMap(), any(JsonGenerator.class));
+        JsonTransformerHandler handler = new JsonTransformerHandler(templateEngine, plugin, null, outputValidator);
+
+        // Act
+        String result = handler.transform("template.ftl", "{\"id\":1}", null);
+
+        // Assert
+        assertEquals("{\"id\":1,\"checked\":true}", result);
+        verify(plugin, never()).afterProcessing(anyString());
+        verify(outputValidator, times(1)).validate("template.ftl", new ObjectMapper().readTree(result));
+        verify(outputValidator, never()).validate(anyString(), anyString());
+    }
 }
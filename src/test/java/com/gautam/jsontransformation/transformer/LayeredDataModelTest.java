@@ -0,0 +1,98 @@
+package com.gautam.jsontransformation.transformer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gautam.jsontransformation.transformer.template.JsonNodeObjectWrapper;
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LayeredDataModelTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Test case for name resolution: plugin writes win over request parameters, which win over
+     * globals, which win over input fields.
+     */
+    @Test
+    public void testLayerPrecedence() throws Exception {
+        // Arrange
+        JsonNode input = objectMapper.readTree("{\"id\":1,\"region\":\"input\",\"tag\":\"input\",\"name\":\"input\"}");
+        Map<String, Object> globals = new HashMap<>();
+        globals.put("region", "global");
+        globals.put("tag", "global");
+        globals.put("name", "global");
+        Map<String, Object> params = new HashMap<>();
+        params.put("tag", "param");
+        params.put("name", "param");
+
+        // Act
+        LayeredDataModel dataModel = new LayeredDataModel(input, globals, params);
+        dataModel.put("name", "plugin");
+
+        // Assert
+        assertEquals(1, ((JsonNode) dataModel.get("id")).asInt());
+        assertEquals("global", dataModel.get("region"));
+        assertEquals("param", dataModel.get("tag"));
+        assertEquals("plugin", dataModel.get("name"));
+        assertEquals(4, dataModel.size());
+    }
+
+    /**
+     * Test case for writes and removals: they only affect the data model itself, never the shared
+     * parameter maps or the parsed input.
+     */
+    @Test
+    public void testWritesDoNotModifyLayers() throws Exception {
+        // Arrange
+        JsonNode input = objectMapper.readTree("{\"id\":1}");
+        Map<String, Object> params = Collections.singletonMap("extraInfo", "shared");
+        LayeredDataModel dataModel = new LayeredDataModel(input, null, params);
+
+        // Act
+        dataModel.put("pluginAdded", "yes");
+        Object removed = dataModel.remove("extraInfo");
+        dataModel.remove("id");
+
+        // Assert
+        assertEquals("shared", removed);
+        assertNull(dataModel.get("extraInfo"));
+        assertFalse(dataModel.containsKey("id"));
+        assertEquals(Collections.singletonMap("pluginAdded", "yes"), new HashMap<>(dataModel));
+        assertEquals("shared", params.get("extraInfo"));
+        assertTrue(input.has("id"));
+    }
+
+    /**
+     * Test case for rendering: Freemarker resolves names through all layers.
+     */
+    @Test
+    public void testTemplateReadsAllLayers() throws Exception {
+        // Arrange
+        Configuration configuration = new Configuration(Configuration.VERSION_2_3_31);
+        configuration.setObjectWrapper(new JsonNodeObjectWrapper(Configuration.VERSION_2_3_31));
+        Template template = new Template("layers", new StringReader(
+                "${order.orderNumber}|${env}|${extraInfo}|${pluginAdded}|${missing!\"none\"}"), configuration);
+        LayeredDataModel dataModel = new LayeredDataModel(
+                objectMapper.readTree("{\"order\":{\"orderNumber\":\"42\"}}"),
+                Collections.singletonMap("env", "test"),
+                Collections.singletonMap("extraInfo", "rest"));
+        dataModel.put("pluginAdded", "plugin");
+        StringWriter out = new StringWriter();
+
+        // Act
+        template.process(dataModel, out);
+
+        // Assert
+        assertEquals("42|test|rest|plugin|none", out.toString());
+    }
+}
@@ -0,0 +1,56 @@
+package com.gautam.jsontransformation.transformer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class MappedFileDataLoaderTest {
+
+    @Test
+    public void testLoadData(@TempDir Path tempDir) throws Exception {
+        // Create a temporary file with multi-byte characters.
+        Path tempFile = tempDir.resolve("testData.json");
+        String expectedContent = "{\"key\": \"värde\"}";
+        Files.write(tempFile, expectedContent.getBytes(StandardCharsets.UTF_8));
+
+        MappedFileDataLoader loader = new MappedFileDataLoader(tempFile.toString());
+
+        // Both the decoded string and the mapped bytes match the file.
+        assertEquals(expectedContent, loader.loadData());
+        ByteBuffer mapped = loader.mapData();
+        assertEquals(Files.size(tempFile), mapped.remaining());
+        assertTrue(mapped.isReadOnly());
+    }
+
+    @Test
+    public void testStreamParsesAcrossMappedWindows(@TempDir Path tempDir) throws Exception {
+        // Create a document many times larger than the mapping window.
+        Path tempFile = tempDir.resolve("large.json");
+        StringBuilder json = new StringBuilder("{\"items\":[");
+        for (int i = 0; i < 1000; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"id\":").append(i).append(",\"name\":\"item-").append(i).append("\"}");
+        }
+        json.append("]}");
+        Files.write(tempFile, json.toString().getBytes(StandardCharsets.UTF_8));
+
+        // Map only 64 bytes at a time, so records straddle window boundaries.
+        MappedFileDataLoader loader = new MappedFileDataLoader(tempFile, 64);
+        JsonNode root;
+        try (InputStream in = loader.openStream()) {
+            root = new ObjectMapper().readTree(in);
+            assertEquals(-1, in.read());
+        }
+
+        assertEquals(1000, root.get("items").size());
+        assertEquals("item-999", root.get("items").get(999).get("name").asText());
+    }
+}
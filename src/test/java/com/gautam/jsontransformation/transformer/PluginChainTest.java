@@ -0,0 +1,130 @@
+package com.gautam.jsontransformation.transformer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PluginChainTest {
+
+    /**
+     * Test case for an asynchronous stage: its plugins run concurrently, and when both contribute
+     * the same field the one added later to the chain wins.
+     */
+    @Test
+    public void testAsyncStageRunsConcurrentlyAndMergesInOrder() {
+        // Arrange: each plugin only completes once the other one has started.
+        CountDownLatch started = new CountDownLatch(2);
+        AsyncTransformerPlugin first = dataModel -> CompletableFuture.supplyAsync(() -> {
+            started.countDown();
+            await(started);
+            Map<String, Object> fields = new HashMap<>();
+            fields.put("source", "first");
+            fields.put("customer", "Alice");
+            return fields;
+        });
+        AsyncTransformerPlugin second = dataModel -> CompletableFuture.supplyAsync(() -> {
+            started.countDown();
+            await(started);
+            return Collections.singletonMap("source", "second");
+        });
+        PluginChain chain = new PluginChain()
+                .then(new DefaultTransformerPlugin())
+                .then(first, second);
+        Map<String, Object> dataModel = new HashMap<>();
+        dataModel.put("id", 1);
+
+        // Act
+        Map<String, Object> result = chain.beforeProcessing(dataModel);
+
+        // Assert
+        assertEquals(1, result.get("id"));
+        assertEquals("Alice", result.get("customer"));
+        assertEquals("second", result.get("source"));
+    }
+
+    /**
+     * Test case for batch enrichment: a plugin that overrides enrichBatch is called once for the
+     * whole chunk, and later stages see the fields added by earlier ones.
+     */
+    @Test
+    public void testBatchEnrichmentIsCalledOncePerChunk() {
+        // Arrange
+        AtomicInteger lookups = new AtomicInteger();
+        AsyncTransformerPlugin lookup = new AsyncTransformerPlugin() {
+            @Override
+            public CompletableFuture<Map<String, Object>> enrich(Map<String, Object> dataModel) {
+                throw new AssertionError("records should be enriched as a batch");
+            }
+
+            @Override
+            public CompletableFuture<List<Map<String, Object>>> enrichBatch(List<Map<String, Object>> dataModels) {
+                lookups.incrementAndGet();
+                List<Map<String, Object>> contributions = new ArrayList<>();
+                for (Map<String, Object> dataModel : dataModels) {
+                    contributions.add(Collections.singletonMap("name", "customer-" + dataModel.get("id")));
+                }
+                return CompletableFuture.completedFuture(contributions);
+            }
+        };
+        PluginChain chain = new PluginChain()
+                .then(lookup)
+                .then(new DefaultTransformerPlugin() {
+                    @Override
+                    public Map<String, Object> beforeProcessing(Map<String, Object> dataModel) {
+                        dataModel.put("label", dataModel.get("name") + "!");
+                        return dataModel;
+                    }
+                });
+        List<Map<String, Object>> dataModels = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            Map<String, Object> dataModel = new HashMap<>();
+            dataModel.put("id", i);
+            dataModels.add(dataModel);
+        }
+
+        // Act
+        List<Map<String, Object>> result = chain.beforeProcessingBatch(dataModels);
+
+        // Assert
+        assertEquals(1, lookups.get());
+        assertEquals(3, result.size());
+        assertEquals("customer-2!", result.get(1).get("label"));
+    }
+
+    /**
+     * Test case for a failing asynchronous plugin: its exception is rethrown without the
+     * CompletionException wrapper.
+     */
+    @Test
+    public void testAsyncFailureIsUnwrapped() {
+        // Arrange
+        AsyncTransformerPlugin failing = dataModel -> CompletableFuture.supplyAsync(() -> {
+            throw new IllegalStateException("Lookup failed");
+        });
+        PluginChain chain = new PluginChain().then(failing);
+
+        // Act & Assert
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                () -> chain.beforeProcessing(new HashMap<>()));
+        assertEquals("Lookup failed", thrown.getMessage());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS), "plugins did not run concurrently");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
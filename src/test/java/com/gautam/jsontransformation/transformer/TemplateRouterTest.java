@@ -0,0 +1,57 @@
+package com.gautam.jsontransformation.transformer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TemplateRouterTest {
+
+    private TemplateRouter router(String field) {
+        Map<String, String> fieldTemplates = new HashMap<>();
+        fieldTemplates.put("invoice", "invoice_template.ftl");
+        fieldTemplates.put("order", "order_template");
+        return new TemplateRouter("default.ftl", new JsonFieldProbe(new JsonFactory(), field), fieldTemplates);
+    }
+
+    /**
+     * An explicitly requested template wins over the header, which wins over the payload field.
+     */
+    @Test
+    public void testPrecedence() {
+        TemplateRouter router = router("type");
+        String input = "{\"type\": \"invoice\"}";
+
+        assertEquals("path.ftl", router.route("path", "header.ftl", input));
+        assertEquals("header.ftl", router.route(null, "header.ftl", input));
+        assertEquals("invoice_template.ftl", router.route(null, " ", input));
+        assertEquals("order_template.ftl", router.route(null, null, "{\"type\": \"order\"}"));
+        assertEquals("default.ftl", router.route(null, null, "{\"type\": \"unknown\"}"));
+        assertEquals("default.ftl", router.route(null, null, null));
+
+        // Only a request without a path or header template needs its payload read to be routed.
+        assertTrue(router.needsPayload(null, " "));
+        assertFalse(router.needsPayload("path", null));
+        assertFalse(router.needsPayload(null, "header.ftl"));
+        assertFalse(new TemplateRouter("default.ftl", null, null).needsPayload(null, null));
+    }
+
+    /**
+     * The probe follows nested paths, skips unrelated subtrees and ignores malformed input
+     * after the match or non-scalar values.
+     */
+    @Test
+    public void testProbeNestedField() throws Exception {
+        JsonFieldProbe probe = new JsonFieldProbe(new JsonFactory(), "meta.kind");
+
+        assertEquals("invoice", probe.probe(
+                "{\"lines\": [{\"meta\": {\"kind\": \"x\"}}], \"meta\": {\"id\": 7, \"kind\": \"invoice\"}, \"tail\": [ broken"));
+        assertNull(probe.probe("{\"meta\": {\"kind\": {\"nested\": true}}}"));
+        assertNull(probe.probe("{\"meta\": \"flat\"}"));
+        assertNull(probe.probe("[1, 2]"));
+        assertEquals("default.ftl", router("meta.kind").route(null, null, "{\"meta\": [ broken"));
+    }
+}
@@ -0,0 +1,71 @@
+package com.gautam.jsontransformation.transformer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class Utf8OutputBufferTest {
+
+    /**
+     * Test case for encoding: ASCII, two- and three-byte chars, surrogate pairs split across writes
+     * and unpaired surrogates come out exactly as {@link String#getBytes} encodes them.
+     */
+    @Test
+    public void testEncodesLikeString() throws Exception {
+        // Arrange
+        String text = "{\"a\":\"café € 😀\"} \ud800x \udc00";
+        Utf8OutputBuffer buffer = new Utf8OutputBuffer(4);
+
+        // Act
+        buffer.write(text, 0, 20);
+        buffer.write(text.substring(20).toCharArray());
+        buffer.write('\ud83d');
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        buffer.writeTo(out);
+
+        // Assert
+        byte[] expected = (text + "\ud83d").getBytes(StandardCharsets.UTF_8);
+        assertArrayEquals(expected, out.toByteArray());
+        assertEquals(expected.length, buffer.size());
+        assertEquals(new String(expected, StandardCharsets.UTF_8), buffer.toString());
+        assertEquals(expected.length, Utf8OutputBuffer.encodedLength(text + "\ud83d"));
+    }
+
+    /**
+     * Test case for the pool: released buffers are handed out again empty, presized to the largest
+     * recent output of the template, and oversized buffers are neither kept nor presized.
+     */
+    @Test
+    public void testPoolReusesBuffersSizedPerTemplate() throws Exception {
+        // Arrange
+        OutputBufferPool pool = new OutputBufferPool(1, 8192);
+        char[] document = new char[3000];
+        Arrays.fill(document, 'x');
+
+        // Act
+        Utf8OutputBuffer first = pool.acquire("big.ftl");
+        first.write(document);
+        pool.release("big.ftl", first);
+        Utf8OutputBuffer second = pool.acquire("big.ftl");
+        second.write(document, 0, 1000);
+        pool.release("big.ftl", second);
+        Utf8OutputBuffer huge = pool.acquire("huge.ftl");
+        huge.write(new char[10000]);
+        pool.release("huge.ftl", huge);
+
+        // Assert
+        assertSame(first, second);
+        assertTrue(second.capacity() >= 3000 + 3000 / 8);
+        // A smaller output only moves the estimate a little, so the next document fits without growing.
+        assertTrue(pool.expectedSize("big.ftl") > 2500);
+        assertEquals(0, pool.acquire("big.ftl").size());
+        Utf8OutputBuffer next = pool.acquire("huge.ftl");
+        assertNotSame(huge, next);
+        assertEquals(8192, next.capacity());
+        assertEquals(0, pool.expectedSize("unknown.ftl"));
+    }
+}
@@ -0,0 +1,216 @@
+package com.gautam.jsontransformation.transformer.mapping;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gautam.jsontransformation.transformer.LayeredDataModel;
+import com.gautam.jsontransformation.transformer.template.FreemarkerTemplateEngine;
+import com.gautam.jsontransformation.transformer.template.InputProjection;
+import com.gautam.jsontransformation.transformer.template.JsonNodeObjectWrapper;
+import com.gautam.jsontransformation.transformer.template.TemplateRegistry;
+import freemarker.template.Configuration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappingTemplateEngineTest {
+
+    private static final String TEMPLATE_DIR = "src/main/resources/templates";
+
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Test case for the bundled order mapping: it renders the same document as {@code output_template.ftl}.
+     */
+    @Test
+    public void testOrderMappingMatchesTemplate() throws Exception {
+        // Arrange
+        TemplateRegistry templateRegistry = templateRegistry(TEMPLATE_DIR);
+        MappingRegistry mappingRegistry = new MappingRegistry(templateRegistry, TEMPLATE_DIR);
+        mappingRegistry.preload();
+        MappingTemplateEngine engine = new MappingTemplateEngine(mappingRegistry);
+        JsonNode input = objectMapper.readTree(new File(TEMPLATE_DIR, "output_template.sample.json"));
+        Map<String, Object> dataModel = new LayeredDataModel(input, Collections.emptyMap(), Collections.emptyMap());
+
+        // Act
+        String mapped = engine.process("order.mapping.json", dataModel);
+        String rendered = new FreemarkerTemplateEngine(templateRegistry).process("output_template.ftl", dataModel);
+
+        // Assert
+        assertEquals(objectMapper.readTree(rendered), objectMapper.readTree(mapped));
+    }
+
+    /**
+     * Test case for the spec operators: escapes, literals, defaults, text conversion, nested loops
+     * with a shadowed loop variable, and the input paths the mapping reads.
+     */
+    @Test
+    public void testOperatorsAndProjection() throws Exception {
+        // Arrange
+        write("ops.mapping.json", "{"
+                + "\"kind\": \"$$order\","
+                + "\"raw\": {\"$literal\": {\"$path\": \"x\"}},"
+                + "\"id\": {\"$string\": \"$order.id\"},"
+                + "\"label\": {\"$concat\": [\"#\", \"$order.id\", \" \", \"$order.missing\", \"$order.name\"]},"
+                + "\"missing\": \"$order.missing\","
+                + "\"status\": {\"$path\": \"order.status\", \"$default\": \"NEW\"},"
+                + "\"groups\": {\"$each\": \"order.groups\", \"$as\": \"g\", \"$map\": {"
+                + "  \"name\": \"$g.name\","
+                + "  \"items\": {\"$each\": \"g.items\", \"$as\": \"g\", \"$map\": \"$g.sku\"}}},"
+                + "\"count\": {\"$each\": \"order.lines\", \"$map\": 1}"
+                + "}");
+        MappingTemplateEngine engine = new MappingTemplateEngine(mappingRegistry());
+        JsonNode input = objectMapper.readTree("{\"order\": {\"id\": 7, \"name\": \"A\\\"B\", \"status\": null,"
+                + "\"groups\": [{\"name\": \"g1\", \"items\": [{\"sku\": \"s1\", \"qty\": 1}, {\"sku\": \"s2\"}]}],"
+                + "\"lines\": [{\"a\": 1}, {\"a\": 2}], \"noise\": [1, 2, 3]}}");
+        Map<String, Object> dataModel = new HashMap<>();
+        dataModel.put("order", input.get("order"));
+
+        // Act
+        JsonNode result = objectMapper.readTree(engine.process("ops.mapping.json", dataModel));
+        InputProjection projection = engine.getInputProjection("ops.mapping.json");
+
+        // Assert
+        assertEquals(objectMapper.readTree("{\"kind\": \"$order\", \"raw\": {\"$path\": \"x\"}, \"id\": \"7\","
+                + "\"label\": \"#7 A\\\"B\", \"missing\": null, \"status\": \"NEW\","
+                + "\"groups\": [{\"name\": \"g1\", \"items\": [\"s1\", \"s2\"]}], \"count\": [1, 1]}"), result);
+
+        InputProjection order = projection.getField("order");
+        assertEquals(new HashSet<>(Arrays.asList("id", "name", "missing", "status", "groups", "lines")),
+                order.getFieldNames());
+        assertEquals(new HashSet<>(Arrays.asList("name", "items")), order.getField("groups").getFieldNames());
+        assertTrue(order.getField("groups").getField("items").getField("sku").isWhole());
+        assertTrue(order.getField("lines").isWhole());
+
+        // The projected input renders the same output.
+        try (JsonParser parser = objectMapper.getFactory().createParser(input.toString())) {
+            dataModel.put("order", projection.read(parser, objectMapper).get("order"));
+        }
+        assertEquals(result, objectMapper.readTree(engine.process("ops.mapping.json", dataModel)));
+    }
+
+    /**
+     * Test case for array and object defaults: constant ones are written as they are, and one that
+     * reads the data model is rendered like any other spec element.
+     */
+    @Test
+    public void testArrayAndObjectDefaults() throws Exception {
+        // Arrange
+        write("defaults.mapping.json", "{"
+                + "\"tags\": {\"$path\": \"order.tags\", \"$default\": []},"
+                + "\"customer\": {\"$path\": \"order.customer\", \"$default\": {\"name\": \"none\", \"ids\": [1]}},"
+                + "\"ref\": {\"$path\": \"order.ref\", \"$default\": {\"id\": \"$order.id\"}},"
+                + "\"present\": {\"$path\": \"order.id\", \"$default\": []}"
+                + "}");
+        MappingTemplateEngine engine = new MappingTemplateEngine(mappingRegistry());
+        Map<String, Object> dataModel = new HashMap<>();
+        dataModel.put("order", objectMapper.readTree("{\"id\": 7, \"tags\": null}"));
+
+        // Act
+        JsonNode result = objectMapper.readTree(engine.process("defaults.mapping.json", dataModel));
+
+        // Assert
+        assertEquals(objectMapper.readTree("{\"tags\": [], \"customer\": {\"name\": \"none\", \"ids\": [1]},"
+                + "\"ref\": {\"id\": 7}, \"present\": 7}"), result);
+    }
+
+    /**
+     * Test case for reloading: an edited spec is swapped in with a higher version, an invalid edit
+     * keeps the previous version, and unknown or invalid names fail.
+     */
+    @Test
+    public void testReloadAndErrors() throws Exception {
+        // Arrange
+        Path file = write("simple.mapping.json", "{\"v\": 1}");
+        MappingRegistry registry = mappingRegistry();
+        MappingTemplateEngine engine = new MappingTemplateEngine(registry);
+        long version = engine.getTemplateVersion("simple.mapping.json");
+        Map<String, Object> dataModel = Collections.emptyMap();
+
+        // Act: a valid edit with an unchanged file time, then an invalid one.
+        FileTime time = Files.getLastModifiedTime(file);
+        Files.write(file, "{\"v\": 2}".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(file, time);
+        registry.reload(file);
+        Files.write(file, "{\"v\": {\"$each\": \"xs\"}}".getBytes(StandardCharsets.UTF_8));
+        registry.reload(file);
+
+        // Assert
+        assertEquals("{\"v\":2}", engine.process("simple.mapping.json", dataModel));
+        assertTrue(engine.getTemplateVersion("simple.mapping.json") > version);
+        assertThrows(FileNotFoundException.class, () -> engine.process("none.mapping.json", dataModel));
+        assertThrows(FileNotFoundException.class, () -> engine.process("../simple.mapping.json", dataModel));
+        write("bad.mapping.json", "{\"$unknown\": 1}");
+        IOException exception = assertThrows(IOException.class, () -> engine.process("bad.mapping.json", dataModel));
+        assertTrue(exception.getMessage().contains("$unknown"));
+    }
+
+    /**
+     * Test case for specs that would fail on every render: text operators over objects, arrays or
+     * loops, and operator objects with fields the operator ignores, are rejected when compiled.
+     */
+    @Test
+    public void testRejectsInvalidOperands() throws Exception {
+        // Arrange
+        String[] specs = {
+                "{\"v\": {\"$string\": {\"a\": \"$x\"}}}",
+                "{\"v\": {\"$concat\": [\"id-\", [1, 2]]}}",
+                "{\"v\": {\"$concat\": [{\"$each\": \"xs\", \"$map\": \"$item\"}]}}",
+                "{\"v\": {\"$string\": {\"$path\": \"x\", \"$default\": {\"a\": \"$y\"}}}}",
+                "{\"v\": {\"$path\": \"x\", \"name\": \"ignored\"}}",
+                "{\"v\": {\"$each\": \"xs\", \"$map\": \"$item\", \"$path\": \"x\"}}"
+        };
+        // Specs written after startup are compiled on first use.
+        MappingTemplateEngine engine = new MappingTemplateEngine(mappingRegistry());
+        for (int i = 0; i < specs.length; i++) {
+            write("invalid" + i + ".mapping.json", specs[i]);
+        }
+        write("valid.mapping.json", "{\"v\": {\"$concat\": [\"id-\", {\"$path\": \"x\", \"$default\": 0}]}}");
+        Map<String, Object> dataModel = Collections.emptyMap();
+
+        // Act / Assert
+        for (int i = 0; i < specs.length; i++) {
+            String name = "invalid" + i + ".mapping.json";
+            IOException exception = assertThrows(IOException.class, () -> engine.process(name, dataModel), specs[i]);
+            assertTrue(exception.getMessage().startsWith("Invalid mapping"), exception.getMessage());
+        }
+        assertEquals("{\"v\":\"id-0\"}", engine.process("valid.mapping.json", dataModel));
+    }
+
+    private MappingRegistry mappingRegistry() throws IOException {
+        MappingRegistry registry = new MappingRegistry(templateRegistry(tempDir.toString()), tempDir.toString());
+        registry.preload();
+        return registry;
+    }
+
+    private static TemplateRegistry templateRegistry(String templateDir) throws IOException {
+        Configuration configuration = new Configuration(Configuration.VERSION_2_3_31);
+        configuration.setDirectoryForTemplateLoading(new File(templateDir));
+        configuration.setDefaultEncoding("UTF-8");
+        configuration.setObjectWrapper(new JsonNodeObjectWrapper(Configuration.VERSION_2_3_31));
+        TemplateRegistry registry = new TemplateRegistry(configuration, templateDir, false, false, 0);
+        registry.preload();
+        return registry;
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.write(tempDir.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,108 @@
+package com.gautam.jsontransformation.transformer.schema;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gautam.jsontransformation.transformer.template.JsonNodeObjectWrapper;
+import com.gautam.jsontransformation.transformer.template.TemplateRegistry;
+import freemarker.template.Configuration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonSchemaRegistryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private TemplateRegistry templateRegistry;
+    private JsonSchemaRegistry schemaRegistry;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        Files.write(tempDir.resolve("order.ftl"), "{\"id\": ${id}}".getBytes(StandardCharsets.UTF_8));
+        Files.write(tempDir.resolve("order.input.schema.json"), ("{\"type\": \"object\", \"required\": [\"id\"],"
+                + " \"properties\": {\"id\": {\"type\": \"integer\"}}}").getBytes(StandardCharsets.UTF_8));
+        Files.write(tempDir.resolve("plain.ftl"), "{}".getBytes(StandardCharsets.UTF_8));
+
+        Configuration configuration = new Configuration(Configuration.VERSION_2_3_31);
+        configuration.setDirectoryForTemplateLoading(tempDir.toFile());
+        configuration.setDefaultEncoding("UTF-8");
+        configuration.setObjectWrapper(new JsonNodeObjectWrapper(Configuration.VERSION_2_3_31));
+        templateRegistry = new TemplateRegistry(configuration, tempDir.toString(), false, false, 0);
+        templateRegistry.preload();
+        schemaRegistry = new JsonSchemaRegistry(templateRegistry, tempDir.toString());
+        schemaRegistry.preload();
+    }
+
+    /**
+     * Schemas are compiled once per template and validate parsed trees; templates without a schema are skipped.
+     */
+    @Test
+    public void testSchemasAreCompiledOncePerTemplate() throws Exception {
+        CompiledJsonSchema schema = schemaRegistry.getSchema("order.ftl", JsonSchemaRegistry.Kind.INPUT);
+
+        assertNotNull(schema);
+        assertSame(schema, schemaRegistry.getSchema("order.ftl", JsonSchemaRegistry.Kind.INPUT));
+        assertNull(schemaRegistry.getSchema("order.ftl", JsonSchemaRegistry.Kind.OUTPUT));
+        assertNull(schemaRegistry.getSchema("plain.ftl", JsonSchemaRegistry.Kind.INPUT));
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        schema.validate(objectMapper.readTree("{\"id\": 7}"));
+        Exception exception = assertThrows(Exception.class, () -> schema.validate(objectMapper.readTree("{\"id\": \"x\"}")));
+        assertTrue(exception.getMessage().contains("order.input.schema.json"));
+    }
+
+    /**
+     * The template-aware validator only checks documents of templates that have a schema.
+     */
+    @Test
+    public void testTemplateSchemaValidator() throws Exception {
+        TemplateSchemaValidator validator =
+                new TemplateSchemaValidator(schemaRegistry, JsonSchemaRegistry.Kind.INPUT, "order.ftl");
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        validator.validate("plain.ftl", objectMapper.readTree("{\"anything\": true}"));
+        validator.validate("order.ftl", "{\"id\": 1}");
+        assertThrows(Exception.class, () -> validator.validate("order.ftl", objectMapper.readTree("{}")));
+        // Without a template name, the default template's schema applies.
+        validator.validate("{\"id\": 2}");
+        assertThrows(Exception.class, () -> validator.validate("{}"));
+    }
+
+    /**
+     * A reloaded template drops its compiled schemas, so schema edits are picked up with the template.
+     */
+    @Test
+    public void testInvalidateRecompilesSchema() throws Exception {
+        CompiledJsonSchema schema = schemaRegistry.getSchema("order.ftl", JsonSchemaRegistry.Kind.INPUT);
+        Files.delete(tempDir.resolve("order.input.schema.json"));
+
+        schemaRegistry.invalidate("order.ftl");
+
+        assertNotNull(schema);
+        assertNull(schemaRegistry.getSchema("order.ftl", JsonSchemaRegistry.Kind.INPUT));
+    }
+
+    /**
+     * An edited schema file is recompiled on next use even though its template did not change.
+     */
+    @Test
+    public void testSchemaFileChangeRecompilesSchema() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        CompiledJsonSchema schema = schemaRegistry.getSchema("order.ftl", JsonSchemaRegistry.Kind.INPUT);
+        Path schemaFile = tempDir.resolve("order.input.schema.json");
+        Files.write(schemaFile, "{\"type\": \"object\"}".getBytes(StandardCharsets.UTF_8));
+
+        schemaRegistry.fileChanged(schemaFile);
+
+        CompiledJsonSchema edited = schemaRegistry.getSchema("order.ftl", JsonSchemaRegistry.Kind.INPUT);
+        assertNotSame(schema, edited);
+        edited.validate(objectMapper.readTree("{}"));
+        assertThrows(Exception.class, () -> schema.validate(objectMapper.readTree("{}")));
+    }
+}
@@ -0,0 +1,104 @@
+package com.gautam.jsontransformation.transformer.template;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InputProjectionTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Configuration configuration;
+
+    @BeforeEach
+    public void setUp() {
+        configuration = new Configuration(Configuration.VERSION_2_3_31);
+        configuration.setClassForTemplateLoading(getClass(), "/templates");
+    }
+
+    /**
+     * Test case for the order template: only the referenced paths are projected, and list loop
+     * variables select fields of the listed array's elements.
+     */
+    @Test
+    public void testOrderTemplateProjection() throws Exception {
+        // Act
+        InputProjection projection = InputProjectionAnalyzer.analyze(configuration.getTemplate("output_template.ftl"));
+
+        // Assert
+        assertNotNull(projection);
+        assertEquals(new HashSet<>(Arrays.asList("order", "extraInfo", "pluginAdded")), projection.getFieldNames());
+        InputProjection order = projection.getField("order");
+        assertFalse(order.isWhole());
+        assertEquals(new HashSet<>(Arrays.asList("orderNumber", "processed", "release", "lines")), order.getFieldNames());
+        InputProjection lines = order.getField("lines");
+        assertEquals(new HashSet<>(Arrays.asList("unit", "quantity", "itemNumber")), lines.getFieldNames());
+        assertTrue(lines.getField("unit").isWhole());
+    }
+
+    /**
+     * Test case for reading through a projection: unreferenced fields are skipped at every level,
+     * inside array elements too, and the parser ends on the last token of the document.
+     */
+    @Test
+    public void testReadSkipsUnreferencedFields() throws Exception {
+        // Arrange
+        InputProjection projection = analyze("${order.id}<#list order.lines as l>${l.sku}</#list>${meta}");
+        String json = "{\"noise\":{\"deep\":[1,2,{\"x\":3}]},\"meta\":{\"a\":1,\"b\":[true]},"
+                + "\"order\":{\"id\":7,\"comment\":\"skip\",\"lines\":[{\"sku\":\"A\",\"qty\":1},{\"sku\":\"B\",\"price\":2}]}}";
+
+        // Act
+        JsonNode result;
+        try (JsonParser parser = objectMapper.getFactory().createParser(json)) {
+            result = projection.read(parser, objectMapper);
+            assertNull(parser.nextToken());
+        }
+
+        // Assert
+        assertEquals(objectMapper.readTree(
+                "{\"meta\":{\"a\":1,\"b\":[true]},\"order\":{\"id\":7,\"lines\":[{\"sku\":\"A\"},{\"sku\":\"B\"}]}}"), result);
+    }
+
+    /**
+     * Test case for reads the analysis cannot follow: values passed to macros or built-ins are read
+     * whole, and dynamic lookups on the whole input disable the projection.
+     */
+    @Test
+    public void testConservativeCases() throws Exception {
+        // Values used as a whole select everything below them.
+        InputProjection projection = analyze(
+                "<#macro show v>${v.x}</#macro><@show v=order.customer/>${order.lines?size}");
+        assertTrue(projection.getField("order").getField("customer").isWhole());
+        assertTrue(projection.getField("order").getField("lines").isWhole());
+
+        // A computed key can select any field of its target.
+        InputProjection dynamic = analyze("${order.id}${order[key].y}");
+        assertTrue(dynamic.getField("order").isWhole());
+        assertNotNull(dynamic.getField("key"));
+
+        // Hash listing reads all key/value pairs.
+        assertTrue(analyze("<#list order as k, v>${k}=${v}</#list>").getField("order").isWhole());
+
+        // Loop-variable built-ins do not read the element.
+        InputProjection loop = analyze("<#list xs as x>${x?index}${x.a}</#list>");
+        assertEquals(new HashSet<>(Arrays.asList("a")), loop.getField("xs").getFieldNames());
+
+        // Anything that can reach arbitrary input gives up.
+        assertNull(analyze("${.data_model.order}"));
+        assertNull(analyze("${'order.id'?eval}"));
+        assertNull(analyze("<#include 'other.ftl'>"));
+    }
+
+    private InputProjection analyze(String source) throws Exception {
+        return InputProjectionAnalyzer.analyze(new Template("test.ftl", new StringReader(source), configuration));
+    }
+}
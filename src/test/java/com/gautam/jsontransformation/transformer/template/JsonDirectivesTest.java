@@ -0,0 +1,130 @@
+package com.gautam.jsontransformation.transformer.template;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import freemarker.template.Configuration;
+import freemarker.template.TemplateException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonDirectivesTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private FreemarkerTemplateEngine engine;
+    private Map<String, Object> dataModel;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        write("order.ftl", "<@json.object>\n"
+                + "  <@json.field name=\"id\" value=id/>\n"
+                + "  <@json.field name=\"note\" value=note/>\n"
+                + "  <@json.array name=\"tags\"><#list tags as tag><@json.value value=tag/>, </#list></@json.array>\n"
+                + "  <@json.field name=\"greeting\">Hello ${note}</@json.field>\n"
+                + "  <@json.field name=\"nested\"><@json.object><@json.field name=\"ok\" value=true/></@json.object></@json.field>\n"
+                + "</@json.object>\n");
+        write("text.ftl", "{\"id\": ${id}, \"tags\": [<#list tags as tag>\"${tag}\"<#sep>, </#list>]}");
+        write("mixed.ftl", "{\"note\": <@json.value value=note/>}");
+        write("values.ftl", "<@json.object><@json.field name=\"tags\" value=tags/>"
+                + "<@json.field name=\"meta\" value=meta/></@json.object>");
+
+        Configuration configuration = new Configuration(Configuration.VERSION_2_3_31);
+        configuration.setDirectoryForTemplateLoading(tempDir.toFile());
+        configuration.setDefaultEncoding("UTF-8");
+        configuration.setObjectWrapper(new JsonNodeObjectWrapper(Configuration.VERSION_2_3_31));
+        configuration.setSharedVariable(JsonDirectives.VARIABLE_NAME, new JsonDirectives());
+        TemplateRegistry registry = new TemplateRegistry(configuration, tempDir.toString(), false, false, 0);
+        registry.preload();
+        engine = new FreemarkerTemplateEngine(registry);
+
+        dataModel = new HashMap<>();
+        dataModel.put("id", 7);
+        dataModel.put("note", "says \"hi\"\n");
+        dataModel.put("tags", Arrays.asList("a", "b"));
+    }
+
+    /**
+     * Rendered as text, the directives produce escaped, correctly separated JSON.
+     */
+    @Test
+    public void testRendersDirectivesAsText() throws Exception {
+        JsonNode result = objectMapper.readTree(engine.process("order.ftl", dataModel));
+
+        assertEquals(7, result.get("id").intValue());
+        assertEquals("says \"hi\"\n", result.get("note").textValue());
+        assertEquals(2, result.get("tags").size());
+        assertEquals("Hello says \"hi\"\n", result.get("greeting").textValue());
+        assertTrue(result.get("nested").get("ok").booleanValue());
+    }
+
+    /**
+     * Rendered into a generator, the same document arrives as tokens; text templates are copied over.
+     */
+    @Test
+    public void testRendersIntoGenerator() throws Exception {
+        assertEquals(objectMapper.readTree(engine.process("order.ftl", dataModel)), renderTree("order.ftl"));
+        assertEquals(objectMapper.readTree(engine.process("text.ftl", dataModel)), renderTree("text.ftl"));
+    }
+
+    /**
+     * Directives can escape values inside JSON text, but such templates can only be rendered as text.
+     */
+    @Test
+    public void testMixedTemplate() throws Exception {
+        assertEquals("says \"hi\"\n", objectMapper.readTree(engine.process("mixed.ftl", dataModel)).get("note").textValue());
+        assertThrows(TemplateException.class, () -> renderTree("mixed.ftl"));
+    }
+
+    /**
+     * Object and array values are written into the generator without flushing the writer mid-document.
+     */
+    @Test
+    public void testValuesDoNotFlushWriter() throws Exception {
+        // Arrange
+        dataModel.put("meta", Collections.singletonMap("ok", true));
+        int[] flushes = new int[1];
+        StringWriter out = new StringWriter() {
+            @Override
+            public void flush() {
+                flushes[0]++;
+            }
+        };
+
+        // Act
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            engine.process("values.ftl", dataModel, generator);
+            // Assert
+            assertEquals(1, flushes[0]);
+        }
+        assertTrue(objectMapper.readTree(out.toString()).get("meta").get("ok").booleanValue());
+    }
+
+    private JsonNode renderTree(String templateName) throws Exception {
+        TokenBuffer buffer = new TokenBuffer(objectMapper, false);
+        engine.process(templateName, dataModel, buffer);
+        try (JsonParser parser = buffer.asParser()) {
+            return objectMapper.readTree(parser);
+        }
+    }
+
+    private void write(String name, String content) throws Exception {
+        Files.write(tempDir.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
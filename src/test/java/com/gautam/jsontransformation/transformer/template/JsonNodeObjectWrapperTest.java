@@ -0,0 +1,72 @@
+package com.gautam.jsontransformation.transformer.template;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonNodeObjectWrapperTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Configuration configuration;
+
+    @BeforeEach
+    public void setUp() {
+        configuration = new Configuration(Configuration.VERSION_2_3_31);
+        configuration.setClassForTemplateLoading(getClass(), "/templates");
+        configuration.setObjectWrapper(new JsonNodeObjectWrapper(Configuration.VERSION_2_3_31));
+    }
+
+    /**
+     * Renders the sample order through the test template with the input kept as a JsonNode tree.
+     */
+    @Test
+    public void testRendersOrderTemplateFromJsonNodes() throws Exception {
+        JsonNode order;
+        try (InputStream in = getClass().getResourceAsStream("/testdata/sample.json")) {
+            order = objectMapper.readTree(in);
+        }
+        Map<String, Object> dataModel = new HashMap<>();
+        dataModel.put("order", order.get("order"));
+        dataModel.put("extraInfo", "extra");
+        dataModel.put("pluginAdded", "plugin");
+
+        StringWriter out = new StringWriter();
+        configuration.getTemplate("output_template.ftl").process(dataModel, out);
+
+        JsonNode result = objectMapper.readTree(out.toString());
+        assertEquals("12345", result.get("OrderNo").asText());
+        assertTrue(result.get("Release").asBoolean());
+        assertEquals(2, result.get("OrderLines").size());
+        assertEquals(5, result.get("OrderLines").get(1).get("quantity").asInt());
+        assertEquals("A002", result.get("OrderLines").get(1).get("itemNumber").asText());
+        assertEquals("plugin", result.get("PluginField").asText());
+    }
+
+    /**
+     * JSON nulls behave like missing values so the default operator applies.
+     */
+    @Test
+    public void testNullAndMissingNodesAreMissingValues() throws Exception {
+        Map<String, Object> dataModel = new HashMap<>();
+        dataModel.put("doc", objectMapper.readTree("{\"a\": null, \"keys\": {\"x\": 1, \"y\": 2}}"));
+
+        Template template = new Template("inline",
+                new StringReader("${doc.a!'none'}|${doc.b!'none'}|<#list doc.keys as k, v>${k}=${v}<#sep>,</#list>"),
+                configuration);
+        StringWriter out = new StringWriter();
+        template.process(dataModel, out);
+
+        assertEquals("none|none|x=1,y=2", out.toString());
+    }
+}
@@ -0,0 +1,122 @@
+package com.gautam.jsontransformation.transformer.template;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TemplateCompilerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Configuration configuration;
+
+    @BeforeEach
+    public void setUp() {
+        configuration = new Configuration(Configuration.VERSION_2_3_31);
+        configuration.setClassForTemplateLoading(getClass(), "/templates");
+        configuration.setObjectWrapper(new JsonNodeObjectWrapper(Configuration.VERSION_2_3_31));
+        configuration.setLocale(Locale.US);
+    }
+
+    /**
+     * Test case for compiled rendering: the order template and the supported constructs render
+     * exactly what the interpreter renders, for JSON trees as well as plain Java values.
+     */
+    @Test
+    public void testCompiledOutputMatchesInterpreter() throws Exception {
+        // Arrange
+        Template order = configuration.getTemplate("output_template.ftl");
+        Map<String, Object> orderModel = model("{\"order\": {\"orderNumber\": \"A-1\", \"processed\": \"today\","
+                + "\"release\": false, \"lines\": [{\"unit\": \"kg\", \"quantity\": 1234567, \"itemNumber\": \"X\"},"
+                + "{\"unit\": \"pcs\", \"quantity\": -3, \"itemNumber\": \"Y\"}]},"
+                + "\"extraInfo\": \"extra\", \"pluginAdded\": \"plugin\"}");
+        Template constructs = template("<#-- comment -->[<#list groups as g>${g.name}:<#list g.items as g>"
+                + "${g?c}<#if g?has_next>,</#if></#list><#if g?has_next>;</#if></#list>]"
+                + "<#if flags.a && !(flags.b || flags.c)>A<#elseif flags.b>B<#else>C</#if>"
+                + "<#if flags.b>never</#if>${count} ${java.text} ${java.number?c} ${java.flag?c}");
+        Map<String, Object> constructsModel = model("{\"groups\": [{\"name\": \"one\", \"items\": [1, 2]},"
+                + "{\"name\": \"two\", \"items\": []}], \"flags\": {\"a\": true, \"b\": false, \"c\": false},"
+                + "\"count\": 9876}");
+        Map<String, Object> java = new HashMap<>();
+        java.put("text", "plain");
+        java.put("number", 123456789012L);
+        java.put("flag", Boolean.TRUE);
+        constructsModel.put("java", java);
+
+        // Act
+        CompiledTemplate compiledOrder = TemplateCompiler.compile(order);
+        CompiledTemplate compiledConstructs = TemplateCompiler.compile(constructs);
+
+        // Assert
+        assertNotNull(compiledOrder);
+        assertNotNull(compiledConstructs);
+        assertEquals(interpret(order, orderModel), compiledOrder.render(orderModel));
+        assertEquals(interpret(constructs, constructsModel), compiledConstructs.render(constructsModel));
+        assertEquals("[one:1,2;two:]A9,876 plain 123456789012 true", compiledConstructs.render(constructsModel));
+    }
+
+    /**
+     * Test case for templates outside the supported subset: they are not compiled at all.
+     */
+    @Test
+    public void testUnsupportedTemplatesStayInterpreted() throws Exception {
+        for (String source : Arrays.asList(
+                "<#assign x = 1>${x}",
+                "${name?upper_case}",
+                "${name!'default'}",
+                "<#list xs as x>${x}<#sep>,</#list>",
+                "<#list xs as x>${x}<#else>none</#list>",
+                "<#list order as k, v>${k}</#list>",
+                "<#include 'output_template.ftl'>",
+                "<#ftl output_format='HTML'>${name}",
+                "${a + b}")) {
+            assertNull(TemplateCompiler.compile(template(source)), source);
+        }
+    }
+
+    /**
+     * Test case for values the compiled form does not print: the render is abandoned so the caller
+     * falls back to the interpreter, which prints or reports them as before.
+     */
+    @Test
+    public void testAbandonsRenderForValuesItCannotPrint() throws Exception {
+        CompiledTemplate compiled = TemplateCompiler.compile(template("${order.id}<#if order.flag>!</#if>"));
+        assertNotNull(compiled);
+
+        assertEquals("7!", compiled.render(model("{\"order\": {\"id\": 7, \"flag\": true}}")));
+        assertNull(compiled.render(model("{\"order\": {\"flag\": true}}")));
+        assertNull(compiled.render(model("{\"order\": {\"id\": null, \"flag\": true}}")));
+        assertNull(compiled.render(model("{\"order\": {\"id\": 1.5, \"flag\": true}}")));
+        assertNull(compiled.render(model("{\"order\": {\"id\": true, \"flag\": true}}")));
+        assertNull(compiled.render(model("{\"order\": {\"id\": 7, \"flag\": \"yes\"}}")));
+        assertNull(compiled.render(model("{\"order\": [1]}")));
+    }
+
+    private Template template(String source) throws Exception {
+        return new Template("test.ftl", new StringReader(source), configuration);
+    }
+
+    private Map<String, Object> model(String json) throws Exception {
+        JsonNode root = objectMapper.readTree(json);
+        Map<String, Object> model = new HashMap<>();
+        root.fields().forEachRemaining(field -> model.put(field.getKey(), field.getValue()));
+        return model;
+    }
+
+    private static String interpret(Template template, Map<String, Object> dataModel) throws Exception {
+        StringWriter out = new StringWriter();
+        template.process(dataModel, out);
+        return out.toString();
+    }
+}
@@ -0,0 +1,176 @@
+package com.gautam.jsontransformation.transformer.template;
+
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TemplateRegistryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Configuration configuration;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        Files.write(tempDir.resolve("greeting.ftl"), "Hello ${name}".getBytes(StandardCharsets.UTF_8));
+        Files.write(tempDir.resolve("greeting.sample.json"), "{\"name\": \"warmup\"}".getBytes(StandardCharsets.UTF_8));
+        Files.createDirectories(tempDir.resolve("nested"));
+        Files.write(tempDir.resolve("nested/bye.ftl"), "Bye".getBytes(StandardCharsets.UTF_8));
+
+        configuration = new Configuration(Configuration.VERSION_2_3_31);
+        configuration.setDirectoryForTemplateLoading(tempDir.toFile());
+        configuration.setDefaultEncoding("UTF-8");
+        configuration.setObjectWrapper(new JsonNodeObjectWrapper(Configuration.VERSION_2_3_31));
+    }
+
+    /**
+     * Templates are compiled at startup and then served from memory, even if the file disappears.
+     */
+    @Test
+    public void testPreloadServesTemplatesFromMemory() throws Exception {
+        TemplateRegistry registry = new TemplateRegistry(configuration, tempDir.toString(), false, false, 5);
+        registry.preload();
+
+        assertEquals(2, registry.getTemplates().size());
+        assertNotNull(registry.getRegistered("nested/bye.ftl"));
+        RegisteredTemplate registered = registry.getRegistered("greeting.ftl");
+        assertEquals(Files.getLastModifiedTime(tempDir.resolve("greeting.ftl")).toMillis(), registered.getVersion());
+
+        Files.delete(tempDir.resolve("greeting.ftl"));
+        Template template = registry.getTemplate("greeting.ftl");
+        assertSame(registered.getTemplate(), template);
+
+        StringWriter out = new StringWriter();
+        template.process(Collections.singletonMap("name", "Alice"), out);
+        assertEquals("Hello Alice", out.toString());
+    }
+
+    /**
+     * Templates added after startup are compiled on first use; unknown names fail with an IOException.
+     */
+    @Test
+    public void testLoadsTemplatesAddedAfterStartup() throws Exception {
+        TemplateRegistry registry = new TemplateRegistry(configuration, tempDir.toString(), false, false, 0);
+        registry.preload();
+        Files.write(tempDir.resolve("late.ftl"), "Late".getBytes(StandardCharsets.UTF_8));
+
+        Template template = registry.getTemplate("late.ftl");
+        assertSame(template, registry.getTemplate("late.ftl"));
+        assertThrows(IOException.class, () -> registry.getTemplate("missing.ftl"));
+    }
+
+    /**
+     * With watching enabled, an edited template is recompiled in the background and swapped in with a
+     * newer version; deleting it removes it from the registry.
+     */
+    @Test
+    public void testWatcherReloadsChangedTemplates() throws Exception {
+        TemplateRegistry registry = new TemplateRegistry(configuration, tempDir.toString(), false, true, 0);
+        registry.preload();
+        try {
+            long initialVersion = registry.getRegistered("greeting.ftl").getVersion();
+
+            Files.write(tempDir.resolve("greeting.ftl"), "Hi ${name}".getBytes(StandardCharsets.UTF_8));
+            assertTrue(waitFor(() -> render(registry).equals("Hi Bob")), "Edited template should be picked up.");
+            assertTrue(registry.getRegistered("greeting.ftl").getVersion() > initialVersion);
+
+            Files.delete(tempDir.resolve("nested/bye.ftl"));
+            assertTrue(waitFor(() -> registry.getRegistered("nested/bye.ftl") == null),
+                    "Deleted template should be dropped.");
+        } finally {
+            registry.close();
+        }
+    }
+
+    /**
+     * A template is compiled on the render that reaches the threshold, and a reload starts counting again.
+     */
+    @Test
+    public void testPromotesTemplatesAfterThreshold() throws Exception {
+        TemplateRegistry registry = new TemplateRegistry(configuration, tempDir.toString(), false, false, 5, 3);
+        registry.preload();
+
+        assertNull(registry.getCompiledTemplate("greeting.ftl"));
+        assertNull(registry.getCompiledTemplate("greeting.ftl"));
+        CompiledTemplate compiled = registry.getCompiledTemplate("greeting.ftl");
+        assertNotNull(compiled);
+        assertSame(compiled, registry.getCompiledTemplate("greeting.ftl"));
+        assertEquals("Hello Alice", compiled.render(Collections.singletonMap("name", "Alice")));
+
+        registry.reload(tempDir.resolve("greeting.ftl"));
+        assertNull(registry.getCompiledTemplate("greeting.ftl"));
+    }
+
+    /**
+     * A compiled template renders straight into a rewindable writer; an abandoned render is taken back
+     * before the interpreter writes, and too many of them demote the template for good.
+     */
+    @Test
+    public void testRewindsAndDemotesAbandonedRenders() throws Exception {
+        configuration.setLocale(Locale.US);
+        TemplateRegistry registry = new TemplateRegistry(configuration, tempDir.toString(), false, false, 5, 1);
+        registry.preload();
+        FreemarkerTemplateEngine engine = new FreemarkerTemplateEngine(registry);
+
+        RewindableStringWriter out = new RewindableStringWriter();
+        out.write("> ");
+        engine.process("greeting.ftl", Collections.singletonMap("name", "Alice"), out);
+        assertEquals("> Hello Alice", out.toString());
+        CompiledTemplate compiled = registry.getCompiledTemplate("greeting.ftl");
+        assertNotNull(compiled);
+
+        // Decimals need the interpreter, after "Hello " has already been written.
+        for (int i = 0; i < CompiledTemplate.MAX_DEOPTIMIZATIONS; i++) {
+            out = new RewindableStringWriter();
+            out.write("> ");
+            engine.process("greeting.ftl", Collections.singletonMap("name", 1.5), out);
+            assertEquals("> Hello 1.5", out.toString());
+        }
+        assertTrue(compiled.isDemoted());
+        assertNull(registry.getCompiledTemplate("greeting.ftl"));
+        assertNull(registry.getCompiledTemplate("greeting.ftl"));
+    }
+
+    private static String render(TemplateRegistry registry) throws Exception {
+        StringWriter out = new StringWriter();
+        registry.getTemplate("greeting.ftl").process(Collections.singletonMap("name", "Bob"), out);
+        return out.toString();
+    }
+
+    private static boolean waitFor(Callable<Boolean> condition) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            if (condition.call()) {
+                return true;
+            }
+            Thread.sleep(50);
+        }
+        return false;
+    }
+
+    private static final class RewindableStringWriter extends StringWriter implements RewindableWriter {
+        @Override
+        public int position() {
+            return getBuffer().length();
+        }
+
+        @Override
+        public void rewind(int position) {
+            getBuffer().setLength(position);
+        }
+    }
+}